@@ -0,0 +1,178 @@
+// ColumnCompressor.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import word_processing.LedFrame;
+
+/**
+ * <em>ColumnCompressor class</em>
+ * compresses a frame column by column into a TYPE_COLUMNS payload, for
+ * text that is mostly dark with the same glyph columns over and over:
+ * 
+ * 		a column the same as the one before it - a RUN, one byte for up to 64
+ * 		a column sent recently - its DICTIONARY index, one byte
+ * 		anything else - a LITERAL column, added to the dictionary
+ * 
+ * the dictionary holds the last FrameProtocol.DICTIONARY_SIZE literal
+ * columns and rolls on from frame to frame, so glyphs scrolling across the
+ * board are only sent once; the controller keeps the same dictionary,
+ * numbered by a STATE that moves on with every packet it applies, and
+ * drops a packet built on a different one
+ * 
+ * decoding is a loop over token bytes with a 32 column ring buffer
+ * (64 bytes on a 10 row board), see <em>FrameDecoder</em>
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote not thread safe, used by one <em>DeltaFrameEncoder</em>
+ * @see local/Serial_Communication/FrameProtocol.java
+ */
+public class ColumnCompressor {
+	
+	//columns in a RUN or LITERAL token
+	final static int MAX_COUNT = FrameProtocol.TOKEN_ARGUMENT + 1;
+	
+	//size of the physical board
+	final int height;
+	final int width;
+	
+	//bytes of each literal column, and mask of its rows
+	final int columnBytes;
+	final long rowMask;
+	
+	//dictionary as the controller has it, newest at next - 1
+	private final long[] dictionary = new long[FrameProtocol.DICTIONARY_SIZE];
+	private int next = 0, size = 0;
+	
+	//STATE of the controller's dictionary, 0 if unknown
+	private int state = 0;
+	
+	//dictionary and STATE after the last compress(), until commit()
+	private final long[] pending = new long[FrameProtocol.DICTIONARY_SIZE];
+	private int pendingNext, pendingSize, pendingState;
+	
+	public ColumnCompressor(int height, int width) {
+		this.height = height;
+		this.width = width;
+		this.columnBytes = (height + 7) / 8;
+		this.rowMask = height == Long.SIZE ? -1L : (1L << height) - 1;
+	}
+	
+	// longest payload compress() can write for this board
+	public int maxLength() {
+		return 1 + this.width * (this.columnBytes + 1);
+	}
+	
+	/**
+	 * writes @param frame as a TYPE_COLUMNS payload into @param out starting
+	 * at @param offset, giving up as soon as it is no shorter than @param limit
+	 * 
+	 * the dictionary only moves on once the packet is sent, see commit()
+	 * 
+	 * @param selfContained - true to clear the dictionary first (STATE 0),
+	 * 						  so the packet needs nothing before it
+	 * @param out - at least maxLength() bytes from @param offset
+	 * @return the number of bytes written, -1 if not shorter than @param limit
+	 */
+	public int compress(LedFrame frame, boolean selfContained, byte[] out, int offset, int limit) {
+		boolean reset = selfContained || this.state == 0;
+		if(reset) {
+			this.pendingNext = 0;
+			this.pendingSize = 0;
+		}
+		else {
+			System.arraycopy(this.dictionary, 0, this.pending, 0, this.dictionary.length);
+			this.pendingNext = this.next;
+			this.pendingSize = this.size;
+		}
+		this.pendingState = reset ? 1 : this.state % 255 + 1;
+		
+		int end = offset + Math.min(limit, this.maxLength());
+		int i = offset;
+		out[i++] = (byte) (reset ? 0 : this.state);
+		
+		long previous = 0;
+		int run = 0;
+		int literal = -1;
+		for(int col = 0; col < this.width; col++) {
+			long column = frame.getColumn(col) & this.rowMask;
+			
+			//same as the last column - longer RUN
+			if(column == previous) {
+				literal = -1;
+				if(++run == MAX_COUNT) {
+					out[i++] = (byte) (FrameProtocol.TOKEN_RUN | (run - 1));
+					run = 0;
+				}
+				if(i >= end)
+					return -1;
+				continue;
+			}
+			if(run > 0) {
+				out[i++] = (byte) (FrameProtocol.TOKEN_RUN | (run - 1));
+				run = 0;
+			}
+			previous = column;
+			
+			//sent recently - DICTIONARY
+			int index = this.find(column);
+			if(index >= 0) {
+				literal = -1;
+				out[i++] = (byte) (FrameProtocol.TOKEN_DICTIONARY | index);
+			}
+			
+			//new - LITERAL, opening a token if the last one is full or closed
+			else {
+				if(literal < 0 || (out[literal] & FrameProtocol.TOKEN_ARGUMENT) == MAX_COUNT - 1) {
+					literal = i;
+					out[i++] = (byte) FrameProtocol.TOKEN_LITERAL;
+				}
+				else {
+					out[literal]++;
+				}
+				if(i + this.columnBytes > end)
+					return -1;
+				for(int b = 0; b < this.columnBytes; b++) {
+					out[i++] = (byte) (column >>> (8 * b));
+				}
+				this.pending[this.pendingNext] = column;
+				this.pendingNext = (this.pendingNext + 1) % this.pending.length;
+				this.pendingSize = Math.min(this.pendingSize + 1, this.pending.length);
+			}
+			if(i >= end)
+				return -1;
+		}
+		if(run > 0)
+			out[i++] = (byte) (FrameProtocol.TOKEN_RUN | (run - 1));
+		return i < end ? i - offset : -1;
+	}
+	
+	// index of @param column in the pending dictionary, 0 being the newest, -1 if not in it
+	private int find(long column) {
+		for(int k = 0; k < this.pendingSize; k++) {
+			if(this.pending[(this.pendingNext - 1 - k + this.pending.length) % this.pending.length] == column)
+				return k;
+		}
+		return -1;
+	}
+	
+	/**
+	 * records the payload of the last compress() as sent, the controller's
+	 * dictionary then being what it was built with
+	 */
+	public void commit() {
+		System.arraycopy(this.pending, 0, this.dictionary, 0, this.pending.length);
+		this.next = this.pendingNext;
+		this.size = this.pendingSize;
+		this.state = this.pendingState;
+	}
+	
+	/**
+	 * forgets the controller's dictionary, used when it may not have every
+	 * packet sent, the next payload being self contained
+	 */
+	public void reset() {
+		this.state = 0;
+	}
+}
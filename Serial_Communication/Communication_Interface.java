@@ -6,6 +6,12 @@ package Serial_Communication;
 
 import processing.core.PApplet;
 import processing.serial.*;
+import metrics.Counter;
+import metrics.Metrics;
+import settings.BoardGeometry;
+import settings.Settings;
+import word_processing.GrayFrame;
+import word_processing.LedFrame;
 
 /**
  * <em>Serial_Communcation Class</em>
@@ -21,15 +27,35 @@ import processing.serial.*;
  * @see https://www.arduino.cc/
  * @see https://processing.org/
  * 
- * @implSpec Serial Baud rate is 9600
+ * @implSpec Serial Baud rate defaults to Settings.SERIAL_BAUD_RATE
+ * @implSpec frames are sent in the binary format of <em>FrameProtocol</em>
+ * @implSpec frames are written by a <em>SerialWriter</em> thread, update() never blocks
+ * @implSpec with more than one port the board is split between them by a <em>ShardedBoard</em>
+ * @implSpec any <em>Transport</em> can stand in for the Serial port (a pty, a simulated controller)
  * 
  */
-public class Communication_Interface {
+public class Communication_Interface implements Settings {
+	
+	//frames not sent because no port is open
+	final static Counter NO_PORT = Metrics.counter("serial.no_port");
 	
 	//PApplet application
 	PApplet app;
-	//Serial communication port
+	//Serial communication port, null if not Serial
 	Serial myPort;
+	//link frames are written to, null if none could be opened
+	Transport transport;
+	//size of the physical board frames are sent to
+	final BoardGeometry geometry;
+	//packs board state into binary Serial packets, only sending what changed
+	DeltaFrameEncoder encoder;
+	//thread writing frames to transport, null if no port
+	SerialWriter writer;
+	//ports and segments of a board split between controllers, null if one port
+	Serial[] shardPorts;
+	ShardedBoard shards;
+	//measured capacity of the link to the arduino
+	LinkMonitor monitor;
 	
 	/**
 	 * initializer function - finds current arduino port and
@@ -49,20 +75,122 @@ public class Communication_Interface {
 	 * @exception if port cannot be found, serialPort set to null
 	 */
 	public Communication_Interface(PApplet application, int port_index) {
+		this(application, port_index, SERIAL_BAUD_RATE);
+	}
+	
+	/**
+	 * initializer function - same as above with a baud rate other than
+	 * Settings.SERIAL_BAUD_RATE
+	 * 
+	 * @param baud_rate - baud rate of the port, must match the arduino
+	 */
+	public Communication_Interface(PApplet application, int port_index, int baud_rate) {
+		this(application, port_index, baud_rate, BoardGeometry.DEFAULT);
+	}
+	
+	/**
+	 * initializer function - same as above for a board of @param geometry
+	 * 
+	 * @param geometry - size of the physical board, must match the arduino
+	 * @see local/settings/BoardGeometry
+	 */
+	public Communication_Interface(PApplet application, int port_index, int baud_rate, BoardGeometry geometry) {
 		
 		this.app = application;
+		this.geometry = geometry;
+		this.encoder = new DeltaFrameEncoder(geometry.getHeight(), geometry.getLength());
+		this.monitor = new LinkMonitor(baud_rate);
 		
 		
 		//attempt to set Serial object port to port_index; defaults to null
 		try { 
 			String portName = Serial.list()[port_index];
-			this.myPort = new Serial(this.app, portName, 9600);
+			this.myPort = new Serial(this.app, portName, baud_rate);
 		
 		} catch(Exception e) {
 			this.myPort = null;
 		}
 		
+		if(this.myPort != null)
+			this.open(new SerialTransport(this.myPort));
+		
+	}
+	
+	/**
+	 * initializer function - sends frames over @param transport instead of
+	 * a Serial port, e.g. a <em>FileTransport</em> on a pty or a
+	 * <em>SimulatedController</em>
+	 * 
+	 * @param transport - link to the controller, closed by stop()
+	 * @param baud_rate - baud rate of the link, for pacing
+	 * @param geometry - size of the physical board, must match the controller
+	 */
+	public Communication_Interface(Transport transport, int baud_rate, BoardGeometry geometry) {
+		
+		this.geometry = geometry;
+		this.encoder = new DeltaFrameEncoder(geometry.getHeight(), geometry.getLength());
+		this.monitor = new LinkMonitor(baud_rate);
+		this.open(transport);
+	}
+	
+	// starts writing frames to @param transport
+	private void open(Transport transport) {
+		
+		//Serial writes happen on their own thread
+		this.transport = transport;
+		this.encoder.setCompressing(SERIAL_COMPRESSION);
+		this.writer = new SerialWriter(transport, this.encoder, this.monitor, SERIAL_ACK_TIMEOUT_MS,
+				SERIAL_WINDOW, SERIAL_RX_BUFFER_BYTES);
+		this.writer.start();
+	}
+	
+	/**
+	 * initializer function - splits a board of @param geometry into equal
+	 * column ranges, one per port in @param port_indices from the left, each
+	 * controller switching frames together
+	 * 
+	 * @param port_indices - ports of the controllers in column order, see getPorts()
+	 * @param baud_rate - baud rate of every port, must match the arduinos
+	 * @param geometry - size of the whole board
+	 * 
+	 * @exception if any port cannot be opened, no frames are sent
+	 * @see local/Serial_Communication/ShardedBoard.java
+	 */
+	public Communication_Interface(PApplet application, int[] port_indices, int baud_rate, BoardGeometry geometry) {
+		
+		this.app = application;
+		this.geometry = geometry;
+		this.encoder = new DeltaFrameEncoder(geometry.getHeight(), geometry.getLength());
+		this.monitor = new LinkMonitor(baud_rate);
+		
+		//attempt to open every port; none are used if one fails
+		this.shardPorts = new Serial[port_indices.length];
+		Transport[] transports = new Transport[port_indices.length];
+		try {
+			for(int i = 0; i < port_indices.length; i++) {
+				this.shardPorts[i] = new Serial(this.app, Serial.list()[port_indices[i]], baud_rate);
+				transports[i] = new SerialTransport(this.shardPorts[i]);
+			}
+		} catch(Exception e) {
+			this.stopShardPorts();
+			return;
+		}
 		
+		this.shards = new ShardedBoard(geometry.getHeight(), ShardedBoard.split(geometry.getLength(), port_indices.length), 
+				transports, baud_rate, SERIAL_ACK_TIMEOUT_MS);
+		this.shards.setCompressing(SERIAL_COMPRESSION);
+		this.shards.start();
+	}
+	
+	// closes any ports opened for shards, no frames are sent after
+	private void stopShardPorts() {
+		if(this.shardPorts == null)
+			return;
+		for(Serial port : this.shardPorts) {
+			if(port != null)
+				port.stop();
+		}
+		this.shardPorts = null;
 	}
 	
 	// Getter function to receive port options for Serial communication
@@ -73,41 +201,143 @@ public class Communication_Interface {
 	/**
 	 * function that writes current board state into Serial for Arduino to
 	 * read in, this can be processed from arduino to process for LED board
-	 * @param grid - any array of Strings be processed - this is received from
-	 * 				<em>WordConstructor</em>.get_offset_grid()
+	 * @param grid - the frame to be processed - this is received from
+	 * 				<em>WordEvent</em>.get_offset_board()
 	 * 
-	 * @implNote assumes grid is rectangular and has height of Settings.BOARD_GRID_HEIGHT
+	 * @implNote only the geometry.getLength() columns of the physical board are sent,
+	 * 			 as a binary packet described in <em>FrameProtocol</em> relative
+	 * 			 to the last frame sent
+	 * @implNote @param grid is copied, the caller may reuse it straight away
 	 * 
-	 * @see local/word_processing/WordConstructor
-	 * @see local/settings/Settings
+	 * @see local/word_processing/LedFrame
+	 * @see local/Serial_Communication/FrameProtocol
+	 * @see local/settings/BoardGeometry
 	 */
-	public void update(String[] grid) {
+	public void update(LedFrame grid) {
+		publish(new LedFrame(grid));
+	}
+	
+	/**
+	 * same as update() without copying, for a caller that already made
+	 * its own copy of the frame
+	 * 
+	 * @param frame - must not be modified after being published
+	 */
+	public void publish(LedFrame frame) {
 		
-		// check if this.myPort has been initialized to a port
-		if(myPort == null) {
+		// board split between controllers
+		if(shards != null) {
+			shards.publish(frame);
 			return;
 		}
 		
-		// port available for communication?
-		if ( myPort.available() > 0) 
-		{ 
-			try {
-				
-				// write in to Serial communication: format is each row split
-				// by ", " spacing
-				String cumulativeGrid = "";
-				for(String command : grid) {
-					cumulativeGrid += command;
-					cumulativeGrid += ", ";
-				}
-				
-				//remove final ", " and then write
-				cumulativeGrid = cumulativeGrid.substring(0, cumulativeGrid.length()-1);
-				myPort.write(cumulativeGrid);
-			}
-
-			catch (NullPointerException e) {
-				e.printStackTrace();}
-		}	  
+		// check if a port has been opened
+		if(transport == null) {
+			NO_PORT.increment();
+			return;
+		}
+		
+		// hand to the writer thread - never blocks
+		writer.publish(frame);
+	}
+	
+	/**
+	 * same as above for a frame with levels of brightness, sent as a
+	 * TYPE_GRAY packet the arduino sketch must understand
+	 * 
+	 * @implNote a board split between controllers is only sent the LEDs at
+	 * 			 least half brightness
+	 * @see local/word_processing/GrayFrame
+	 */
+	public void update(GrayFrame grid) {
+		publish(new GrayFrame(grid));
+	}
+	
+	/**
+	 * same as update() without copying, for a caller that already made
+	 * its own copy of the frame
+	 * 
+	 * @param frame - must not be modified after being published
+	 */
+	public void publish(GrayFrame frame) {
+		
+		// board split between controllers
+		if(shards != null) {
+			shards.publish(new LedFrame(frame.getPlane(frame.getBits() - 1)));
+			return;
+		}
+		
+		// check if a port has been opened
+		if(transport == null) {
+			NO_PORT.increment();
+			return;
+		}
+		
+		// hand to the writer thread - never blocks
+		writer.publish(frame);
+	}
+	
+	/**
+	 * stops the writer thread and releases the Serial port
+	 */
+	public void stop() {
+		if(writer != null)
+			writer.stop();
+		if(transport != null)
+			transport.close();
+		if(shards != null)
+			shards.stop();
+		stopShardPorts();
+	}
+	
+	/**
+	 * frame rate the animation should run at - the highest rate the link
+	 * has been measured to sustain, capped at Settings.MAX_ANIMATION_FPS
+	 * 
+	 * @return frames per second, Settings.DEFAULT_ANIMATION_FPS without a port
+	 */
+	public double getFrameRate() {
+		if(shards != null)
+			return Math.min(MAX_ANIMATION_FPS, shards.getMaxFrameRate());
+		if(transport == null)
+			return DEFAULT_ANIMATION_FPS;
+		
+		int fullPacket = FrameProtocol.packedLength(geometry.getHeight() * geometry.getLength()) + FrameProtocol.OVERHEAD;
+		return Math.min(MAX_ANIMATION_FPS, monitor.getMaxFrameRate(fullPacket, Math.max(1, SERIAL_WINDOW)));
+	}
+	
+	public BoardGeometry getGeometry() {
+		return geometry;
+	}
+	
+	public LinkMonitor getMonitor() {
+		return monitor;
+	}
+	
+	// segments of a board split between controllers, null if one port
+	public ShardedBoard getShards() {
+		return shards;
+	}
+	
+	// frames passed to update() since the port was opened
+	public long getFramesProduced() {
+		if(shards != null)
+			return shards.getFramesProduced();
+		return writer == null ? 0 : writer.getFramesProduced();
+	}
+	
+	// frames written to Serial (shown by every controller, if split)
+	public long getFramesSent() {
+		if(shards != null)
+			return shards.getFramesCommitted();
+		return writer == null ? 0 : writer.getFramesSent();
+	}
+	
+	// frames replaced by a newer frame or not written because the port was busy
+	// (or not shown because a controller missed them, if split)
+	public long getFramesDropped() {
+		if(shards != null)
+			return shards.getFramesDropped() + shards.getFramesAborted();
+		return writer == null ? 0 : writer.getFramesDropped();
 	}
 }
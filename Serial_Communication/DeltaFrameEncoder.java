@@ -0,0 +1,355 @@
+// DeltaFrameEncoder.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import metrics.Counter;
+import metrics.Gauge;
+import metrics.Metrics;
+import word_processing.Frame;
+import word_processing.GrayFrame;
+import word_processing.LedFrame;
+
+/**
+ * <em>DeltaFrameEncoder class</em>
+ * a <em>FrameEncoder</em> that compares each frame to the last frame
+ * sent and writes whichever packet is cheapest:
+ * 
+ * 		TYPE_FULL - every LED of the board
+ * 		TYPE_SHIFT - board moved left or right plus the columns moved in
+ * 		TYPE_SPARSE - the individual LEDs that changed
+ * 		TYPE_COLUMNS - every column, run length and dictionary compressed
+ * 					   (only once setCompressing(true), see <em>ColumnCompressor</em>)
+ * 
+ * a scrolling <em>WordEvent</em> only moves a column or so per tick, so most
+ * packets are a shift plus one or two columns instead of the whole board
+ * 
+ * every <em>keyframeInterval</em> packets a TYPE_FULL packet is sent
+ * regardless, so a controller that missed a packet resyncs, as a self
+ * contained TYPE_COLUMNS packet if that is shorter
+ * 
+ * bytes a TYPE_FULL packet would have taken and bytes actually encoded
+ * are counted, their ratio being how much the encoding saves
+ * 
+ * a <em>GrayFrame</em> is sent as a TYPE_GRAY packet, unless every LED is
+ * off or at full brightness (e.g. text not between columns), when it is
+ * encoded the same as the on/off frame
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/FrameProtocol.java
+ * @see local/Serial_Communication/FrameDecoder.java
+ */
+public class DeltaFrameEncoder extends FrameEncoder {
+	
+	//default number of packets between forced TYPE_FULL packets
+	public final static int DEFAULT_KEYFRAME_INTERVAL = 50;
+	
+	//largest shift checked for, the shift byte is signed
+	public final static int MAX_SHIFT = 16;
+	
+	//most LEDs a board can have for TYPE_SPARSE, indices are two bytes
+	public final static int MAX_SPARSE_LEDS = 0x10000;
+	
+	//bytes of TYPE_FULL packets the frames encoded would have been, and of the packets encoded
+	final static Counter RAW_BYTES = Metrics.counter("serial.raw_bytes");
+	final static Counter ENCODED_BYTES = Metrics.counter("serial.encoded_bytes");
+	
+	static {
+		Metrics.gauge("serial.compression_ratio", new Gauge() {
+			public double value() {
+				long encoded = ENCODED_BYTES.get();
+				return encoded == 0 ? Double.NaN : (double) RAW_BYTES.get() / encoded;
+			}
+		});
+	}
+	
+	//number of packets between forced TYPE_FULL packets
+	final int keyframeInterval;
+	
+	//the board as the controller has it after the last packet
+	private final LedFrame reference;
+	
+	//the frame being encoded, cut to the size of the board
+	private final LedFrame current;
+	
+	//false until a TYPE_FULL packet has been sent
+	private boolean synced = false;
+	
+	//packets since the last TYPE_FULL packet
+	private int sinceKeyframe = 0;
+	
+	//reused buffer for TYPE_SHIFT and TYPE_SPARSE payloads
+	private final byte[] delta;
+	
+	//reused buffer for TYPE_GRAY payloads, grown to the bits of the frame
+	private byte[] gray = new byte[0];
+	
+	//TYPE_COLUMNS payloads and their buffer, only tried if compressing
+	private final ColumnCompressor compressor;
+	private final byte[] columns;
+	private boolean compressing = false;
+	
+	//number of packets sent of each TYPE
+	private long fullCount, shiftCount, sparseCount, grayCount, columnsCount;
+	
+	//bytes of TYPE_FULL packets the frames encoded would have been, and of the packets encoded
+	private long rawBytes, encodedBytes;
+	
+	public DeltaFrameEncoder(int height, int width) {
+		this(height, width, DEFAULT_KEYFRAME_INTERVAL);
+	}
+	
+	/**
+	 * @param height - number of rows of the physical board
+	 * @param width - number of columns of the physical board
+	 * @param keyframeInterval - number of packets between forced TYPE_FULL packets
+	 */
+	public DeltaFrameEncoder(int height, int width, int keyframeInterval) {
+		super(height, width);
+		this.keyframeInterval = Math.max(1, keyframeInterval);
+		this.reference = new LedFrame(height, width);
+		this.current = new LedFrame(height, width);
+		
+		//a delta is only ever sent if shorter than a TYPE_FULL payload
+		this.delta = new byte[FrameProtocol.packedLength(height * width) + 2];
+		this.compressor = new ColumnCompressor(height, width);
+		this.columns = new byte[this.compressor.maxLength()];
+	}
+	
+	/**
+	 * tries TYPE_COLUMNS for every frame from now on, sent whenever it is
+	 * the shortest, the controller must understand it
+	 */
+	public void setCompressing(boolean compressing) {
+		this.compressing = compressing;
+		this.compressor.reset();
+	}
+	
+	public boolean isCompressing() {
+		return this.compressing;
+	}
+	
+	/**
+	 * encodes @param frame as the cheapest packet that turns the last
+	 * frame sent into @param frame
+	 * 
+	 * @return the packet to be written to Serial
+	 */
+	@Override
+	public byte[] encode(LedFrame frame) {
+		this.current.copyFrom(frame, 0);
+		
+		int fullLength = FrameProtocol.packedLength(this.height * this.width);
+		boolean keyframe = !this.synced || this.sinceKeyframe >= this.keyframeInterval - 1;
+		byte[] packet;
+		
+		int shift = 0, shiftLength = Integer.MAX_VALUE;
+		int changes = 0, sparseLength = Integer.MAX_VALUE;
+		if(!keyframe) {
+			
+			//cheapest shift, if any
+			shift = this.findShift();
+			if(shift != 0)
+				shiftLength = 1 + FrameProtocol.packedLength(this.height * Math.abs(shift));
+			
+			//changed LEDs, capped once it cannot beat a full packet
+			//(never for a board too large to index)
+			if(this.height * this.width <= MAX_SPARSE_LEDS) {
+				changes = this.countChanges(fullLength / 2);
+				sparseLength = 2 + 2 * changes;
+			}
+		}
+		
+		//compressed columns, only if shorter than everything else
+		//(self contained for a keyframe)
+		int columnsLength = -1;
+		if(this.compressing) {
+			int limit = Math.min(fullLength, Math.min(shiftLength, sparseLength));
+			columnsLength = this.compressor.compress(this.current, keyframe, this.columns, 0, limit);
+		}
+		
+		if(columnsLength >= 0) {
+			packet = FrameProtocol.packet(FrameProtocol.TYPE_COLUMNS, this.columns, columnsLength);
+			this.compressor.commit();
+			this.columnsCount++;
+		}
+		else if(shiftLength < fullLength && shiftLength <= sparseLength) {
+			packet = this.encodeShift(shift);
+			this.shiftCount++;
+		}
+		else if(sparseLength < fullLength) {
+			packet = this.encodeSparse(changes);
+			this.sparseCount++;
+		}
+		else {
+			packet = super.encode(this.current);
+			keyframe = true;
+			this.compressor.reset();
+			this.fullCount++;
+		}
+		
+		if(keyframe) {
+			this.synced = true;
+			this.sinceKeyframe = 0;
+		}
+		else {
+			this.sinceKeyframe++;
+		}
+		
+		this.count(FrameProtocol.OVERHEAD + fullLength, packet.length);
+		this.reference.copyFrom(this.current, 0);
+		return packet;
+	}
+	
+	/**
+	 * encodes @param frame as a TYPE_GRAY packet, at most @param frame.getBits()
+	 * times the length of a TYPE_FULL packet, or as above if it is only on/off
+	 * or has more levels than FrameProtocol.maxGrayBits() allows for the board
+	 * (the LEDs at least half brightness being sent instead)
+	 * 
+	 * @return the packet to be written to Serial
+	 */
+	public byte[] encode(GrayFrame frame) {
+		LedFrame brightest = frame.getPlane(frame.getBits() - 1);
+		if(frame.isBinary() || frame.getBits() > FrameProtocol.maxGrayBits(this.height, this.width))
+			return this.encode(brightest);
+		
+		int planeLength = FrameProtocol.packedLength(this.height * this.width);
+		int length = 1 + frame.getBits() * planeLength;
+		if(this.gray.length < length)
+			this.gray = new byte[length];
+		this.gray[0] = (byte) frame.getBits();
+		for(int k = frame.getBits() - 1, offset = 1; k >= 0; k--, offset += planeLength) {
+			FrameProtocol.pack(frame.getPlane(k), this.height, this.width, this.gray, offset);
+		}
+		
+		//the controller's on/off board is now the LEDs at least half brightness
+		this.reference.copyFrom(brightest, 0);
+		this.synced = true;
+		this.sinceKeyframe = 0;
+		this.grayCount++;
+		
+		//the controller clears its dictionary on a TYPE_GRAY (and TYPE_FULL)
+		this.compressor.reset();
+		
+		//levels are not compressed, so a TYPE_GRAY packet is its own raw length
+		byte[] packet = FrameProtocol.packet(FrameProtocol.TYPE_GRAY, this.gray, length);
+		this.count(packet.length, packet.length);
+		return packet;
+	}
+	
+	// encodes @param frame whichever kind it is, as above
+	public byte[] encode(Frame frame) {
+		if(frame instanceof GrayFrame)
+			return this.encode((GrayFrame) frame);
+		return this.encode((LedFrame) frame);
+	}
+	
+	/**
+	 * forces the next packet to be TYPE_FULL, used when the controller may
+	 * not have the last frame sent (e.g. after a reconnect or lost packet)
+	 */
+	public void reset() {
+		this.synced = false;
+		this.compressor.reset();
+	}
+	
+	// counts a packet of @param encoded bytes for a frame of @param raw bytes
+	private void count(int raw, int encoded) {
+		this.rawBytes += raw;
+		this.encodedBytes += encoded;
+		RAW_BYTES.add(raw);
+		ENCODED_BYTES.add(encoded);
+	}
+	
+	/**
+	 * finds the smallest shift of this.reference that matches this.current
+	 * apart from the columns moved in from outside the board
+	 * 
+	 * @return the shift (negative is left) or 0 if no shift matches
+	 */
+	private int findShift() {
+		int maxShift = Math.min(MAX_SHIFT, this.width - 1);
+		for(int k = 1; k <= maxShift; k++) {
+			if(this.shiftMatches(-k))
+				return -k;
+			if(this.shiftMatches(k))
+				return k;
+		}
+		return 0;
+	}
+	
+	// checks if this.reference moved by @param shift matches this.current
+	private boolean shiftMatches(int shift) {
+		int from = Math.max(0, shift);
+		int to = Math.min(this.width, this.width + shift);
+		for(int col = from; col < to; col++) {
+			if(this.current.getColumn(col) != this.reference.getColumn(col - shift))
+				return false;
+		}
+		return true;
+	}
+	
+	// counts LEDs that differ from this.reference, stopping after @param cap
+	private int countChanges(int cap) {
+		int changes = 0;
+		for(int col = 0; col < this.width && changes <= cap; col++) {
+			changes += Long.bitCount(this.current.getColumn(col) ^ this.reference.getColumn(col));
+		}
+		return changes;
+	}
+	
+	// TYPE_SHIFT packet for @param shift found by findShift()
+	private byte[] encodeShift(int shift) {
+		int cols = Math.abs(shift);
+		this.delta[0] = (byte) shift;
+		int length = FrameProtocol.pack(this.current, this.height, 
+				shift < 0 ? this.width - cols : 0, cols, this.delta, 1);
+		return FrameProtocol.packet(FrameProtocol.TYPE_SHIFT, this.delta, 1 + length);
+	}
+	
+	// TYPE_SPARSE packet of the @param changes LEDs counted by countChanges()
+	private byte[] encodeSparse(int changes) {
+		this.delta[0] = (byte) (changes >>> 8);
+		this.delta[1] = (byte) changes;
+		int i = 2;
+		for(int col = 0; col < this.width; col++) {
+			for(long bits = this.current.getColumn(col) ^ this.reference.getColumn(col); bits != 0; bits &= bits - 1) {
+				int index = col * this.height + Long.numberOfTrailingZeros(bits);
+				this.delta[i++] = (byte) (index >>> 8);
+				this.delta[i++] = (byte) index;
+			}
+		}
+		return FrameProtocol.packet(FrameProtocol.TYPE_SPARSE, this.delta, i);
+	}
+	
+	public long getFullCount() {
+		return this.fullCount;
+	}
+	
+	public long getShiftCount() {
+		return this.shiftCount;
+	}
+	
+	public long getSparseCount() {
+		return this.sparseCount;
+	}
+	
+	public long getGrayCount() {
+		return this.grayCount;
+	}
+	
+	public long getColumnsCount() {
+		return this.columnsCount;
+	}
+	
+	/**
+	 * @return bytes of TYPE_FULL packets the frames encoded would have been
+	 * 		   over bytes of the packets encoded (e.g. 4 is a quarter of the
+	 * 		   bytes), NaN before the first frame
+	 */
+	public double getCompressionRatio() {
+		return this.encodedBytes == 0 ? Double.NaN : (double) this.rawBytes / this.encodedBytes;
+	}
+}
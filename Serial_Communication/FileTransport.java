@@ -0,0 +1,146 @@
+// FileTransport.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+
+/**
+ * <em>FileTransport class</em>
+ * a <em>Transport</em> over a device or file opened by path instead of a
+ * Processing Serial port: a tty the port settings were made on outside
+ * Java (e.g. stty -F /dev/ttyACM0 9600 raw), a pseudo terminal with an
+ * emulated controller on the other side, e.g.
+ * 
+ * 		socat -d -d pty,raw,echo=0 pty,raw,echo=0
+ * 
+ * or a plain file that every packet is captured to, which is replaced and
+ * never read back (the packets written would be read as acknowledgements)
+ * 
+ * bytes are read on a daemon thread, so available() and read() never block
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote write() is called from one thread, available() and read() from any
+ * @see local/Serial_Communication/Transport.java
+ */
+public class FileTransport implements Transport {
+	
+	//where packets are written
+	private final OutputStream out;
+	
+	//where acknowledgements are read from, null if nothing is read
+	private final InputStream in;
+	
+	//bytes read not yet taken by read()
+	private final ArrayDeque<Integer> received = new ArrayDeque<Integer>();
+	
+	private volatile boolean closed = false;
+	
+	/**
+	 * opens @param device for both writing and reading if it is a tty or pty,
+	 * only for writing if it is a plain file or does not exist yet
+	 * 
+	 * @exception IOException if it cannot be opened
+	 */
+	public FileTransport(File device) throws IOException {
+		this(device, isDevice(device) ? device : null);
+	}
+	
+	// checks if @param path is something other than a plain file or directory, e.g. a tty
+	static boolean isDevice(File path) {
+		return path.exists() && !path.isFile() && !path.isDirectory();
+	}
+	
+	/**
+	 * writes to @param output and reads from @param input
+	 * 
+	 * @param input - null to read nothing, e.g. to capture packets to a file
+	 * @exception IOException if either cannot be opened, neither is left open
+	 */
+	public FileTransport(File output, File input) throws IOException {
+		this.out = new FileOutputStream(output);
+		try {
+			this.in = input == null ? null : new FileInputStream(input);
+		} catch(IOException e) {
+			this.out.close();
+			throw e;
+		}
+		if(this.in != null) {
+			Thread reader = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					FileTransport.this.readAll();
+				}
+			}, "transport-" + input.getName());
+			reader.setDaemon(true);
+			reader.start();
+		}
+	}
+	
+	// moves every byte from this.in to this.received until closed or ended
+	private void readAll() {
+		byte[] buffer = new byte[256];
+		try {
+			int count;
+			while(!this.closed && (count = this.in.read(buffer)) >= 0) {
+				synchronized(this.received) {
+					for(int i = 0; i < count; i++) {
+						this.received.add(buffer[i] & 0xFF);
+					}
+				}
+			}
+		} catch(IOException e) {
+			if(!this.closed)
+				System.err.println("FileTransport: read failed (" + e.getMessage() + ")");
+		}
+	}
+	
+	/**
+	 * @exception UncheckedIOException if the write fails
+	 */
+	@Override
+	public void write(byte[] data) {
+		try {
+			this.out.write(data);
+			this.out.flush();
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public int available() {
+		synchronized(this.received) {
+			return this.received.size();
+		}
+	}
+	
+	@Override
+	public int read() {
+		synchronized(this.received) {
+			Integer b = this.received.poll();
+			return b == null ? -1 : b;
+		}
+	}
+	
+	// closes the device, the reading thread stops with it
+	@Override
+	public void close() {
+		this.closed = true;
+		try {
+			this.out.close();
+			if(this.in != null)
+				this.in.close();
+		} catch(IOException e) {
+			System.err.println("FileTransport: close failed (" + e.getMessage() + ")");
+		}
+	}
+}
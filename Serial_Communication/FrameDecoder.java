@@ -0,0 +1,465 @@
+// FrameDecoder.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import word_processing.GrayFrame;
+import word_processing.LedFrame;
+
+/**
+ * <em>FrameDecoder class</em>
+ * reference decoder for the binary Serial frame format, reading one
+ * byte at a time the same way the arduino controller does so encoders
+ * can be checked without hardware
+ * 
+ * a packet with a bad CRC or unknown TYPE is dropped and the decoder
+ * waits for the next SYNC byte
+ * 
+ * a sequenced packet is only applied if its SEQ follows the last one
+ * applied (or it needs nothing before it: TYPE_FULL, TYPE_GRAY or TYPE_COLUMNS with STATE 0),
+ * otherwise it is discarded but still acknowledged, with the SEQ of the
+ * last packet applied, so the host resends what was missed
+ * 
+ * a latched decoder loads packets into a back board and only shows it on
+ * a TYPE_LATCH packet, as a controller of a <em>ShardedBoard</em> does,
+ * otherwise every packet is shown straight away and TYPE_LATCH does nothing
+ * 
+ * TYPE_COLUMNS is decoded a token at a time into a back board of columns
+ * with a ring buffer of FrameProtocol.DICTIONARY_SIZE columns, which is
+ * all a controller needs besides its board
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/FrameProtocol.java
+ * @see local/Serial_Communication/FrameEncoder.java
+ */
+public class FrameDecoder {
+	
+	//decoder states, in order of the bytes of a packet
+	private final static int WAIT_SYNC = 0, READ_TYPE = 1, READ_SEQ = 2, READ_LENGTH_HIGH = 3,
+			READ_LENGTH_LOW = 4, READ_PAYLOAD = 5, READ_CRC = 6;
+	
+	//size of the physical board
+	final int height;
+	final int width;
+	
+	//the board as of the last accepted packet
+	private final LedFrame board;
+	
+	//the LEDs lit, this.board itself unless latched
+	private final LedFrame shown;
+	
+	//levels of this.board and this.shown if loaded by TYPE_GRAY, null if on/off
+	private GrayFrame gray;
+	private GrayFrame grayShown;
+	
+	//true if this.board is only shown on TYPE_LATCH
+	final boolean latched;
+	
+	//packet currently being read
+	private int state = WAIT_SYNC;
+	private int type;
+	private boolean sequenced;
+	private int seq;
+	private int length;
+	private int read;
+	private int crc;
+	private byte[] payload = new byte[0];
+	
+	//number of packets dropped for a bad CRC or TYPE, and accepted
+	private long errors;
+	private long packets;
+	
+	//SEQ of the last sequenced packet applied, -1 until one is
+	private int sequence = -1;
+	
+	//sequenced packets discarded for arriving out of order, and packets
+	//to be acknowledged (accepted or discarded out of order)
+	private long outOfOrder;
+	private long acknowledged;
+	
+	//true if the last packet acknowledged was sequenced
+	private boolean lastSequenced;
+	
+	//TYPE_COLUMNS dictionary, newest at dictionaryNext - 1, and the STATE the next
+	//packet must have, 0 if only a self contained one can be applied (as after
+	//a TYPE_FULL or TYPE_GRAY, which may be one resent from before the dictionary)
+	private final long[] dictionary = new long[FrameProtocol.DICTIONARY_SIZE];
+	private int dictionaryNext = 0, dictionarySize = 0;
+	private int dictionaryState = 0;
+	
+	//columns of a TYPE_COLUMNS packet, only shown once every token is checked
+	private final long[] columns;
+	
+	public FrameDecoder(int height, int width) {
+		this(height, width, false);
+	}
+	
+	/**
+	 * @param latched - true to only show packets once a TYPE_LATCH arrives
+	 */
+	public FrameDecoder(int height, int width, boolean latched) {
+		this.height = height;
+		this.width = width;
+		this.latched = latched;
+		this.board = new LedFrame(height, width);
+		this.shown = latched ? new LedFrame(height, width) : this.board;
+		this.columns = new long[width];
+	}
+	
+	/**
+	 * reads the next byte received from Serial
+	 * 
+	 * @param b - the byte received
+	 * @return a copy of the LEDs shown if @param b completed a valid packet
+	 * 		   that may have changed them, otherwise null (always null for a
+	 * 		   packet loaded by a latched decoder)
+	 */
+	public LedFrame accept(int b) {
+		b &= 0xFF;
+		switch(this.state) {
+		case WAIT_SYNC:
+			if(b == FrameProtocol.SYNC) {
+				this.crc = 0;
+				this.state = READ_TYPE;
+			}
+			return null;
+			
+		case READ_TYPE:
+			
+			//unknown TYPE - not a real packet, b may itself be the next SYNC
+			if(!this.knows(b & ~FrameProtocol.FLAG_SEQUENCED)) {
+				this.state = b == FrameProtocol.SYNC ? READ_TYPE : WAIT_SYNC;
+				return null;
+			}
+			this.type = b & ~FrameProtocol.FLAG_SEQUENCED;
+			this.sequenced = (b & FrameProtocol.FLAG_SEQUENCED) != 0;
+			this.crc = FrameProtocol.crc8(this.crc, b);
+			this.state = this.sequenced ? READ_SEQ : READ_LENGTH_HIGH;
+			return null;
+			
+		case READ_SEQ:
+			this.seq = b;
+			this.crc = FrameProtocol.crc8(this.crc, b);
+			this.state = READ_LENGTH_HIGH;
+			return null;
+			
+		case READ_LENGTH_HIGH:
+			this.length = b << 8;
+			this.crc = FrameProtocol.crc8(this.crc, b);
+			this.state = READ_LENGTH_LOW;
+			return null;
+			
+		case READ_LENGTH_LOW:
+			this.length |= b;
+			this.crc = FrameProtocol.crc8(this.crc, b);
+			
+			//longer than any packet for this board - not a real packet
+			if(this.length > this.maxPayload()) {
+				this.errors++;
+				this.state = WAIT_SYNC;
+				return null;
+			}
+			if(this.payload.length < this.length)
+				this.payload = new byte[this.length];
+			this.read = 0;
+			this.state = this.length == 0 ? READ_CRC : READ_PAYLOAD;
+			return null;
+			
+		case READ_PAYLOAD:
+			this.payload[this.read++] = (byte) b;
+			this.crc = FrameProtocol.crc8(this.crc, b);
+			if(this.read == this.length)
+				this.state = READ_CRC;
+			return null;
+			
+		default:
+			this.state = WAIT_SYNC;
+			if(b != this.crc) {
+				this.errors++;
+				return null;
+			}
+			
+			//sequenced packet out of order - acknowledge what was applied instead
+			if(this.sequenced && !this.selfContained()
+					&& (this.sequence < 0 || this.seq != (this.sequence + 1) % FrameProtocol.SEQUENCE_MODULO)) {
+				this.outOfOrder++;
+				if(this.sequence >= 0) {
+					this.acknowledged++;
+					this.lastSequenced = true;
+				}
+				return null;
+			}
+			
+			if(!this.apply(this.type, this.payload, this.length)) {
+				this.errors++;
+				return null;
+			}
+			if(this.sequenced)
+				this.sequence = this.seq;
+			this.lastSequenced = this.sequenced;
+			this.acknowledged++;
+			this.packets++;
+			if(this.latched && this.type != FrameProtocol.TYPE_LATCH)
+				return null;
+			return new LedFrame(this.shown);
+		}
+	}
+	
+	/**
+	 * reads every byte of @param data in order
+	 * 
+	 * @return a copy of the LEDs shown after the last valid packet within
+	 * 		   @param data that may have changed them, or null if none
+	 */
+	public LedFrame accept(byte[] data) {
+		LedFrame last = null;
+		for(byte b : data) {
+			LedFrame frame = this.accept(b);
+			if(frame != null)
+				last = frame;
+		}
+		return last;
+	}
+	
+	// checks if @param type is a TYPE this decoder can apply
+	boolean knows(int type) {
+		return type == FrameProtocol.TYPE_FULL || type == FrameProtocol.TYPE_SHIFT
+				|| type == FrameProtocol.TYPE_SPARSE || type == FrameProtocol.TYPE_LATCH
+				|| type == FrameProtocol.TYPE_GRAY || type == FrameProtocol.TYPE_COLUMNS;
+	}
+	
+	// checks if the packet read needs nothing before it to be applied
+	private boolean selfContained() {
+		return this.type == FrameProtocol.TYPE_FULL || this.type == FrameProtocol.TYPE_GRAY
+				|| (this.type == FrameProtocol.TYPE_COLUMNS && this.length > 0 && this.payload[0] == 0);
+	}
+	
+	// longest payload any known TYPE can have for this board
+	int maxPayload() {
+		int gray = 1 + GrayFrame.MAX_BITS * FrameProtocol.packedLength(this.height * this.width);
+		int columns = 1 + this.width * (1 + (this.height + 7) / 8);
+		return Math.max(gray, columns);
+	}
+	
+	/**
+	 * updates this.board from a packet that passed its CRC check
+	 * 
+	 * @return false if the packet TYPE or LENGTH is not understood
+	 */
+	boolean apply(int type, byte[] payload, int length) {
+		switch(type) {
+		
+		//every LED of the board
+		case FrameProtocol.TYPE_FULL:
+			if(length != FrameProtocol.packedLength(this.height * this.width))
+				return false;
+			FrameProtocol.unpack(payload, 0, this.height, this.width, this.board);
+			this.setGray(null);
+			this.dictionaryState = 0;
+			return true;
+		
+		//every level of the board, one plane at a time
+		case FrameProtocol.TYPE_GRAY:
+			int planeLength = FrameProtocol.packedLength(this.height * this.width);
+			int bits = length < 1 ? 0 : payload[0];
+			if(bits < 1 || bits > GrayFrame.MAX_BITS || length != 1 + bits * planeLength)
+				return false;
+			GrayFrame levels = this.gray != null && this.gray.getBits() == bits ? this.gray 
+					: new GrayFrame(this.height, this.width, bits);
+			for(int k = 0; k < bits; k++) {
+				FrameProtocol.unpack(payload, 1 + (bits - 1 - k) * planeLength, this.height, this.width, levels.getPlane(k));
+			}
+			
+			//on/off, LEDs at least half brightness
+			this.board.copyFrom(levels.getPlane(bits - 1), 0);
+			this.setGray(levels);
+			this.dictionaryState = 0;
+			return true;
+		
+		//shift board then fill in the columns moved in from outside
+		case FrameProtocol.TYPE_SHIFT:
+			if(length < 1)
+				return false;
+			int shift = payload[0];
+			int cols = Math.abs(shift);
+			if(cols > this.width || length != 1 + FrameProtocol.packedLength(this.height * cols))
+				return false;
+			this.board.shift(shift);
+			FrameProtocol.unpack(payload, 1, this.height, shift < 0 ? this.width - cols : 0, cols, this.board);
+			this.setGray(null);
+			return true;
+		
+		//toggle each listed LED
+		case FrameProtocol.TYPE_SPARSE:
+			if(length < 2)
+				return false;
+			int count = (payload[0] & 0xFF) << 8 | (payload[1] & 0xFF);
+			if(length != 2 + 2 * count)
+				return false;
+			
+			//check every index before changing the board
+			for(int i = 0; i < count; i++) {
+				int index = (payload[2 + 2 * i] & 0xFF) << 8 | (payload[3 + 2 * i] & 0xFF);
+				if(index >= this.height * this.width)
+					return false;
+			}
+			for(int i = 0; i < count; i++) {
+				int index = (payload[2 + 2 * i] & 0xFF) << 8 | (payload[3 + 2 * i] & 0xFF);
+				int col = index / this.height;
+				int row = index % this.height;
+				this.board.set(row, col, !this.board.get(row, col));
+			}
+			this.setGray(null);
+			return true;
+		
+		//every column, from runs, the dictionary and literal columns
+		case FrameProtocol.TYPE_COLUMNS:
+			if(!this.applyColumns(payload, length))
+				return false;
+			this.setGray(null);
+			return true;
+		
+		//show everything loaded so far
+		case FrameProtocol.TYPE_LATCH:
+			if(length != 0)
+				return false;
+			if(this.latched) {
+				this.shown.copyFrom(this.board, 0);
+				this.grayShown = this.gray == null ? null : new GrayFrame(this.gray);
+			}
+			return true;
+		
+		default:
+			return false;
+		}
+	}
+	
+	/**
+	 * decodes a TYPE_COLUMNS payload into this.board, moving the dictionary on
+	 * 
+	 * @return false if its STATE does not match the dictionary, a token is
+	 * 		   invalid or it is not exactly one board of columns, neither the
+	 * 		   board nor the dictionary being changed
+	 */
+	private boolean applyColumns(byte[] payload, int length) {
+		if(length < 1)
+			return false;
+		int state = payload[0] & 0xFF;
+		if(state != 0 && state != this.dictionaryState)
+			return false;
+		
+		//dictionary as this packet left it, only kept if it is valid
+		int columnBytes = (this.height + 7) / 8;
+		long rowMask = this.height == Long.SIZE ? -1L : (1L << this.height) - 1;
+		long[] dictionary = state == 0 ? new long[this.dictionary.length] : this.dictionary.clone();
+		int next = state == 0 ? 0 : this.dictionaryNext;
+		int size = state == 0 ? 0 : this.dictionarySize;
+		
+		long previous = 0;
+		int col = 0;
+		for(int i = 1; i < length; ) {
+			int token = payload[i++] & 0xFF;
+			int argument = token & FrameProtocol.TOKEN_ARGUMENT;
+			switch(token & ~FrameProtocol.TOKEN_ARGUMENT) {
+			case FrameProtocol.TOKEN_RUN:
+				if(col + argument + 1 > this.width)
+					return false;
+				for(int k = 0; k <= argument; k++) {
+					this.columns[col++] = previous;
+				}
+				break;
+			case FrameProtocol.TOKEN_DICTIONARY:
+				if(argument >= size || col >= this.width)
+					return false;
+				previous = dictionary[(next - 1 - argument + dictionary.length) % dictionary.length];
+				this.columns[col++] = previous;
+				break;
+			case FrameProtocol.TOKEN_LITERAL:
+				if(col + argument + 1 > this.width || i + (argument + 1) * columnBytes > length)
+					return false;
+				for(int k = 0; k <= argument; k++) {
+					long column = 0;
+					for(int b = 0; b < columnBytes; b++) {
+						column |= (payload[i++] & 0xFFL) << (8 * b);
+					}
+					previous = column & rowMask;
+					this.columns[col++] = previous;
+					dictionary[next] = previous;
+					next = (next + 1) % dictionary.length;
+					size = Math.min(size + 1, dictionary.length);
+				}
+				break;
+			default:
+				return false;
+			}
+		}
+		if(col != this.width)
+			return false;
+		
+		for(col = 0; col < this.width; col++) {
+			this.board.setColumn(col, this.columns[col]);
+		}
+		System.arraycopy(dictionary, 0, this.dictionary, 0, dictionary.length);
+		this.dictionaryNext = next;
+		this.dictionarySize = size;
+		this.dictionaryState = state == 0 ? 1 : state % 255 + 1;
+		return true;
+	}
+	
+	// levels of this.board, null if on/off, shown straight away unless latched
+	private void setGray(GrayFrame levels) {
+		this.gray = levels;
+		if(!this.latched)
+			this.grayShown = levels;
+	}
+	
+	// the board as of the last valid packet, must not be modified
+	public LedFrame getBoard() {
+		return this.board;
+	}
+	
+	// the LEDs lit, as of the last TYPE_LATCH if latched, must not be modified
+	public LedFrame getShown() {
+		return this.shown;
+	}
+	
+	/**
+	 * levels of brightness of the LEDs lit, as getShown()
+	 * 
+	 * @return levels as loaded by TYPE_GRAY, null if the LEDs shown are only
+	 * 		   on or off, must not be modified
+	 */
+	public GrayFrame getGrayShown() {
+		return this.grayShown;
+	}
+	
+	public long getErrors() {
+		return this.errors;
+	}
+	
+	// number of valid packets accepted
+	public long getPackets() {
+		return this.packets;
+	}
+	
+	// number of packets to be acknowledged, accepted or discarded out of order
+	public long getAcknowledged() {
+		return this.acknowledged;
+	}
+	
+	// true if the last packet acknowledged was sequenced, so its ACK carries getSequence()
+	public boolean isLastSequenced() {
+		return this.lastSequenced;
+	}
+	
+	// SEQ of the last sequenced packet applied, -1 if none
+	public int getSequence() {
+		return this.sequence;
+	}
+	
+	// number of sequenced packets discarded for arriving out of order
+	public long getOutOfOrder() {
+		return this.outOfOrder;
+	}
+}
@@ -0,0 +1,60 @@
+// FrameEncoder.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import word_processing.LedFrame;
+
+/**
+ * <em>FrameEncoder class</em>
+ * turns a <em>LedFrame</em> into a binary Serial packet for the
+ * physical board of <em>height</em> by <em>width</em> LEDs
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/FrameProtocol.java
+ * @see local/Serial_Communication/FrameDecoder.java
+ */
+public class FrameEncoder {
+	
+	//size of the physical board
+	final int height;
+	final int width;
+	
+	//reused buffer for bit-packed LEDs
+	private final byte[] payload;
+	
+	/**
+	 * @param height - number of rows of the physical board
+	 * @param width - number of columns of the physical board, columns of a
+	 * 				  frame beyond this are not sent
+	 * 
+	 * @exception IllegalArgumentException if the board does not fit in one packet
+	 */
+	public FrameEncoder(int height, int width) {
+		if(FrameProtocol.packedLength(height * width) > FrameProtocol.MAX_PAYLOAD)
+			throw new IllegalArgumentException(height + "x" + width + " board does not fit in one packet");
+		this.height = height;
+		this.width = width;
+		this.payload = new byte[FrameProtocol.packedLength(height * width)];
+	}
+	
+	/**
+	 * encodes every LED of the physical board as a TYPE_FULL packet
+	 * 
+	 * @param frame - frame to encode, columns and rows outside it are off
+	 * @return the packet to be written to Serial
+	 */
+	public byte[] encode(LedFrame frame) {
+		int length = FrameProtocol.pack(frame, this.height, this.width, this.payload, 0);
+		return FrameProtocol.packet(FrameProtocol.TYPE_FULL, this.payload, length);
+	}
+	
+	public int getHeight() {
+		return this.height;
+	}
+	
+	public int getWidth() {
+		return this.width;
+	}
+}
@@ -0,0 +1,239 @@
+// FrameProtocol.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.util.Arrays;
+import word_processing.GrayFrame;
+import word_processing.LedFrame;
+
+/**
+ * <em>FrameProtocol class</em>
+ * constants and helpers shared by <em>FrameEncoder</em> and <em>FrameDecoder</em>
+ * for the binary Serial frame format sent to the arduino controller
+ * 
+ * every packet is laid out as:
+ * 
+ * 		SYNC | TYPE | LENGTH (2 bytes, big endian) | PAYLOAD (LENGTH bytes) | CRC
+ * 
+ * CRC is a CRC-8 (polynomial 0x07, initial value 0) over TYPE, LENGTH and
+ * PAYLOAD, which is small enough to be computed on the arduino as bytes arrive
+ * 
+ * a sequenced packet (TYPE with FLAG_SEQUENCED set) has a SEQ byte after
+ * TYPE, also covered by the CRC, and is acknowledged with ACK followed by
+ * the SEQ of the last packet the controller accepted in order, so the host
+ * can keep several packets in flight (see <em>WindowedSender</em>):
+ * 
+ * 		SYNC | TYPE | SEQ | LENGTH (2 bytes, big endian) | PAYLOAD | CRC
+ * 
+ * LED payloads are bit-packed column by column, LED (row, col) is bit
+ * (col * height + row) counted from the least significant bit of the first byte,
+ * so a 10x30 board is 38 bytes instead of 300+ characters, levels of
+ * brightness (TYPE_GRAY) are sent as one such bit plane per bit
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/FrameEncoder.java
+ * @see local/Serial_Communication/FrameDecoder.java
+ */
+public final class FrameProtocol {
+	
+	//first byte of every packet
+	public final static int SYNC = 0xA5;
+	
+	//TYPE: payload is every LED of the board
+	public final static int TYPE_FULL = 0x01;
+	
+	//TYPE: payload is a signed shift byte (negative is left) followed by the
+	//		columns moved in from outside the board, bit-packed
+	public final static int TYPE_SHIFT = 0x02;
+	
+	//TYPE: payload is a 2 byte count followed by that many 2 byte LED indices
+	//		(col * height + row) to be toggled
+	public final static int TYPE_SPARSE = 0x03;
+	
+	//TYPE: no payload, a latched controller shows the board loaded by
+	//		every packet since the last TYPE_LATCH, so controllers of one
+	//		<em>ShardedBoard</em> switch frames together
+	public final static int TYPE_LATCH = 0x04;
+	
+	//TYPE: payload is a BITS byte (1 to GrayFrame.MAX_BITS) followed by that
+	//		many planes of every LED, most significant first, each laid out
+	//		as a TYPE_FULL payload, so at most BITS times as long
+	public final static int TYPE_GRAY = 0x05;
+	
+	//TYPE: payload is a STATE byte followed by column tokens that build every
+	//		column of the board from left to right (see <em>ColumnCompressor</em>),
+	//		STATE 0 clears the dictionary first, any other STATE must match the
+	//		controller's dictionary or the packet is dropped; TYPE_FULL and
+	//		TYPE_GRAY clear it too, so one applied again leaves none to match
+	public final static int TYPE_COLUMNS = 0x06;
+	
+	//TYPE_COLUMNS tokens, the top 2 bits of a byte, the low 6 bits being
+	//		RUN: the last column again, (bits + 1) times
+	//		DICTIONARY: dictionary column (bits), 0 being the newest
+	//		LITERAL: (bits + 1) new columns follow, each (height + 7) / 8 bytes
+	//				 with row 0 in bit 0 of the first, each added to the dictionary
+	public final static int TOKEN_RUN = 0x00;
+	public final static int TOKEN_DICTIONARY = 0x40;
+	public final static int TOKEN_LITERAL = 0x80;
+	public final static int TOKEN_ARGUMENT = 0x3F;
+	
+	//columns a TYPE_COLUMNS dictionary holds, the newest replacing the oldest
+	public final static int DICTIONARY_SIZE = 32;
+	
+	//byte a controller sends back once it has read a valid packet
+	//(the host takes any byte received as an acknowledgement, unless sequenced)
+	public final static int ACK = 0x06;
+	
+	//TYPE flag: a SEQ byte follows TYPE and the packet is only accepted in
+	//		order, a packet that needs nothing before it (TYPE_FULL, TYPE_GRAY or
+	//		TYPE_COLUMNS with STATE 0) is always accepted and restarts the order
+	public final static int FLAG_SEQUENCED = 0x80;
+	
+	//number of SEQ values, and most sequenced packets a host may have
+	//unacknowledged (less than half of them, so an ACK is never ambiguous)
+	public final static int SEQUENCE_MODULO = 256;
+	public final static int MAX_WINDOW = SEQUENCE_MODULO / 2 - 1;
+	
+	//bytes surrounding the payload: SYNC, TYPE, LENGTH and CRC
+	public final static int HEADER_LENGTH = 4;
+	public final static int OVERHEAD = HEADER_LENGTH + 1;
+	
+	//largest payload LENGTH can describe
+	public final static int MAX_PAYLOAD = 0xFFFF;
+	
+	private FrameProtocol() {}
+	
+	// bytes needed to hold @param bits bit-packed bits
+	public static int packedLength(int bits) {
+		return (bits + 7) >>> 3;
+	}
+	
+	/**
+	 * most bits of brightness a TYPE_GRAY packet of a @param height by
+	 * @param width board fits within MAX_PAYLOAD, up to GrayFrame.MAX_BITS
+	 * 
+	 * @return 0 if not even one plane fits
+	 */
+	public static int maxGrayBits(int height, int width) {
+		return Math.min(GrayFrame.MAX_BITS, (MAX_PAYLOAD - 1) / packedLength(height * width));
+	}
+	
+	// updates CRC-8 @param crc with a single byte @param b
+	public static int crc8(int crc, int b) {
+		crc ^= b & 0xFF;
+		for(int i = 0; i < 8; i++) {
+			crc = (crc & 0x80) != 0 ? (crc << 1) ^ 0x07 : crc << 1;
+		}
+		return crc & 0xFF;
+	}
+	
+	// CRC-8 of @param length bytes of @param data starting at @param offset
+	public static int crc8(byte[] data, int offset, int length) {
+		int crc = 0;
+		for(int i = offset; i < offset + length; i++) {
+			crc = crc8(crc, data[i]);
+		}
+		return crc;
+	}
+	
+	/**
+	 * bit-packs columns 0 to @param width - 1 and rows 0 to @param height - 1
+	 * of @param frame into @param out starting at @param offset
+	 * 
+	 * @return the number of bytes written
+	 */
+	public static int pack(LedFrame frame, int height, int width, byte[] out, int offset) {
+		return pack(frame, height, 0, width, out, offset);
+	}
+	
+	/**
+	 * bit-packs @param cols columns starting at @param firstCol and rows 0 to
+	 * @param height - 1 of @param frame into @param out starting at @param offset
+	 * 
+	 * @return the number of bytes written
+	 */
+	public static int pack(LedFrame frame, int height, int firstCol, int cols, byte[] out, int offset) {
+		int length = packedLength(height * cols);
+		Arrays.fill(out, offset, offset + length, (byte) 0);
+		
+		//each column is height bits, written a byte at a time
+		long mask = height == Long.SIZE ? -1L : (1L << height) - 1;
+		int bit = 0;
+		for(int col = firstCol; col < firstCol + cols; col++, bit += height) {
+			long column = frame.getColumn(col) & mask;
+			int index = offset + (bit >>> 3);
+			int written = 8 - (bit & 7);
+			out[index] |= (byte) (column << (bit & 7));
+			for(; written < height; written += 8) {
+				out[++index] |= (byte) (column >>> written);
+			}
+		}
+		return length;
+	}
+	
+	/**
+	 * reverses pack(), reading @param height by @param width LEDs from
+	 * @param data starting at @param offset into @param frame
+	 */
+	public static void unpack(byte[] data, int offset, int height, int width, LedFrame frame) {
+		unpack(data, offset, height, 0, width, frame);
+	}
+	
+	/**
+	 * reverses pack(), reading @param cols columns of @param height LEDs from
+	 * @param data starting at @param offset into @param frame from @param firstCol
+	 */
+	public static void unpack(byte[] data, int offset, int height, int firstCol, int cols, LedFrame frame) {
+		//each column is height bits, read a byte at a time
+		long mask = height == Long.SIZE ? -1L : (1L << height) - 1;
+		int bit = 0;
+		for(int col = firstCol; col < firstCol + cols; col++, bit += height) {
+			int index = offset + (bit >>> 3);
+			int read = 8 - (bit & 7);
+			long column = (data[index] & 0xFF) >>> (bit & 7);
+			for(; read < height; read += 8) {
+				column |= (long) (data[++index] & 0xFF) << read;
+			}
+			frame.setColumn(col, column & mask);
+		}
+	}
+	
+	/**
+	 * wraps @param payloadLength bytes of @param payload in a packet
+	 * 
+	 * @return SYNC, TYPE, LENGTH, PAYLOAD and CRC in order
+	 * @exception IllegalArgumentException if the payload is longer than MAX_PAYLOAD
+	 */
+	public static byte[] packet(int type, byte[] payload, int payloadLength) {
+		if(payloadLength > MAX_PAYLOAD)
+			throw new IllegalArgumentException("payload too long: " + payloadLength);
+		
+		byte[] packet = new byte[payloadLength + OVERHEAD];
+		packet[0] = (byte) SYNC;
+		packet[1] = (byte) type;
+		packet[2] = (byte) (payloadLength >>> 8);
+		packet[3] = (byte) payloadLength;
+		System.arraycopy(payload, 0, packet, HEADER_LENGTH, payloadLength);
+		packet[packet.length - 1] = (byte) crc8(packet, 1, packet.length - 2);
+		return packet;
+	}
+	
+	/**
+	 * copies @param packet as a sequenced packet
+	 * 
+	 * @param packet - a packet made by packet(), not already sequenced
+	 * @param seq - its SEQ, 0 to SEQUENCE_MODULO - 1
+	 * @return SYNC, TYPE (with FLAG_SEQUENCED), SEQ, LENGTH, PAYLOAD and CRC in order
+	 */
+	public static byte[] sequenced(byte[] packet, int seq) {
+		byte[] sequenced = new byte[packet.length + 1];
+		sequenced[0] = (byte) SYNC;
+		sequenced[1] = (byte) (packet[1] | FLAG_SEQUENCED);
+		sequenced[2] = (byte) seq;
+		System.arraycopy(packet, 2, sequenced, 3, packet.length - 3);
+		sequenced[sequenced.length - 1] = (byte) crc8(sequenced, 1, sequenced.length - 2);
+		return sequenced;
+	}
+}
@@ -0,0 +1,79 @@
+// LatestFrameExchanger.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <em>LatestFrameExchanger class</em>
+ * a single slot handoff between the thread rendering frames and the
+ * single thread consuming them (e.g. <em>SerialWriter</em>)
+ * 
+ * publishing never blocks: a frame that has not been taken yet is
+ * replaced by the newer one and counted as dropped, so the consumer
+ * always gets the newest frame and never works through a backlog
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @param <F> - kind of frame handed over (e.g. <em>LedFrame</em>, or any <em>Frame</em>)
+ * 
+ * @implNote lock-free, the slot is a single AtomicReference
+ * @see local/Serial_Communication/SerialWriter.java
+ */
+public class LatestFrameExchanger<F> {
+	
+	//newest frame not yet taken, null if none
+	private final AtomicReference<F> slot = new AtomicReference<F>();
+	
+	//thread waiting in await(), null if none
+	private volatile Thread waiter;
+	
+	/**
+	 * makes @param frame the newest frame, waking the consumer if it is waiting
+	 * 
+	 * @param frame - must not be modified after being published
+	 * @return true if an older frame was replaced before it was taken
+	 */
+	public boolean publish(F frame) {
+		F stale = this.slot.getAndSet(frame);
+		Thread consumer = this.waiter;
+		if(consumer != null)
+			LockSupport.unpark(consumer);
+		return stale != null;
+	}
+	
+	// takes the newest frame without waiting, null if none was published
+	public F poll() {
+		return this.slot.getAndSet(null);
+	}
+	
+	/**
+	 * takes the newest frame, waiting up to @param timeout for one to be published
+	 * 
+	 * @return the frame, or null if none was published in time or the
+	 * 		   calling thread was interrupted
+	 * @implNote only a single consumer thread may call this
+	 */
+	public F await(long timeout, TimeUnit unit) {
+		F frame = this.poll();
+		if(frame != null)
+			return frame;
+		
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		this.waiter = Thread.currentThread();
+		try {
+			while((frame = this.poll()) == null) {
+				long remaining = deadline - System.nanoTime();
+				if(remaining <= 0 || Thread.currentThread().isInterrupted())
+					return null;
+				LockSupport.parkNanos(this, remaining);
+			}
+			return frame;
+		} finally {
+			this.waiter = null;
+		}
+	}
+}
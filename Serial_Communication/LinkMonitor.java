@@ -0,0 +1,125 @@
+// LinkMonitor.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+/**
+ * <em>LinkMonitor class</em>
+ * measures what the Serial link to the arduino can actually carry:
+ * effective bytes per second while writing and the latency between a
+ * frame being written and the arduino acknowledging it
+ * 
+ * from these the highest frame rate the link can sustain without a
+ * backlog is derived, which the animation is paced to
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote updated by the <em>SerialWriter</em> thread only, read from any thread
+ * @see local/Serial_Communication/SerialWriter.java
+ */
+public class LinkMonitor {
+	
+	//weight of the newest sample in each moving average
+	final static double SMOOTHING = 0.1;
+	
+	//fraction of the measured capacity that is used, leaving headroom for jitter
+	final static double HEADROOM = 0.9;
+	
+	//bits on the wire per byte (8N1: start bit, 8 data bits, stop bit)
+	final static int BITS_PER_BYTE = 10;
+	
+	//configured baud rate of the port
+	final int baudRate;
+	
+	//moving averages, NaN until the first sample
+	private volatile double bytesPerSecond = Double.NaN;
+	private volatile double ackLatencyNanos = Double.NaN;
+	private volatile double packetBytes = Double.NaN;
+	private volatile double writeNanos = Double.NaN;
+	
+	public LinkMonitor(int baudRate) {
+		if(baudRate <= 0)
+			throw new IllegalArgumentException("baud rate must be positive: " + baudRate);
+		this.baudRate = baudRate;
+	}
+	
+	/**
+	 * records a packet written to Serial
+	 * 
+	 * @param bytes - length of the packet
+	 * @param nanos - time the write took
+	 */
+	public void recordWrite(int bytes, long nanos) {
+		this.packetBytes = average(this.packetBytes, bytes);
+		this.writeNanos = average(this.writeNanos, nanos);
+		
+		//a write that returns immediately only says the OS buffered it,
+		//the wire rate is the most the link can carry
+		double rate = nanos > 0 ? Math.min(bytes * 1e9 / nanos, this.getWireBytesPerSecond()) 
+								: this.getWireBytesPerSecond();
+		this.bytesPerSecond = average(this.bytesPerSecond, rate);
+	}
+	
+	/**
+	 * records the time between the end of a write and the arduino
+	 * acknowledging it (or giving up waiting)
+	 */
+	public void recordAck(long nanos) {
+		this.ackLatencyNanos = average(this.ackLatencyNanos, nanos);
+	}
+	
+	// most bytes per second the baud rate allows
+	public double getWireBytesPerSecond() {
+		return (double) this.baudRate / BITS_PER_BYTE;
+	}
+	
+	// measured bytes per second, the wire rate until measured
+	public double getBytesPerSecond() {
+		double rate = this.bytesPerSecond;
+		return Double.isNaN(rate) ? this.getWireBytesPerSecond() : rate;
+	}
+	
+	// measured acknowledge latency in nanoseconds, 0 until measured
+	public double getAckLatencyNanos() {
+		double latency = this.ackLatencyNanos;
+		return Double.isNaN(latency) ? 0 : latency;
+	}
+	
+	// average packet length in bytes, @param fallback until measured
+	public double getPacketBytes(double fallback) {
+		double bytes = this.packetBytes;
+		return Double.isNaN(bytes) ? fallback : bytes;
+	}
+	
+	/**
+	 * highest frame rate the link can sustain: each frame costs the time the
+	 * write took plus the time waiting for it to be acknowledged, and never
+	 * less than the time an average packet takes on the wire
+	 * 
+	 * @param fullPacketBytes - packet length assumed before any are measured
+	 * @return frames per second
+	 */
+	public double getMaxFrameRate(int fullPacketBytes) {
+		return this.getMaxFrameRate(fullPacketBytes, 1);
+	}
+	
+	/**
+	 * same as above with up to @param window frames unacknowledged at once,
+	 * so waiting for acknowledgements overlaps with the next writes
+	 */
+	public double getMaxFrameRate(int fullPacketBytes, int window) {
+		double transmitNanos = this.getPacketBytes(fullPacketBytes) * 1e9 / this.getBytesPerSecond();
+		double write = this.writeNanos;
+		double cycleNanos = (Double.isNaN(write) ? 0 : write) + this.getAckLatencyNanos();
+		return HEADROOM * 1e9 / Math.max(transmitNanos, cycleNanos / Math.max(1, window));
+	}
+	
+	public int getBaudRate() {
+		return this.baudRate;
+	}
+	
+	// exponential moving average of @param previous and @param sample
+	private static double average(double previous, double sample) {
+		return Double.isNaN(previous) ? sample : previous + SMOOTHING * (sample - previous);
+	}
+}
@@ -0,0 +1,86 @@
+// LoopbackTransport.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.util.ArrayDeque;
+
+/**
+ * <em>LoopbackTransport class</em>
+ * one end of an in-memory link: bytes written to it are read from its
+ * peer and the other way round, so the host side and a controller (e.g. a
+ * <em>FrameDecoder</em> on its own thread, or code under test) can talk as
+ * if over Serial without hardware or timing
+ * 
+ * 		LoopbackTransport host = new LoopbackTransport();
+ * 		LoopbackTransport controller = host.getPeer();
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote thread safe, each end may be used from a different thread
+ * @see local/Serial_Communication/Transport.java
+ */
+public class LoopbackTransport implements Transport {
+	
+	//bytes written by the peer not yet read here
+	private final ArrayDeque<Integer> received;
+	
+	//the other end
+	private final LoopbackTransport peer;
+	
+	//true once either end is closed
+	private final boolean[] closed;
+	
+	// a new link, this end being the host's
+	public LoopbackTransport() {
+		this.received = new ArrayDeque<Integer>();
+		this.closed = new boolean[1];
+		this.peer = new LoopbackTransport(this);
+	}
+	
+	// the other end of the link of @param peer
+	private LoopbackTransport(LoopbackTransport peer) {
+		this.received = new ArrayDeque<Integer>();
+		this.closed = peer.closed;
+		this.peer = peer;
+	}
+	
+	@Override
+	public void write(byte[] data) {
+		synchronized(this.closed) {
+			if(this.closed[0])
+				throw new IllegalStateException("loopback closed");
+			for(byte b : data) {
+				this.peer.received.add(b & 0xFF);
+			}
+		}
+	}
+	
+	@Override
+	public int available() {
+		synchronized(this.closed) {
+			return this.received.size();
+		}
+	}
+	
+	@Override
+	public int read() {
+		synchronized(this.closed) {
+			Integer b = this.received.poll();
+			return b == null ? -1 : b;
+		}
+	}
+	
+	// closes both ends, bytes already written may still be read
+	@Override
+	public void close() {
+		synchronized(this.closed) {
+			this.closed[0] = true;
+		}
+	}
+	
+	// the other end of this link
+	public LoopbackTransport getPeer() {
+		return this.peer;
+	}
+}
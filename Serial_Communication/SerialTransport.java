@@ -0,0 +1,44 @@
+// SerialTransport.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import processing.serial.Serial;
+
+/**
+ * <em>SerialTransport class</em>
+ * a <em>Transport</em> over an open Processing Serial port
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see https://processing.org/reference/libraries/serial/
+ */
+public class SerialTransport implements Transport {
+	
+	//Serial communication port
+	final Serial myPort;
+	
+	public SerialTransport(Serial port) {
+		this.myPort = port;
+	}
+	
+	@Override
+	public void write(byte[] data) {
+		this.myPort.write(data);
+	}
+	
+	@Override
+	public int available() {
+		return this.myPort.available();
+	}
+	
+	@Override
+	public int read() {
+		return this.myPort.read();
+	}
+	
+	@Override
+	public void close() {
+		this.myPort.stop();
+	}
+}
@@ -0,0 +1,302 @@
+// SerialWriter.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.Metrics;
+import word_processing.Frame;
+
+/**
+ * <em>SerialWriter class</em>
+ * dedicated thread owned by <em>Communication_Interface</em> that encodes
+ * and writes frames to Serial, so a slow or blocked port never stalls
+ * the thread rendering frames and rendering never delays a write
+ * 
+ * frames are handed over through a <em>LatestFrameExchanger</em>, the
+ * newest frame is always the one sent and older frames are dropped
+ * 
+ * packets are sequenced and sent through a <em>WindowedSender</em>, so
+ * several can be unacknowledged at once without overrunning the arduino,
+ * and any the arduino missed are sent again
+ * 
+ * with a window of 0 (arduino sketches without sequence numbers), after
+ * each packet the writer waits for the arduino to send anything back (its
+ * acknowledgement) before writing the next, up to an ack timeout, so the
+ * link is never written faster than it is drained
+ * 
+ * encode and write times, bytes, frames and errors are recorded in
+ * <em>Metrics</em>, shared with <em>ShardedBoard</em>
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/Communication_Interface.java
+ * @see local/Serial_Communication/LatestFrameExchanger.java
+ */
+public class SerialWriter implements Runnable {
+	
+	//time to encode a frame, and to write a packet
+	final static Histogram ENCODE = Metrics.histogram("serial.encode");
+	final static Histogram WRITE = Metrics.histogram("serial.write");
+	
+	//bytes written, frames written and dropped, failed writes, acknowledgements given up on
+	final static Counter BYTES = Metrics.counter("serial.bytes");
+	final static Counter SENT = Metrics.counter("frames.sent");
+	final static Counter DROPPED = Metrics.counter("frames.dropped");
+	final static Counter ERRORS = Metrics.counter("serial.errors");
+	final static Counter ACK_TIMEOUTS = Metrics.counter("serial.ack_timeouts");
+	final static Counter RETRANSMITS = Metrics.counter("serial.retransmits");
+	final static Counter RESYNCS = Metrics.counter("serial.resyncs");
+	
+	//Serial communication port
+	final Transport myPort;
+	
+	//packs frames into Serial packets, only used by the writer thread
+	final DeltaFrameEncoder encoder;
+	
+	//measures throughput and acknowledge latency of the link
+	final LinkMonitor monitor;
+	
+	//time to wait for an acknowledgement before sending anyway
+	final long ackTimeoutNanos;
+	
+	//sequenced flow control, null to wait for any byte after each packet
+	final WindowedSender sender;
+	
+	//handoff from the rendering thread
+	final LatestFrameExchanger<Frame> exchanger = new LatestFrameExchanger<Frame>();
+	
+	//frames published, written to Serial, and dropped before being written
+	final AtomicLong produced = new AtomicLong();
+	final AtomicLong sent = new AtomicLong();
+	final AtomicLong dropped = new AtomicLong();
+	
+	//true once the arduino has acknowledged the last packet
+	private boolean ready = true;
+	
+	//System.nanoTime() at the end of the last write
+	private long lastWrite;
+	
+	//the writer thread, null until start()
+	private Thread thread;
+	private volatile boolean running;
+	
+	/**
+	 * @param port - open Serial port (or stand-in) to write to
+	 * @param encoder - encoder for packets, must only be used by this writer
+	 * @param monitor - records link measurements
+	 * @param ackTimeoutMillis - time to wait for the arduino to acknowledge a
+	 * 							 packet before sending the next one anyway
+	 */
+	public SerialWriter(Transport port, DeltaFrameEncoder encoder, LinkMonitor monitor, long ackTimeoutMillis) {
+		this(port, encoder, monitor, ackTimeoutMillis, 0, 0);
+	}
+	
+	/**
+	 * same as above, sending sequenced packets
+	 * 
+	 * @param ackTimeoutMillis - time to wait for the arduino to acknowledge a
+	 * 							 packet before sending it again
+	 * @param window - most packets unacknowledged at once, 0 to wait for any
+	 * 				   byte after each packet instead (no sequence numbers)
+	 * @param bufferBytes - receive buffer of the arduino
+	 * 
+	 * @see local/Serial_Communication/WindowedSender.java
+	 */
+	public SerialWriter(Transport port, DeltaFrameEncoder encoder, LinkMonitor monitor, long ackTimeoutMillis, 
+			int window, int bufferBytes) {
+		this.myPort = port;
+		this.encoder = encoder;
+		this.monitor = monitor;
+		this.ackTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(ackTimeoutMillis);
+		this.sender = window > 0 ? new WindowedSender(port, encoder, monitor, window, bufferBytes, this.ackTimeoutNanos) : null;
+	}
+	
+	// starts the writer thread, calling this more than once has no effect
+	public synchronized void start() {
+		if(this.thread != null)
+			return;
+		this.running = true;
+		this.thread = new Thread(this, "serial-writer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	// stops the writer thread, waiting briefly for the current write to finish
+	public synchronized void stop() {
+		this.running = false;
+		if(this.thread == null)
+			return;
+		this.thread.interrupt();
+		try {
+			this.thread.join(1000);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.thread = null;
+	}
+	
+	/**
+	 * hands @param frame to the writer thread without blocking
+	 * 
+	 * @param frame - a <em>LedFrame</em> or <em>GrayFrame</em>, must not be
+	 * 				  modified after being published
+	 */
+	public void publish(Frame frame) {
+		this.produced.incrementAndGet();
+		if(this.exchanger.publish(frame)) {
+			this.dropped.incrementAndGet();
+			DROPPED.increment();
+		}
+	}
+	
+	@Override
+	public void run() {
+		if(this.sender != null) {
+			this.runWindowed();
+			return;
+		}
+		while(this.running) {
+			Frame frame = this.exchanger.await(100, TimeUnit.MILLISECONDS);
+			if(frame == null)
+				continue;
+			
+			try {
+				// wait for the arduino to acknowledge the last packet
+				if(!this.awaitReady()) {
+					
+					//no acknowledgement - controller may have missed it
+					this.encoder.reset();
+				}
+				
+				// a newer frame may have been published while waiting
+				Frame newest = this.exchanger.poll();
+				if(newest != null) {
+					this.dropped.incrementAndGet();
+					DROPPED.increment();
+					frame = newest;
+				}
+				
+				long encoding = System.nanoTime();
+				byte[] packet = this.encoder.encode(frame);
+				long start = System.nanoTime();
+				ENCODE.record(start - encoding);
+				this.myPort.write(packet);
+				this.lastWrite = System.nanoTime();
+				this.monitor.recordWrite(packet.length, this.lastWrite - start);
+				WRITE.record(this.lastWrite - start);
+				BYTES.add(packet.length);
+				this.ready = false;
+				this.sent.incrementAndGet();
+				SENT.increment();
+				
+			} catch(RuntimeException e) {
+				
+				//controller may have missed part of a packet
+				this.encoder.reset();
+				this.dropped.incrementAndGet();
+				DROPPED.increment();
+				ERRORS.increment();
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * sends the newest frame whenever the window has room, reading
+	 * acknowledgements and resending on timeout in between
+	 */
+	private void runWindowed() {
+		while(this.running) {
+			try {
+				this.sender.poll(System.nanoTime());
+				if(!this.sender.isReady()) {
+					LockSupport.parkNanos(200000);
+					continue;
+				}
+				
+				// short wait while packets are in flight, so acknowledgements are read
+				Frame frame = this.exchanger.await(this.sender.getInFlight() > 0 ? 1 : 100, TimeUnit.MILLISECONDS);
+				if(frame == null)
+					continue;
+				
+				long encoding = System.nanoTime();
+				this.sender.send(frame, encoding);
+				ENCODE.record(System.nanoTime() - encoding);
+				this.sent.incrementAndGet();
+				SENT.increment();
+				
+			} catch(RuntimeException e) {
+				
+				//packets in flight are sent again if the arduino missed them
+				ERRORS.increment();
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * waits until the arduino sends anything back after the last packet,
+	 * reading and discarding what it sent
+	 * 
+	 * @return true if acknowledged, false if ackTimeoutNanos passed first
+	 */
+	private boolean awaitReady() {
+		if(this.ready)
+			return true;
+		this.ready = true;
+		return awaitAck(this.myPort, this.monitor, this.lastWrite, this.ackTimeoutNanos);
+	}
+	
+	/**
+	 * waits until @param port sends anything back after a packet written at
+	 * @param lastWrite (System.nanoTime()), reading and discarding what it sent
+	 * 
+	 * @return true if acknowledged, false if @param timeoutNanos passed first
+	 * 		   or the thread was interrupted
+	 */
+	static boolean awaitAck(Transport port, LinkMonitor monitor, long lastWrite, long timeoutNanos) {
+		while(!Thread.currentThread().isInterrupted()) {
+			long now = System.nanoTime();
+			if(port.available() > 0) {
+				while(port.available() > 0) {
+					port.read();
+				}
+				monitor.recordAck(now - lastWrite);
+				return true;
+			}
+			if(now - lastWrite >= timeoutNanos) {
+				monitor.recordAck(timeoutNanos);
+				ACK_TIMEOUTS.increment();
+				return false;
+			}
+			LockSupport.parkNanos(200000);
+		}
+		return false;
+	}
+	
+	public LinkMonitor getMonitor() {
+		return this.monitor;
+	}
+	
+	// sequenced flow control, null if waiting for any byte after each packet
+	public WindowedSender getSender() {
+		return this.sender;
+	}
+	
+	public long getFramesProduced() {
+		return this.produced.get();
+	}
+	
+	public long getFramesSent() {
+		return this.sent.get();
+	}
+	
+	public long getFramesDropped() {
+		return this.dropped.get();
+	}
+}
@@ -0,0 +1,446 @@
+// ShardedBoard.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import metrics.Counter;
+import metrics.Metrics;
+import word_processing.LedFrame;
+
+/**
+ * <em>ShardedBoard class</em>
+ * one logical board split into column ranges (segments), each driven by
+ * its own arduino controller on its own <em>Transport</em>, for a roof
+ * line longer than one controller on one port can drive
+ * 
+ * each frame is committed in two phases so every segment switches on the
+ * same frame, with no tearing at segment boundaries:
+ * 
+ * 		LOAD - every segment encodes its slice of the frame and writes it on
+ * 			   its own thread, in parallel, then waits for its controller to
+ * 			   acknowledge it (latched controllers load it without showing it)
+ * 		LATCH - only if every segment was acknowledged, a TYPE_LATCH packet
+ * 			   is written to every segment and they all show the frame,
+ * 			   otherwise the frame is abandoned and the segments that missed
+ * 			   it resync with a TYPE_FULL packet next frame
+ * 
+ * a frame is only committed once every segment has acknowledged its
+ * TYPE_LATCH too; one that is not is sent again, with the same SEQ so a
+ * controller that already showed the frame only acknowledges it, up to
+ * LATCH_ATTEMPTS times before the segment is resynced and the frame is
+ * counted as abandoned
+ * 
+ * every packet is sequenced and only an acknowledgement carrying its SEQ
+ * counts, so one arriving after its timeout is never taken for the next
+ * 
+ * frames are handed over through a <em>LatestFrameExchanger</em> the same
+ * way as <em>SerialWriter</em>, so publish() never blocks
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote controllers must decode with a latched <em>FrameDecoder</em> and
+ * 			 acknowledge sequenced packets with their SEQ
+ * @see local/Serial_Communication/FrameProtocol.java
+ * @see local/Serial_Communication/SimulatedController.java
+ */
+public class ShardedBoard implements Runnable {
+	
+	/**
+	 * one column range of the board and the controller driving it, only
+	 * touched by its own thread once started
+	 */
+	static class Segment {
+		
+		//columns of the logical board this segment shows
+		final int firstCol;
+		final int cols;
+		
+		//link to the controller
+		final Transport port;
+		final DeltaFrameEncoder encoder;
+		final LinkMonitor monitor;
+		
+		//thread the segment encodes and writes on
+		final ExecutorService thread;
+		
+		//reused buffer the slice of each frame is copied into
+		final LedFrame slice;
+		
+		//System.nanoTime() at the end of the last write
+		long lastWrite;
+		
+		//SEQ of the last packet written, and true once an ACK is read until its SEQ is
+		int seq = FrameProtocol.SEQUENCE_MODULO - 1;
+		boolean ackRead = false;
+		
+		Segment(int index, int height, int firstCol, int cols, Transport port, LinkMonitor monitor) {
+			this.firstCol = firstCol;
+			this.cols = cols;
+			this.port = port;
+			this.monitor = monitor;
+			this.encoder = new DeltaFrameEncoder(height, cols);
+			this.slice = new LedFrame(height, cols);
+			this.thread = Executors.newSingleThreadExecutor(daemon("segment-" + index));
+		}
+	}
+	
+	//frames not shown because a segment missed them, the rest are recorded with SerialWriter's
+	final static Counter ABORTED = Metrics.counter("frames.aborted");
+	
+	//times a TYPE_LATCH packet is sent to a segment before it is given up on
+	final static int LATCH_ATTEMPTS = WindowedSender.MAX_RETRIES;
+	
+	//the packet latching every controller, the same every frame
+	final static byte[] LATCH = FrameProtocol.packet(FrameProtocol.TYPE_LATCH, new byte[0], 0);
+	
+	//segments in column order
+	final Segment[] segments;
+	
+	//rows and total columns of the logical board
+	final int height;
+	final int width;
+	
+	//time to wait for a controller to acknowledge a packet
+	final long ackTimeoutNanos;
+	
+	//handoff from the rendering thread
+	final LatestFrameExchanger<LedFrame> exchanger = new LatestFrameExchanger<LedFrame>();
+	
+	//frames published, shown by every segment, abandoned, and replaced before being committed
+	final AtomicLong produced = new AtomicLong();
+	final AtomicLong committed = new AtomicLong();
+	final AtomicLong aborted = new AtomicLong();
+	final AtomicLong dropped = new AtomicLong();
+	
+	//the commit thread, null until start()
+	private Thread thread;
+	private volatile boolean running;
+	
+	/**
+	 * @param height - rows of the board
+	 * @param lengths - columns driven by each controller, in order from the left
+	 * @param ports - link to each controller, in the same order as @param lengths
+	 * @param baudRate - baud rate of every port, for measuring each link
+	 * @param ackTimeoutMillis - time to wait for a controller to acknowledge a
+	 * 							 packet before the frame is abandoned
+	 * 
+	 * @exception IllegalArgumentException if @param lengths and @param ports differ in length
+	 */
+	public ShardedBoard(int height, int[] lengths, Transport[] ports, int baudRate, long ackTimeoutMillis) {
+		if(lengths.length != ports.length || lengths.length == 0)
+			throw new IllegalArgumentException("need one port per segment: " + lengths.length + " segments, "
+					+ ports.length + " ports");
+		
+		this.height = height;
+		this.ackTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(ackTimeoutMillis);
+		this.segments = new Segment[lengths.length];
+		int col = 0;
+		for(int i = 0; i < lengths.length; i++) {
+			this.segments[i] = new Segment(i, height, col, lengths[i], ports[i], new LinkMonitor(baudRate));
+			col += lengths[i];
+		}
+		this.width = col;
+	}
+	
+	/**
+	 * splits @param width columns as evenly as possible between @param count
+	 * controllers, leftmost segments taking any extra column
+	 */
+	public static int[] split(int width, int count) {
+		int[] lengths = new int[count];
+		for(int i = 0; i < count; i++) {
+			lengths[i] = width / count + (i < width % count ? 1 : 0);
+		}
+		return lengths;
+	}
+	
+	/**
+	 * sends every segment as compressed columns whenever shorter, see
+	 * <em>DeltaFrameEncoder</em>.setCompressing(), called before start()
+	 */
+	public void setCompressing(boolean compressing) {
+		for(Segment segment : this.segments) {
+			segment.encoder.setCompressing(compressing);
+		}
+	}
+	
+	// starts the commit thread, calling this more than once has no effect
+	public synchronized void start() {
+		if(this.thread != null)
+			return;
+		this.running = true;
+		this.thread = new Thread(this, "shard-commit");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	// stops the commit and segment threads, waiting briefly for the current commit
+	public synchronized void stop() {
+		this.running = false;
+		if(this.thread != null) {
+			this.thread.interrupt();
+			try {
+				this.thread.join(1000);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.thread = null;
+		}
+		for(Segment segment : this.segments) {
+			segment.thread.shutdownNow();
+		}
+	}
+	
+	/**
+	 * hands @param frame to the commit thread without blocking
+	 * 
+	 * @param frame - must not be modified after being published
+	 */
+	public void publish(LedFrame frame) {
+		this.produced.incrementAndGet();
+		if(this.exchanger.publish(frame)) {
+			this.dropped.incrementAndGet();
+			SerialWriter.DROPPED.increment();
+		}
+	}
+	
+	@Override
+	public void run() {
+		while(this.running) {
+			LedFrame frame = this.exchanger.await(100, TimeUnit.MILLISECONDS);
+			if(frame == null)
+				continue;
+			
+			try {
+				if(this.commit(frame)) {
+					this.committed.incrementAndGet();
+					SerialWriter.SENT.increment();
+				} else {
+					this.aborted.incrementAndGet();
+					ABORTED.increment();
+				}
+			} catch(InterruptedException e) {
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * loads @param frame onto every segment in parallel and latches them
+	 * once all have acknowledged it
+	 * 
+	 * @return true if every segment acknowledged showing @param frame, false
+	 * 		   if the frame was abandoned (every segment still shows the last
+	 * 		   one) or a segment did not acknowledge its TYPE_LATCH (the
+	 * 		   others show @param frame until the next commit)
+	 */
+	boolean commit(final LedFrame frame) throws InterruptedException {
+		
+		//LOAD - every segment at once
+		List<Future<Boolean>> loads = new ArrayList<Future<Boolean>>(this.segments.length);
+		for(final Segment segment : this.segments) {
+			loads.add(segment.thread.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					return load(segment, frame);
+				}
+			}));
+		}
+		boolean loaded = true;
+		for(Future<Boolean> load : loads) {
+			loaded &= result(load);
+		}
+		if(!loaded)
+			return false;
+		
+		//LATCH - every segment at once
+		List<Future<Boolean>> latches = new ArrayList<Future<Boolean>>(this.segments.length);
+		for(final Segment segment : this.segments) {
+			latches.add(segment.thread.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					return latch(segment);
+				}
+			}));
+		}
+		boolean latched = true;
+		for(Future<Boolean> latch : latches) {
+			latched &= result(latch);
+		}
+		return latched;
+	}
+	
+	/**
+	 * writes the slice of @param frame for @param segment and waits for it
+	 * to be acknowledged, on the segment's own thread
+	 * 
+	 * @return true if acknowledged
+	 */
+	boolean load(Segment segment, LedFrame frame) {
+		segment.slice.copyFrom(frame, segment.firstCol);
+		long encoding = System.nanoTime();
+		byte[] packet = this.sequence(segment, segment.encoder.encode(segment.slice));
+		SerialWriter.ENCODE.record(System.nanoTime() - encoding);
+		if(!this.write(segment, packet))
+			return false;
+		
+		if(!this.awaitAck(segment)) {
+			
+			//no acknowledgement - controller may not have the slice
+			segment.encoder.reset();
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * writes a TYPE_LATCH packet to @param segment until acknowledged, on the
+	 * segment's own thread, resyncing it if it never is
+	 * 
+	 * @return true if acknowledged within LATCH_ATTEMPTS
+	 */
+	boolean latch(Segment segment) {
+		byte[] packet = this.sequence(segment, LATCH);
+		for(int attempt = 0; attempt < LATCH_ATTEMPTS; attempt++) {
+			if(!this.write(segment, packet))
+				return false;
+			if(this.awaitAck(segment))
+				return true;
+		}
+		
+		//controller may have missed the frame, or be gone
+		segment.encoder.reset();
+		return false;
+	}
+	
+	// @param packet sequenced with the next SEQ of @param segment
+	private byte[] sequence(Segment segment, byte[] packet) {
+		segment.seq = (segment.seq + 1) % FrameProtocol.SEQUENCE_MODULO;
+		return FrameProtocol.sequenced(packet, segment.seq);
+	}
+	
+	// writes @param packet to @param segment, false if the port failed
+	boolean write(Segment segment, byte[] packet) {
+		try {
+			long start = System.nanoTime();
+			segment.port.write(packet);
+			segment.lastWrite = System.nanoTime();
+			segment.monitor.recordWrite(packet.length, segment.lastWrite - start);
+			SerialWriter.WRITE.record(segment.lastWrite - start);
+			SerialWriter.BYTES.add(packet.length);
+			return true;
+		} catch(RuntimeException e) {
+			
+			//controller may have missed part of a packet
+			segment.encoder.reset();
+			SerialWriter.ERRORS.increment();
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * waits for @param segment to acknowledge the last packet written to it,
+	 * dropping acknowledgements of earlier packets and anything else read
+	 * 
+	 * @return true if acknowledged, false if ackTimeoutNanos passed first
+	 * 		   or the thread was interrupted
+	 */
+	private boolean awaitAck(Segment segment) {
+		while(!Thread.currentThread().isInterrupted()) {
+			long now = System.nanoTime();
+			while(segment.port.available() > 0) {
+				int b = segment.port.read();
+				if(segment.ackRead) {
+					segment.ackRead = false;
+					if(b == segment.seq) {
+						segment.monitor.recordAck(now - segment.lastWrite);
+						return true;
+					}
+				}
+				else if(b == FrameProtocol.ACK) {
+					segment.ackRead = true;
+				}
+			}
+			if(now - segment.lastWrite >= this.ackTimeoutNanos) {
+				segment.monitor.recordAck(this.ackTimeoutNanos);
+				SerialWriter.ACK_TIMEOUTS.increment();
+				return false;
+			}
+			LockSupport.parkNanos(200000);
+		}
+		return false;
+	}
+	
+	// result of a segment's task, false if it failed
+	private static boolean result(Future<Boolean> task) throws InterruptedException {
+		try {
+			return task.get();
+		} catch(ExecutionException e) {
+			SerialWriter.ERRORS.increment();
+			e.getCause().printStackTrace();
+			return false;
+		}
+	}
+	
+	// thread factory for daemon threads named @param name
+	private static ThreadFactory daemon(final String name) {
+		return new ThreadFactory() {
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+	
+	/**
+	 * highest frame rate every segment's link has been measured to sustain,
+	 * a frame being its full slice plus a TYPE_LATCH packet, both sequenced
+	 */
+	public double getMaxFrameRate() {
+		double rate = Double.POSITIVE_INFINITY;
+		for(Segment segment : this.segments) {
+			int packet = FrameProtocol.packedLength(this.height * segment.cols) + FrameProtocol.OVERHEAD + LATCH.length + 2;
+			rate = Math.min(rate, segment.monitor.getMaxFrameRate(packet));
+		}
+		return rate;
+	}
+	
+	public int getSegmentCount() {
+		return this.segments.length;
+	}
+	
+	// measured link of segment @param index
+	public LinkMonitor getMonitor(int index) {
+		return this.segments[index].monitor;
+	}
+	
+	public long getFramesProduced() {
+		return this.produced.get();
+	}
+	
+	// frames shown by every segment
+	public long getFramesCommitted() {
+		return this.committed.get();
+	}
+	
+	// frames loaded but not latched because a segment missed them
+	public long getFramesAborted() {
+		return this.aborted.get();
+	}
+	
+	// frames replaced by a newer frame before being committed
+	public long getFramesDropped() {
+		return this.dropped.get();
+	}
+}
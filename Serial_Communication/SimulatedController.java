@@ -0,0 +1,247 @@
+// SimulatedController.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.LockSupport;
+import word_processing.LedFrame;
+
+/**
+ * <em>SimulatedController class</em>
+ * an in-memory stand-in for an arduino controller: bytes written to it
+ * are read by a <em>FrameDecoder</em> and every valid packet is
+ * acknowledged (with its SEQ if sequenced), so writers and
+ * <em>ShardedBoard</em> can be run and checked without hardware
+ * 
+ * writes can be lost on purpose, every Nth one, to check recovery
+ * 
+ * with a baud rate the link itself is modelled: each byte takes
+ * LinkMonitor.BITS_PER_BYTE bits to cross the wire in either direction, a
+ * packet is applied when its last byte arrives and its acknowledgement is
+ * readable once it has crossed back, and a write only returns once all but
+ * TX_BUFFER_BYTES of what was written are on the wire, as a Serial driver
+ * whose buffer is full; without one everything is instant
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote thread safe, written from a writer thread and inspected from any other
+ * @see local/Serial_Communication/Transport.java
+ */
+public class SimulatedController implements Transport {
+	
+	// called with the LEDs shown whenever a packet changes them
+	public interface Listener {
+		
+		/**
+		 * @param shown - copy of the LEDs shown
+		 * @param nanos - System.nanoTime() the last byte of the packet arrived
+		 */
+		void shown(LedFrame shown, long nanos);
+	}
+	
+	// bytes of one write still crossing the wire
+	private static class Pending {
+		final byte[] data;
+		final long start;
+		int next = 0;
+		
+		Pending(byte[] data, long start) {
+			this.data = data;
+			this.start = start;
+		}
+	}
+	
+	//bytes the host's Serial driver buffers before a write blocks
+	public final static int TX_BUFFER_BYTES = 4096;
+	
+	//reads packets the same way the arduino does
+	private final FrameDecoder decoder;
+	
+	//time each byte takes on the wire, 0 for instant
+	private final long byteNanos;
+	
+	//writes still crossing the wire to the controller, oldest first,
+	//and the time the wire is free in each direction
+	private final ArrayDeque<Pending> wire = new ArrayDeque<Pending>();
+	private long sendFree = Long.MIN_VALUE;
+	private long receiveFree = Long.MIN_VALUE;
+	
+	//acknowledgements not yet read by the host, and the times they arrive
+	private final ArrayDeque<Integer> received = new ArrayDeque<Integer>();
+	private final ArrayDeque<Long> receivedAt = new ArrayDeque<Long>();
+	
+	//false to stop acknowledging, as a hung or disconnected controller
+	private boolean responding = true;
+	
+	//every dropEvery-th write is lost on the way, 0 for none
+	private int dropEvery = 0;
+	private long writes = 0;
+	
+	//told of every change to the LEDs shown, null if none
+	private Listener listener;
+	
+	private boolean closed = false;
+	
+	/**
+	 * @param height - rows of the board this controller drives
+	 * @param width - columns of the board this controller drives
+	 * @param latched - true to only show packets on TYPE_LATCH
+	 */
+	public SimulatedController(int height, int width, boolean latched) {
+		this(height, width, latched, 0);
+	}
+	
+	/**
+	 * same as above over a link of @param baudRate
+	 * 
+	 * @param baudRate - bits per second in each direction, 0 for instant
+	 * @exception IllegalArgumentException if @param baudRate is negative
+	 */
+	public SimulatedController(int height, int width, boolean latched, int baudRate) {
+		if(baudRate < 0)
+			throw new IllegalArgumentException("baud rate must not be negative: " + baudRate);
+		this.decoder = new FrameDecoder(height, width, latched);
+		this.byteNanos = baudRate == 0 ? 0 : 1000000000L * LinkMonitor.BITS_PER_BYTE / baudRate;
+	}
+	
+	@Override
+	public void write(byte[] data) {
+		long blockNanos;
+		synchronized(this) {
+			if(this.closed)
+				throw new IllegalStateException("controller closed");
+			long now = System.nanoTime();
+			this.advance(now);
+			if(this.dropEvery > 0 && ++this.writes % this.dropEvery == 0)
+				return;
+			
+			// the wire carries one write after another
+			long start = Math.max(now, this.sendFree);
+			this.wire.add(new Pending(data.clone(), start));
+			this.sendFree = start + data.length * this.byteNanos;
+			this.advance(now);
+			
+			blockNanos = this.sendFree - TX_BUFFER_BYTES * this.byteNanos - now;
+		}
+		
+		// driver buffer full - wait for the wire outside the lock
+		if(blockNanos > 0)
+			LockSupport.parkNanos(blockNanos);
+	}
+	
+	@Override
+	public synchronized int available() {
+		long now = System.nanoTime();
+		this.advance(now);
+		int available = 0;
+		for(long at : this.receivedAt) {
+			if(at > now)
+				break;
+			available++;
+		}
+		return available;
+	}
+	
+	@Override
+	public synchronized int read() {
+		long now = System.nanoTime();
+		this.advance(now);
+		Long at = this.receivedAt.peek();
+		if(at == null || at > now)
+			return -1;
+		this.receivedAt.poll();
+		return this.received.poll();
+	}
+	
+	@Override
+	public synchronized void close() {
+		this.closed = true;
+	}
+	
+	/**
+	 * reads every byte that has arrived by @param now, in order, each as of
+	 * the time it arrived
+	 */
+	private void advance(long now) {
+		Pending pending;
+		while((pending = this.wire.peek()) != null) {
+			long arrived = pending.start + (pending.next + 1) * this.byteNanos;
+			if(arrived > now)
+				return;
+			this.receive(pending.data[pending.next], arrived);
+			if(++pending.next == pending.data.length)
+				this.wire.poll();
+		}
+	}
+	
+	// reads byte @param b as the arduino would at time @param arrived
+	private void receive(byte b, long arrived) {
+		long acknowledged = this.decoder.getAcknowledged();
+		LedFrame shown = this.decoder.accept(b);
+		if(shown != null && this.listener != null)
+			this.listener.shown(shown, arrived);
+		if(this.responding && this.decoder.getAcknowledged() != acknowledged) {
+			this.reply(FrameProtocol.ACK, arrived);
+			if(this.decoder.isLastSequenced())
+				this.reply(this.decoder.getSequence(), arrived);
+		}
+	}
+	
+	// sends @param b back to the host, starting no earlier than @param now
+	private void reply(int b, long now) {
+		long start = Math.max(now, this.receiveFree);
+		this.receiveFree = start + this.byteNanos;
+		this.received.add(b);
+		this.receivedAt.add(this.receiveFree);
+	}
+	
+	// stops (false) or resumes (true) acknowledging packets
+	public synchronized void setResponding(boolean responding) {
+		this.responding = responding;
+	}
+	
+	// loses every @param dropEvery-th write from now on, 0 to lose none
+	public synchronized void setDropEvery(int dropEvery) {
+		this.dropEvery = dropEvery;
+		this.writes = 0;
+	}
+	
+	// tells @param listener of every change to the LEDs shown, null for none
+	public synchronized void setListener(Listener listener) {
+		this.listener = listener;
+	}
+	
+	// number of sequenced packets discarded for arriving out of order
+	public synchronized long getOutOfOrder() {
+		this.advance(System.nanoTime());
+		return this.decoder.getOutOfOrder();
+	}
+	
+	// copy of the LEDs this controller shows
+	public synchronized LedFrame getShown() {
+		this.advance(System.nanoTime());
+		return new LedFrame(this.decoder.getShown());
+	}
+	
+	// copy of the board as loaded by the last valid packet
+	public synchronized LedFrame getBoard() {
+		this.advance(System.nanoTime());
+		return new LedFrame(this.decoder.getBoard());
+	}
+	
+	public synchronized long getPackets() {
+		this.advance(System.nanoTime());
+		return this.decoder.getPackets();
+	}
+	
+	public synchronized long getErrors() {
+		this.advance(System.nanoTime());
+		return this.decoder.getErrors();
+	}
+	
+	// time each byte takes on the wire in nanoseconds, 0 if instant
+	public long getByteNanos() {
+		return this.byteNanos;
+	}
+}
@@ -0,0 +1,32 @@
+// Transport.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+/**
+ * <em>Transport interface</em>
+ * a byte link to one arduino controller, so packets can be written to a
+ * real Serial port or to a stand-in without hardware (e.g. a
+ * <em>SimulatedController</em>)
+ * 
+ * mirrors the parts of processing.serial.Serial the writers use
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/SerialTransport.java
+ * @see local/Serial_Communication/SimulatedController.java
+ */
+public interface Transport {
+	
+	// writes every byte of @param data to the controller
+	void write(byte[] data);
+	
+	// number of bytes received from the controller and not yet read
+	int available();
+	
+	// next byte received from the controller (0 to 255), -1 if none
+	int read();
+	
+	// releases the link, nothing is written after this
+	void close();
+}
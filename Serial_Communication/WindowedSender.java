@@ -0,0 +1,269 @@
+// WindowedSender.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import java.util.ArrayDeque;
+import word_processing.Frame;
+
+/**
+ * <em>WindowedSender class</em>
+ * the host side of the sequenced flow control of <em>FrameProtocol</em>:
+ * every packet carries a SEQ, the controller acknowledges the last packet it
+ * applied in order, and up to a window of packets may be unacknowledged at
+ * once, so the link stays busy without overrunning the controller
+ * 
+ * the window is limited both in packets and in bytes, the bytes being the
+ * controller's receive buffer, so whatever is in flight always fits in it:
+ * a packet that does not fit is held back until enough are acknowledged
+ * 
+ * if the oldest packet is not acknowledged within the timeout every packet
+ * in flight is sent again in order (go-back-N), the controller discarding
+ * any it already applied or that arrive out of order; after MAX_RETRIES
+ * timeouts in a row the window is abandoned and the newest frame is sent
+ * as a TYPE_FULL packet, which a controller that lost its board (e.g. it
+ * restarted) accepts whatever SEQ it expected
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote not thread safe, used by the <em>SerialWriter</em> thread only,
+ * 			 times are passed in (System.nanoTime()) so it can be stepped
+ * 			 through without waiting
+ * @see local/Serial_Communication/FrameProtocol.java
+ * @see local/Serial_Communication/SimulatedController.java
+ */
+public class WindowedSender {
+	
+	// a packet sent and not yet acknowledged
+	static class InFlight {
+		final int seq;
+		final byte[] packet;
+		long sentAt;
+		
+		InFlight(int seq, byte[] packet, long sentAt) {
+			this.seq = seq;
+			this.packet = packet;
+			this.sentAt = sentAt;
+		}
+	}
+	
+	//timeouts in a row, with nothing acknowledged, before the window is abandoned
+	public final static int MAX_RETRIES = 3;
+	
+	//link to the controller
+	final Transport port;
+	final DeltaFrameEncoder encoder;
+	final LinkMonitor monitor;
+	
+	//most packets, and bytes, unacknowledged at once
+	final int window;
+	final int bufferBytes;
+	
+	//time to wait for the oldest packet to be acknowledged
+	final long timeoutNanos;
+	
+	//packets unacknowledged, oldest first
+	private final ArrayDeque<InFlight> inFlight = new ArrayDeque<InFlight>();
+	private int inFlightBytes = 0;
+	
+	//packet encoded but held back until it fits in the window, null if none
+	private InFlight pending;
+	
+	//length of the last packet sent, as a guess at the next
+	private int lastLength = 0;
+	
+	//SEQ of the next new packet
+	private int nextSeq = 0;
+	
+	//true after an ACK byte, while waiting for its SEQ
+	private boolean readingAck = false;
+	
+	//timeouts in a row with nothing acknowledged
+	private int retries = 0;
+	
+	//newest frame sent, for resending as TYPE_FULL (or TYPE_GRAY)
+	private Frame last;
+	
+	//packets acknowledged, sent again, and windows abandoned
+	private long acked = 0;
+	private long retransmits = 0;
+	private long resyncs = 0;
+	
+	/**
+	 * @param port - link to the controller
+	 * @param encoder - encoder for packets, must only be used by this sender
+	 * @param monitor - records link measurements
+	 * @param window - most packets unacknowledged at once, 1 to FrameProtocol.MAX_WINDOW
+	 * @param bufferBytes - receive buffer of the controller, one packet is
+	 * 						always allowed even if it is longer
+	 * @param timeoutNanos - time to wait for the oldest packet to be acknowledged
+	 * 
+	 * @exception IllegalArgumentException if @param window is out of range
+	 */
+	public WindowedSender(Transport port, DeltaFrameEncoder encoder, LinkMonitor monitor, int window, int bufferBytes,
+			long timeoutNanos) {
+		if(window < 1 || window > FrameProtocol.MAX_WINDOW)
+			throw new IllegalArgumentException("window must be between 1 and " + FrameProtocol.MAX_WINDOW + ": " + window);
+		this.port = port;
+		this.encoder = encoder;
+		this.monitor = monitor;
+		this.window = window;
+		this.bufferBytes = bufferBytes;
+		this.timeoutNanos = timeoutNanos;
+	}
+	
+	/**
+	 * checks a new frame can be sent: nothing is held back and a packet as
+	 * long as the last one would fit in the window, so the frame is not
+	 * taken from the renderer early only to wait (and go stale) in pending
+	 */
+	public boolean isReady() {
+		return this.pending == null && (this.inFlight.isEmpty() || (this.inFlight.size() < this.window 
+				&& this.inFlightBytes + this.lastLength <= this.bufferBytes));
+	}
+	
+	/**
+	 * encodes @param frame as the next sequenced packet and writes it, or
+	 * holds it back until it fits in the window, call only when isReady()
+	 * 
+	 * @param frame - must not be modified afterwards
+	 * @param now - System.nanoTime()
+	 * @return the packet
+	 */
+	public byte[] send(Frame frame, long now) {
+		this.last = frame;
+		byte[] packet = FrameProtocol.sequenced(this.encoder.encode(frame), this.nextSeq);
+		this.pending = new InFlight(this.nextSeq, packet, now);
+		this.lastLength = packet.length;
+		this.nextSeq = (this.nextSeq + 1) % FrameProtocol.SEQUENCE_MODULO;
+		this.release(now);
+		return packet;
+	}
+	
+	// writes the packet held back if it now fits in the window
+	private void release(long now) {
+		InFlight packet = this.pending;
+		if(packet == null)
+			return;
+		if(!this.inFlight.isEmpty() && (this.inFlight.size() >= this.window
+				|| this.inFlightBytes + packet.packet.length > this.bufferBytes))
+			return;
+		this.pending = null;
+		this.inFlight.add(packet);
+		this.inFlightBytes += packet.packet.length;
+		this.write(packet, now);
+	}
+	
+	/**
+	 * reads every acknowledgement received, then resends the window if the
+	 * oldest packet has timed out
+	 * 
+	 * @param now - System.nanoTime()
+	 */
+	public void poll(long now) {
+		while(this.port.available() > 0) {
+			int b = this.port.read();
+			if(this.readingAck) {
+				this.readingAck = false;
+				this.acknowledge(b, now);
+			} else if(b == FrameProtocol.ACK) {
+				this.readingAck = true;
+			}
+		}
+		
+		this.release(now);
+		
+		InFlight oldest = this.inFlight.peek();
+		if(oldest == null || now - oldest.sentAt < this.timeoutNanos)
+			return;
+		
+		this.monitor.recordAck(this.timeoutNanos);
+		SerialWriter.ACK_TIMEOUTS.increment();
+		if(++this.retries > MAX_RETRIES) {
+			this.resync(now);
+			return;
+		}
+		
+		//go back N - every packet in flight again, in order
+		for(InFlight packet : this.inFlight) {
+			this.write(packet, now);
+			this.retransmits++;
+			SerialWriter.RETRANSMITS.increment();
+		}
+	}
+	
+	/**
+	 * releases every packet in flight up to and including @param seq
+	 * 
+	 * an ACK for a SEQ not in flight (a duplicate, or from before a
+	 * resync) releases nothing
+	 */
+	void acknowledge(int seq, long now) {
+		InFlight oldest = this.inFlight.peek();
+		if(oldest == null)
+			return;
+		int released = (seq - oldest.seq + FrameProtocol.SEQUENCE_MODULO) % FrameProtocol.SEQUENCE_MODULO + 1;
+		if(released > this.inFlight.size())
+			return;
+		
+		for(int i = 0; i < released; i++) {
+			InFlight packet = this.inFlight.poll();
+			this.inFlightBytes -= packet.packet.length;
+			if(i == released - 1)
+				this.monitor.recordAck(now - packet.sentAt);
+		}
+		this.acked += released;
+		this.retries = 0;
+	}
+	
+	/**
+	 * abandons the window and sends the newest frame as a TYPE_FULL packet,
+	 * which the controller applies whatever SEQ it expected
+	 */
+	void resync(long now) {
+		this.inFlight.clear();
+		this.inFlightBytes = 0;
+		this.pending = null;
+		this.retries = 0;
+		this.resyncs++;
+		SerialWriter.RESYNCS.increment();
+		this.encoder.reset();
+		if(this.last != null)
+			this.send(this.last, now);
+	}
+	
+	// writes @param packet, now being its time sent
+	private void write(InFlight packet, long now) {
+		long start = System.nanoTime();
+		this.port.write(packet.packet);
+		long end = System.nanoTime();
+		this.monitor.recordWrite(packet.packet.length, end - start);
+		SerialWriter.WRITE.record(end - start);
+		SerialWriter.BYTES.add(packet.packet.length);
+		packet.sentAt = now;
+	}
+	
+	// packets unacknowledged
+	public int getInFlight() {
+		return this.inFlight.size();
+	}
+	
+	// packets acknowledged
+	public long getAcked() {
+		return this.acked;
+	}
+	
+	// packets sent again after a timeout
+	public long getRetransmits() {
+		return this.retransmits;
+	}
+	
+	// windows abandoned for a TYPE_FULL packet
+	public long getResyncs() {
+		return this.resyncs;
+	}
+	
+	public int getWindow() {
+		return this.window;
+	}
+}
@@ -0,0 +1,76 @@
+// AnimationCompiler.java
+// Author: Vivaan Mahtab
+
+package animation;
+
+import java.io.File;
+import java.io.IOException;
+import settings.BoardGeometry;
+import settings.Settings;
+import word_processing.GlyphRegistry;
+import word_processing.LedFrame;
+import word_processing.WordEvent;
+
+/**
+ * <em>AnimationCompiler class</em>
+ * renders a <em>WordEvent</em> scrolling across the board into an
+ * animation file once, so recurring content (announcements, holiday
+ * sequences) can be replayed by <em>AnimationPlayer</em> without rendering
+ * 
+ * usage: AnimationCompiler OUT_FILE TEXT [frames_per_second] [columns_per_second]
+ * 		the board size is read from Settings.BOARD_CONFIG_FILE, the rates
+ * 		default to Settings.MAX_ANIMATION_FPS and Settings.SCROLL_SPEED
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/animation/AnimationWriter.java
+ */
+public class AnimationCompiler implements Settings {
+	
+	public static void main(String[] args) throws IOException {
+		if(args.length < 2) {
+			System.err.println("usage: AnimationCompiler OUT_FILE TEXT [frames_per_second] [columns_per_second]");
+			System.exit(2);
+		}
+		double frameRate = args.length > 2 ? Double.parseDouble(args[2]) : MAX_ANIMATION_FPS;
+		double scrollSpeed = args.length > 3 ? Double.parseDouble(args[3]) : SCROLL_SPEED;
+		
+		// memory-map the font (-Dglyph.font, or the bundled one)
+		GlyphRegistry.load();
+		BoardGeometry geometry = BoardGeometry.load();
+		int frames = compile(new WordEvent(args[1], 0, geometry), scrollSpeed, frameRate, new File(args[0]));
+		System.out.println(args[0] + ": " + frames + " frames of " + geometry);
+	}
+	
+	/**
+	 * writes @param wordEvent scrolling left across its board once, from
+	 * entering at the right edge to leaving at the left edge
+	 * 
+	 * @param columnsPerSecond - scroll speed, positive
+	 * @param frameRate - frames per second the animation plays at
+	 * @param out - file to write, replaced if it exists
+	 * @return the number of frames written
+	 */
+	public static int compile(WordEvent wordEvent, double columnsPerSecond, double frameRate, File out) throws IOException {
+		if(!(columnsPerSecond > 0))
+			throw new IllegalArgumentException("scroll speed must be positive: " + columnsPerSecond);
+		
+		BoardGeometry geometry = wordEvent.getGeometry();
+		LedFrame frame = new LedFrame(geometry.getHeight(), geometry.getVisibleLength());
+		
+		//columns travelled from entering at the right edge to leaving at the left
+		int travel = wordEvent.getSize() + geometry.getLength();
+		int frames = (int) Math.ceil(travel * frameRate / columnsPerSecond);
+		int start = wordEvent.getPosition();
+		
+		try(AnimationWriter writer = new AnimationWriter(out, geometry.getHeight(), geometry.getVisibleLength(), frameRate)) {
+			for(int i = 0; i < frames; i++) {
+				int moved = (int) (i * columnsPerSecond / frameRate);
+				wordEvent.move(-geometry.getLength() + moved - wordEvent.getPosition() + start);
+				writer.add(wordEvent.get_offset_board(frame));
+			}
+		}
+		wordEvent.move(start - wordEvent.getPosition());
+		return frames;
+	}
+}
@@ -0,0 +1,54 @@
+// AnimationFile.java
+// Author: Vivaan Mahtab
+
+package animation;
+
+import Serial_Communication.FrameProtocol;
+
+/**
+ * <em>AnimationFile class</em>
+ * constants shared by <em>AnimationWriter</em> and <em>AnimationPlayer</em>
+ * for the binary animation file format, a sequence of frames rendered
+ * once so it can be replayed any number of times without rendering
+ * 
+ * every file is laid out as (all numbers big endian):
+ * 
+ * 		HEADER - MAGIC (4 bytes) | VERSION (1) | height (1) | width (2) |
+ * 				 frame rate in frames per 1000 seconds (4) | frame count (4) |
+ * 				 stored frame count (4) | offset of INDEX (4)
+ * 		FRAMES - each stored frame, bit-packed the same way as a TYPE_FULL
+ * 				 payload of <em>FrameProtocol</em>
+ * 		INDEX - for each frame in order, the number (4 bytes) of the stored
+ * 				frame it shows, so frames that repeat (e.g. a pause) are
+ * 				stored once and any frame can be found without reading the others
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/animation/AnimationWriter.java
+ * @see local/animation/AnimationPlayer.java
+ */
+public final class AnimationFile {
+	
+	//first bytes of every animation file, "LEDA"
+	public final static int MAGIC = 0x4C454441;
+	
+	//version of the layout described above
+	public final static int VERSION = 1;
+	
+	//bytes before the first stored frame
+	public final static int HEADER_LENGTH = 24;
+	
+	//offsets of each HEADER field
+	final static int VERSION_OFFSET = 4, HEIGHT_OFFSET = 5, WIDTH_OFFSET = 6, RATE_OFFSET = 8,
+			COUNT_OFFSET = 12, STORED_OFFSET = 16, INDEX_OFFSET = 20;
+	
+	//file name extension used by the tools
+	public final static String EXTENSION = ".anim";
+	
+	private AnimationFile() {}
+	
+	// bytes of one stored frame of @param height by @param width LEDs
+	public static int frameLength(int height, int width) {
+		return FrameProtocol.packedLength(height * width);
+	}
+}
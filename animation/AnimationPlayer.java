@@ -0,0 +1,178 @@
+// AnimationPlayer.java
+// Author: Vivaan Mahtab
+
+package animation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import Serial_Communication.FrameProtocol;
+import word_processing.LedFrame;
+
+/**
+ * <em>AnimationPlayer class</em>
+ * replays an animation file written by <em>AnimationWriter</em>: the file is
+ * memory-mapped once and each frame is unpacked straight from the mapping
+ * into a frame the caller reuses, so replaying renders nothing and reading
+ * a frame allocates nothing (<em>RenderEngine</em> still copies each frame
+ * that changed once, to share with the Serial writer and its listeners)
+ * 
+ * frames are found through the file's index, so seeking to any frame
+ * costs the same as reading the next one
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote not thread safe, a player is meant to be used by a single thread
+ * @see local/animation/AnimationFile.java
+ * @see local/render_engine/RenderEngine.java
+ */
+public class AnimationPlayer implements Closeable {
+	
+	//size of every frame
+	final int height;
+	final int width;
+	
+	//frames per second the animation plays at
+	final double frameRate;
+	
+	//number of frames, and of frames stored
+	final int frameCount;
+	final int storedCount;
+	
+	//the whole file, read only
+	private final MappedByteBuffer data;
+	private final RandomAccessFile file;
+	
+	//where the INDEX starts, and bytes per stored frame
+	private final int indexOffset;
+	private final int frameLength;
+	
+	//next frame returned by next()
+	private int position = 0;
+	
+	//reused view of this.data and buffer each frame is copied into to be unpacked
+	private final ByteBuffer view;
+	private final byte[] packed;
+	
+	/**
+	 * maps @param in and checks its header
+	 * 
+	 * @exception IOException if @param in is not a readable animation file
+	 */
+	public AnimationPlayer(File in) throws IOException {
+		this.file = new RandomAccessFile(in, "r");
+		try {
+			if(this.file.length() < AnimationFile.HEADER_LENGTH || this.file.length() > Integer.MAX_VALUE)
+				throw new IOException(in.getPath() + " is not an animation file");
+			this.data = this.file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, this.file.length());
+			
+			if(this.data.getInt(0) != AnimationFile.MAGIC)
+				throw new IOException(in.getPath() + " is not an animation file");
+			if(this.data.get(AnimationFile.VERSION_OFFSET) != AnimationFile.VERSION)
+				throw new IOException(in.getPath() + " is animation version " + this.data.get(AnimationFile.VERSION_OFFSET));
+			
+			this.height = this.data.get(AnimationFile.HEIGHT_OFFSET) & 0xFF;
+			this.width = this.data.getShort(AnimationFile.WIDTH_OFFSET) & 0xFFFF;
+			this.frameRate = this.data.getInt(AnimationFile.RATE_OFFSET) / 1000.0;
+			this.frameCount = this.data.getInt(AnimationFile.COUNT_OFFSET);
+			this.storedCount = this.data.getInt(AnimationFile.STORED_OFFSET);
+			this.indexOffset = this.data.getInt(AnimationFile.INDEX_OFFSET);
+			this.frameLength = AnimationFile.frameLength(this.height, this.width);
+			
+			//every stored frame and index entry must be inside the file
+			if(this.height < 1 || this.height > LedFrame.MAX_HEIGHT || !(this.frameRate > 0) || this.frameCount < 0 
+					|| this.storedCount < 0 
+					|| this.indexOffset != AnimationFile.HEADER_LENGTH + (long) this.storedCount * this.frameLength
+					|| this.indexOffset + 4L * this.frameCount > this.data.capacity())
+				throw new IOException(in.getPath() + " is damaged");
+			for(int i = 0; i < this.frameCount; i++) {
+				int stored = this.data.getInt(this.indexOffset + 4 * i);
+				if(stored < 0 || stored >= this.storedCount)
+					throw new IOException(in.getPath() + " is damaged");
+			}
+			this.view = this.data.duplicate();
+			this.packed = new byte[this.frameLength];
+		} catch(IOException | RuntimeException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * unpacks frame @param frame into @param target
+	 * 
+	 * @param target - at least getHeight() by getWidth(), columns beyond are left as they are
+	 * @return @param target
+	 * @exception IndexOutOfBoundsException if @param frame is not between 0 and getFrameCount() - 1
+	 */
+	public LedFrame frame(int frame, LedFrame target) {
+		if(frame < 0 || frame >= this.frameCount)
+			throw new IndexOutOfBoundsException("frame " + frame + " of " + this.frameCount);
+		
+		int offset = AnimationFile.HEADER_LENGTH + this.data.getInt(this.indexOffset + 4 * frame) * this.frameLength;
+		this.view.position(offset);
+		this.view.get(this.packed);
+		FrameProtocol.unpack(this.packed, 0, this.height, 0, Math.min(this.width, target.getWidth()), target);
+		return target;
+	}
+	
+	// unpacks the frame at the current position into @param target and moves on, wrapping to the start
+	public LedFrame next(LedFrame target) {
+		this.frame(this.position, target);
+		this.position = (this.position + 1) % this.frameCount;
+		return target;
+	}
+	
+	// makes @param frame the next frame returned by next()
+	public void seek(int frame) {
+		if(frame < 0 || frame >= this.frameCount)
+			throw new IndexOutOfBoundsException("frame " + frame + " of " + this.frameCount);
+		this.position = frame;
+	}
+	
+	// frame shown @param nanos after the animation started playing, -1 once it has ended
+	public int frameAt(long nanos, boolean loop) {
+		long frame = (long) (nanos * this.frameRate / 1e9);
+		if(frame < this.frameCount)
+			return (int) Math.max(0, frame);
+		return loop && this.frameCount > 0 ? (int) (frame % this.frameCount) : -1;
+	}
+	
+	public int getPosition() {
+		return this.position;
+	}
+	
+	public int getFrameCount() {
+		return this.frameCount;
+	}
+	
+	// number of frames actually stored, repeated frames are stored once
+	public int getStoredCount() {
+		return this.storedCount;
+	}
+	
+	public double getFrameRate() {
+		return this.frameRate;
+	}
+	
+	public int getHeight() {
+		return this.height;
+	}
+	
+	public int getWidth() {
+		return this.width;
+	}
+	
+	/**
+	 * closes the file, the mapping itself is released once the player
+	 * is garbage collected
+	 */
+	@Override
+	public void close() throws IOException {
+		this.file.close();
+	}
+}
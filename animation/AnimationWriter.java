@@ -0,0 +1,152 @@
+// AnimationWriter.java
+// Author: Vivaan Mahtab
+
+package animation;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import Serial_Communication.FrameProtocol;
+import word_processing.LedFrame;
+
+/**
+ * <em>AnimationWriter class</em>
+ * writes frames one at a time into an animation file, any sequence of
+ * frames can be written (see <em>AnimationCompiler</em> for a scrolling
+ * <em>WordEvent</em>)
+ * 
+ * a frame identical to the one before it is only stored once, frames are
+ * streamed to disk as they are added so memory does not grow with length
+ * apart from 4 bytes of index per frame
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/animation/AnimationFile.java
+ */
+public class AnimationWriter implements Closeable {
+	
+	//size of every frame
+	final int height;
+	final int width;
+	
+	//frames per second the animation plays at
+	final double frameRate;
+	
+	private final RandomAccessFile file;
+	
+	//the stored frame shown by each frame added, in order
+	private int[] index = new int[1024];
+	private int count = 0;
+	
+	//number of frames stored, and the last one
+	private int stored = 0;
+	private final LedFrame last;
+	
+	//reused buffer a frame is packed into
+	private final byte[] packed;
+	
+	/**
+	 * @param out - file to write, replaced if it exists
+	 * @param height - rows of every frame
+	 * @param width - columns of every frame
+	 * @param frameRate - frames per second the animation plays at
+	 */
+	public AnimationWriter(File out, int height, int width, double frameRate) throws IOException {
+		if(height < 1 || height > LedFrame.MAX_HEIGHT || width < 1 || width > 0xFFFF)
+			throw new IllegalArgumentException("unsupported frame size " + height + "x" + width);
+		if(!(frameRate > 0))
+			throw new IllegalArgumentException("frame rate must be positive: " + frameRate);
+		
+		this.height = height;
+		this.width = width;
+		this.frameRate = frameRate;
+		this.last = new LedFrame(height, width);
+		this.packed = new byte[AnimationFile.frameLength(height, width)];
+		
+		this.file = new RandomAccessFile(out, "rw");
+		this.file.setLength(0);
+		this.file.write(new byte[AnimationFile.HEADER_LENGTH]);
+	}
+	
+	/**
+	 * adds @param frame as the next frame, columns and rows outside it are off
+	 */
+	public void add(LedFrame frame) throws IOException {
+		if(this.stored == 0 || !this.sameAsLast(frame)) {
+			this.last.copyFrom(frame, 0);
+			FrameProtocol.pack(this.last, this.height, this.width, this.packed, 0);
+			this.file.write(this.packed);
+			this.stored++;
+		}
+		
+		if(this.count == this.index.length)
+			this.index = Arrays.copyOf(this.index, this.count * 2);
+		this.index[this.count++] = this.stored - 1;
+	}
+	
+	// checks if @param frame cut to this size is the last frame stored
+	private boolean sameAsLast(LedFrame frame) {
+		for(int col = 0; col < this.width; col++) {
+			if((frame.getColumn(col) & this.rowMask()) != this.last.getColumn(col))
+				return false;
+		}
+		return true;
+	}
+	
+	private long rowMask() {
+		return this.height == LedFrame.MAX_HEIGHT ? -1L : (1L << this.height) - 1;
+	}
+	
+	// number of frames added
+	public int getFrameCount() {
+		return this.count;
+	}
+	
+	// number of frames stored, fewer than getFrameCount() if any repeated
+	public int getStoredCount() {
+		return this.stored;
+	}
+	
+	/**
+	 * writes the index and header, the file can be played once closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			long indexOffset = this.file.getFilePointer();
+			if(indexOffset > Integer.MAX_VALUE)
+				throw new IOException("animation too large");
+			
+			byte[] index = new byte[4 * this.count];
+			for(int i = 0; i < this.count; i++) {
+				putInt(index, 4 * i, this.index[i]);
+			}
+			this.file.write(index);
+			
+			byte[] header = new byte[AnimationFile.HEADER_LENGTH];
+			putInt(header, 0, AnimationFile.MAGIC);
+			header[AnimationFile.VERSION_OFFSET] = (byte) AnimationFile.VERSION;
+			header[AnimationFile.HEIGHT_OFFSET] = (byte) this.height;
+			header[AnimationFile.WIDTH_OFFSET] = (byte) (this.width >>> 8);
+			header[AnimationFile.WIDTH_OFFSET + 1] = (byte) this.width;
+			putInt(header, AnimationFile.RATE_OFFSET, (int) Math.round(this.frameRate * 1000));
+			putInt(header, AnimationFile.COUNT_OFFSET, this.count);
+			putInt(header, AnimationFile.STORED_OFFSET, this.stored);
+			putInt(header, AnimationFile.INDEX_OFFSET, (int) indexOffset);
+			this.file.seek(0);
+			this.file.write(header);
+		} finally {
+			this.file.close();
+		}
+	}
+	
+	// writes @param value big endian into @param data at @param offset
+	private static void putInt(byte[] data, int offset, int value) {
+		data[offset] = (byte) (value >>> 24);
+		data[offset + 1] = (byte) (value >>> 16);
+		data[offset + 2] = (byte) (value >>> 8);
+		data[offset + 3] = (byte) value;
+	}
+}
@@ -0,0 +1,31 @@
+// BenchmarkMain.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * runs the benchmarks with the GC profiler on, so each result reports
+ * allocation rate (gc.alloc.rate.norm is bytes per operation) next to
+ * throughput
+ * 
+ * takes the usual JMH command line options, e.g. a benchmark name regex
+ * 
+ * @author Vivaan Mahtab
+ */
+public class BenchmarkMain {
+	
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions options = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder()
+				.parent(options)
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
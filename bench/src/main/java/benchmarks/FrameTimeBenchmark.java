@@ -0,0 +1,86 @@
+// FrameTimeBenchmark.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import Serial_Communication.DeltaFrameEncoder;
+import Serial_Communication.FrameEncoder;
+import settings.BoardGeometry;
+import word_processing.LedFrame;
+import word_processing.WordEvent;
+
+/**
+ * time to produce one frame of a scrolling paragraph on boards of different
+ * sizes: window the visible board out of the message, then encode it as a
+ * delta and as a full packet
+ * 
+ * should grow with the visible area (height x length), not with message length
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/src/settings/BoardGeometry
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameTimeBenchmark {
+	
+	// HEIGHTxLENGTH of the board
+	@Param({"10x30", "32x480", "64x1024"})
+	String board;
+	
+	WordEvent wordEvent;
+	LedFrame frame;
+	FrameEncoder full;
+	DeltaFrameEncoder delta;
+	
+	@Setup
+	public void setup() {
+		Messages.loadGlyphs();
+		String[] size = this.board.split("x");
+		BoardGeometry geometry = new BoardGeometry(Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0);
+		
+		this.wordEvent = new WordEvent(Messages.PARAGRAPH, -geometry.getLength(), geometry);
+		this.frame = new LedFrame(geometry.getHeight(), geometry.getVisibleLength());
+		this.full = new FrameEncoder(geometry.getHeight(), geometry.getLength());
+		this.delta = new DeltaFrameEncoder(geometry.getHeight(), geometry.getLength());
+	}
+	
+	// renders the next frame of the scroll into this.frame
+	private LedFrame nextFrame() {
+		this.wordEvent.move(1);
+		if(this.wordEvent.getPosition() > this.wordEvent.getSize())
+			this.wordEvent.move(-this.wordEvent.getPosition() - this.wordEvent.getGeometry().getLength());
+		return this.wordEvent.get_offset_board(this.frame);
+	}
+	
+	@Benchmark
+	public LedFrame render() {
+		return this.nextFrame();
+	}
+	
+	@Benchmark
+	public byte[] renderAndDeltaEncode() {
+		return this.delta.encode(this.nextFrame());
+	}
+	
+	@Benchmark
+	public byte[] renderAndFullEncode() {
+		return this.full.encode(this.nextFrame());
+	}
+}
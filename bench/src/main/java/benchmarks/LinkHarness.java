@@ -0,0 +1,164 @@
+// LinkHarness.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Locale;
+import Serial_Communication.DeltaFrameEncoder;
+import Serial_Communication.LinkMonitor;
+import Serial_Communication.SerialWriter;
+import Serial_Communication.SimulatedController;
+import settings.Settings;
+import word_processing.LedFrame;
+import word_processing.WordEvent;
+
+/**
+ * end to end throughput of the Serial link without hardware: a message is
+ * scrolled at Settings.MAX_ANIMATION_FPS into a <em>SerialWriter</em>
+ * writing to a <em>SimulatedController</em> that models the timing of each
+ * baud rate, and for every encoding and flow control it reports
+ * 
+ * 		shown/s - frames the controller showed per second, sustained
+ * 		bytes - average length of a packet written
+ * 		ratio - bytes of the frames as TYPE_FULL packets over bytes encoded
+ * 		latency - time from a frame being published to the controller
+ * 				  showing it (p50, p99, max), frames replaced by a newer
+ * 				  one before being sent are not counted
+ * 
+ * usage (run from the repository root):
+ * 		java -cp bench/target/benchmarks.jar benchmarks.LinkHarness [SECONDS] [BAUD...]
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/SimulatedController.java
+ */
+public class LinkHarness {
+	
+	//frames remembered to match what the controller shows to when it was published
+	final static int HISTORY = 512;
+	
+	// frames published most recently, and the times they were published
+	static class History {
+		final LedFrame[] frames = new LedFrame[HISTORY];
+		final long[] published = new long[HISTORY];
+		long count = 0;
+		
+		synchronized void add(LedFrame frame, long nanos) {
+			int i = (int) (this.count++ % HISTORY);
+			this.frames[i] = frame;
+			this.published[i] = nanos;
+		}
+		
+		// time the newest frame equal to @param shown was published, -1 if none
+		synchronized long publishedAt(LedFrame shown) {
+			for(long n = this.count - 1; n >= 0 && n >= this.count - HISTORY; n--) {
+				int i = (int) (n % HISTORY);
+				if(this.frames[i].equals(shown))
+					return this.published[i];
+			}
+			return -1;
+		}
+	}
+	
+	public static void main(String[] args) throws InterruptedException {
+		Messages.loadGlyphs();
+		double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+		int[] bauds = args.length > 1 ? new int[args.length - 1] : new int[] {9600, 19200, 57600, 115200};
+		for(int i = 1; i < args.length; i++) {
+			bauds[i - 1] = Integer.parseInt(args[i]);
+		}
+		
+		// every frame of a long message, so none repeat within HISTORY,
+		// cut to the board so they compare equal to what is shown
+		WordEvent wordEvent = new WordEvent(Messages.PARAGRAPH, -Settings.BULB_GRID_LENGTH);
+		LedFrame[] frames = new LedFrame[wordEvent.getSize() + Settings.BULB_GRID_LENGTH];
+		for(int i = 0; i < frames.length; i++) {
+			frames[i] = new LedFrame(Settings.BULB_GRID_HEIGHT, Settings.BULB_GRID_LENGTH);
+			frames[i].copyFrom(wordEvent.get_offset_board(), 0);
+			wordEvent.move(1);
+		}
+		
+		System.out.println(String.format(Locale.ROOT, "%-6s %-6s %7s %8s %7s %6s %9s %9s %9s",
+				"encode", "window", "baud", "shown/s", "bytes", "ratio", "p50 ms", "p99 ms", "max ms"));
+		for(int baud : bauds) {
+			for(int window : new int[] {0, Settings.SERIAL_WINDOW}) {
+				
+				//a keyframe every packet is a full frame every time
+				run("full", 1, false, window, baud, frames, seconds);
+				run("delta", DeltaFrameEncoder.DEFAULT_KEYFRAME_INTERVAL, false, window, baud, frames, seconds);
+				run("rle", DeltaFrameEncoder.DEFAULT_KEYFRAME_INTERVAL, true, window, baud, frames, seconds);
+			}
+		}
+	}
+	
+	/**
+	 * scrolls @param frames into a writer for @param seconds and prints one
+	 * line of results
+	 * 
+	 * @param keyframeInterval - of the <em>DeltaFrameEncoder</em>
+	 * @param compressing - true to also try compressed columns
+	 * @param window - of the <em>SerialWriter</em>, 0 to wait for each acknowledgement
+	 */
+	static void run(String name, int keyframeInterval, boolean compressing, int window, int baud, LedFrame[] frames, double seconds)
+			throws InterruptedException {
+		int height = Settings.BULB_GRID_HEIGHT, width = Settings.BULB_GRID_LENGTH;
+		final History history = new History();
+		final long[] latencies = new long[(int) (seconds * Settings.MAX_ANIMATION_FPS) + 1];
+		final int[] shown = new int[1];
+		
+		SimulatedController controller = new SimulatedController(height, width, false, baud);
+		controller.setListener(new SimulatedController.Listener() {
+			@Override
+			public void shown(LedFrame frame, long nanos) {
+				long published = history.publishedAt(frame);
+				if(published >= 0 && shown[0] < latencies.length)
+					latencies[shown[0]++] = nanos - published;
+			}
+		});
+		
+		DeltaFrameEncoder encoder = new DeltaFrameEncoder(height, width, keyframeInterval);
+		encoder.setCompressing(compressing);
+		SerialWriter writer = new SerialWriter(controller, encoder, new LinkMonitor(baud),
+				Settings.SERIAL_ACK_TIMEOUT_MS, window, Settings.SERIAL_RX_BUFFER_BYTES);
+		writer.start();
+		
+		// publish at the animation rate, on schedule however long a publish takes
+		long period = (long) (1e9 / Settings.MAX_ANIMATION_FPS);
+		long start = System.nanoTime();
+		long end = start + (long) (seconds * 1e9);
+		for(int i = 0; System.nanoTime() < end; i++) {
+			long due = start + i * period;
+			long now;
+			while((now = System.nanoTime()) < due) {
+				Thread.sleep(Math.max(0, (due - now) / 1000000));
+			}
+			LedFrame frame = frames[i % frames.length];
+			history.add(frame, System.nanoTime());
+			writer.publish(frame);
+		}
+		writer.stop();
+		
+		// whatever is still on the wire is not counted
+		long elapsed = System.nanoTime() - start;
+		int count;
+		long[] sorted;
+		synchronized(controller) {
+			count = shown[0];
+			sorted = Arrays.copyOf(latencies, count);
+		}
+		Arrays.sort(sorted);
+		long bytes = Math.round(writer.getMonitor().getPacketBytes(0));
+		System.out.println(String.format(Locale.ROOT, "%-6s %-6s %7d %8.1f %7d %6.2f %9.1f %9.1f %9.1f",
+				name, window == 0 ? "stop" : Integer.toString(window), baud, count * 1e9 / elapsed, bytes,
+				encoder.getCompressionRatio(), millis(sorted, 0.5), millis(sorted, 0.99), millis(sorted, 1)));
+	}
+	
+	// value at fraction @param quantile of @param sorted in milliseconds, 0 if empty
+	static double millis(long[] sorted, double quantile) {
+		if(sorted.length == 0)
+			return 0;
+		int i = (int) Math.min(sorted.length - 1, Math.max(0, Math.ceil(quantile * sorted.length) - 1));
+		return sorted[i] / 1e6;
+	}
+}
@@ -0,0 +1,55 @@
+// Messages.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import word_processing.GlyphRegistry;
+
+/**
+ * messages of different lengths shared by the benchmarks, and loading
+ * of the character designs they are rendered from
+ * 
+ * @author Vivaan Mahtab
+ */
+final class Messages {
+	
+	//a TIME reading, a typical sent_message, and a long announcement
+	final static String SHORT = "12:34";
+	final static String LONG = "HAPPY HOLIDAYS FROM THE ROOF!";
+	final static String PARAGRAPH = "WELCOME TO THE BLOCK PARTY THIS SATURDAY 06/21 FROM 2:00 TO 9:00. "
+			+ "FOOD, MUSIC AND GAMES FOR EVERYONE. PARKING ON THE NORTH LOT ONLY. "
+			+ "IN CASE OF RAIN WE MOVE INDOORS TO THE COMMUNITY HALL. "
+			+ "QUESTIONS? ASK AT THE FRONT DESK OR CALL 555 0123. SEE YOU THERE!";
+	
+	private Messages() {}
+	
+	// @param name - SHORT, LONG or PARAGRAPH
+	static String get(String name) {
+		switch(name) {
+		case "SHORT":
+			return SHORT;
+		case "LONG":
+			return LONG;
+		default:
+			return PARAGRAPH;
+		}
+	}
+	
+	/**
+	 * loads the font from -Dglyph.font, or the font bundled on the classpath
+	 */
+	static void loadGlyphs() {
+		String font = System.getProperty(GlyphRegistry.FONT_PROPERTY);
+		if(font == null) {
+			GlyphRegistry.load();
+			return;
+		}
+		try {
+			GlyphRegistry.load(new File(font));
+		} catch(IOException e) {
+			throw new IllegalStateException("font not readable at " + new File(font).getAbsolutePath(), e);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+// OffsetBoardBenchmark.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import settings.Settings;
+import word_processing.LedFrame;
+import word_processing.WordEvent;
+
+/**
+ * cost of one animation tick: windowing the visible board out of a
+ * rendered <em>WordEvent</em> while it scrolls
+ * 
+ * @author Vivaan Mahtab
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffsetBoardBenchmark {
+	
+	@Param({"SHORT", "LONG", "PARAGRAPH"})
+	String message;
+	
+	WordEvent wordEvent;
+	LedFrame reused;
+	
+	@Setup
+	public void setup() {
+		Messages.loadGlyphs();
+		this.wordEvent = new WordEvent(Messages.get(this.message), -Settings.BULB_GRID_LENGTH);
+		this.reused = new LedFrame(Settings.BULB_GRID_HEIGHT, WordEvent.VISIBLE_LENGTH);
+	}
+	
+	// moves one column per call, wrapping back once the message has scrolled off
+	private void scroll() {
+		this.wordEvent.move(1);
+		if(this.wordEvent.getPosition() > this.wordEvent.getSize())
+			this.wordEvent.move(-this.wordEvent.getPosition() - Settings.BULB_GRID_LENGTH);
+	}
+	
+	@Benchmark
+	public LedFrame get_offset_board() {
+		this.scroll();
+		return this.wordEvent.get_offset_board();
+	}
+	
+	@Benchmark
+	public LedFrame get_offset_board_reused() {
+		this.scroll();
+		return this.wordEvent.get_offset_board(this.reused);
+	}
+}
@@ -0,0 +1,76 @@
+// SerialEncodingBenchmark.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import Serial_Communication.DeltaFrameEncoder;
+import Serial_Communication.FrameEncoder;
+import settings.Settings;
+import word_processing.LedFrame;
+import word_processing.WordEvent;
+
+/**
+ * cost of encoding scrolling frames into Serial packets, the work
+ * <em>Communication_Interface</em>.update does for every frame
+ * 
+ * @author Vivaan Mahtab
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialEncodingBenchmark {
+	
+	@Param({"SHORT", "LONG", "PARAGRAPH"})
+	String message;
+	
+	//every frame of the message scrolling across the board
+	LedFrame[] frames;
+	int next;
+	
+	FrameEncoder full;
+	DeltaFrameEncoder delta;
+	
+	@Setup
+	public void setup() {
+		Messages.loadGlyphs();
+		WordEvent wordEvent = new WordEvent(Messages.get(this.message), -Settings.BULB_GRID_LENGTH);
+		this.frames = new LedFrame[wordEvent.getSize() + Settings.BULB_GRID_LENGTH];
+		for(int i = 0; i < this.frames.length; i++) {
+			this.frames[i] = wordEvent.get_offset_board();
+			wordEvent.move(1);
+		}
+		this.full = new FrameEncoder(Settings.BULB_GRID_HEIGHT, Settings.BULB_GRID_LENGTH);
+		this.delta = new DeltaFrameEncoder(Settings.BULB_GRID_HEIGHT, Settings.BULB_GRID_LENGTH);
+	}
+	
+	private LedFrame nextFrame() {
+		LedFrame frame = this.frames[this.next];
+		this.next = (this.next + 1) % this.frames.length;
+		return frame;
+	}
+	
+	@Benchmark
+	public byte[] fullFrame() {
+		return this.full.encode(this.nextFrame());
+	}
+	
+	@Benchmark
+	public byte[] deltaFrame() {
+		return this.delta.encode(this.nextFrame());
+	}
+}
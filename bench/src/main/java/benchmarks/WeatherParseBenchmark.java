@@ -0,0 +1,43 @@
+// WeatherParseBenchmark.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import data_sources.WeatherService;
+
+/**
+ * cost of parsing the temperature out of an OpenWeatherMap response
+ * 
+ * @author Vivaan Mahtab
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherParseBenchmark {
+	
+	//a typical current weather response, "main" near the middle
+	String response = "{\"coord\":{\"lon\":-122.08,\"lat\":37.39},\"weather\":[{\"id\":800,\"main\":\"Clear\","
+			+ "\"description\":\"clear sky\",\"icon\":\"01d\"}],\"base\":\"stations\",\"main\":{\"temp\":282.55,"
+			+ "\"feels_like\":281.86,\"temp_min\":280.37,\"temp_max\":284.26,\"pressure\":1023,\"humidity\":100},"
+			+ "\"visibility\":10000,\"wind\":{\"speed\":1.5,\"deg\":350},\"clouds\":{\"all\":1},\"dt\":1560350645,"
+			+ "\"sys\":{\"type\":1,\"id\":5122,\"country\":\"US\",\"sunrise\":1560343627,\"sunset\":1560396563},"
+			+ "\"timezone\":-25200,\"id\":420006353,\"name\":\"Mountain View\",\"cod\":200}";
+	
+	@Benchmark
+	public String grabTemp() {
+		return WeatherService.grabTemp(this.response);
+	}
+}
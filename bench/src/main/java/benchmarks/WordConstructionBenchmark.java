@@ -0,0 +1,55 @@
+// WordConstructionBenchmark.java
+// Author: Vivaan Mahtab
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import word_processing.WordConstructor;
+import word_processing.WordEvent;
+
+/**
+ * cost of turning text into LEDs: a single <em>WordConstructor</em> and
+ * a whole <em>WordEvent</em> (which renders its message once)
+ * 
+ * @author Vivaan Mahtab
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordConstructionBenchmark {
+	
+	@Param({"SHORT", "LONG", "PARAGRAPH"})
+	String message;
+	
+	String text;
+	
+	@Setup
+	public void setup() {
+		Messages.loadGlyphs();
+		this.text = Messages.get(this.message);
+	}
+	
+	@Benchmark
+	public WordConstructor wordConstructor() {
+		return new WordConstructor(this.text);
+	}
+	
+	@Benchmark
+	public WordEvent wordEvent() {
+		return new WordEvent(this.text);
+	}
+}
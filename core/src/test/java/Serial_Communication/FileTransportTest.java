@@ -0,0 +1,104 @@
+// FileTransportTest.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <em>FileTransportTest class</em>
+ * writes packets through a <em>FileTransport</em> to plain files and
+ * checks a capture file is never read back as acknowledgements
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/FileTransport.java
+ */
+public class FileTransportTest {
+	
+	//long enough for the reading thread to have read anything there is
+	final static long SETTLE_MS = 100;
+	
+	final static byte[] PACKET = {(byte) 0xA5, 1, 2, 3, (byte) 0xFF};
+	
+	private File file;
+	
+	@Before
+	public void create() throws IOException {
+		this.file = File.createTempFile("capture", ".bin");
+	}
+	
+	@After
+	public void delete() {
+		this.file.delete();
+	}
+	
+	@Test
+	public void capturesToPlainFileWithoutReadingBack() throws IOException, InterruptedException {
+		Files.write(this.file.toPath(), new byte[] {9, 9, 9, 9, 9, 9, 9, 9});
+		FileTransport transport = new FileTransport(this.file);
+		transport.write(PACKET);
+		transport.write(PACKET);
+		Thread.sleep(SETTLE_MS);
+		assertEquals(0, transport.available());
+		assertEquals(-1, transport.read());
+		transport.close();
+		
+		//replaced, not appended to
+		byte[] captured = Files.readAllBytes(this.file.toPath());
+		assertEquals(2 * PACKET.length, captured.length);
+		assertArrayEquals(PACKET, Arrays.copyOfRange(captured, PACKET.length, captured.length));
+	}
+	
+	@Test
+	public void createsMissingFileWithoutReadingBack() throws IOException, InterruptedException {
+		this.file.delete();
+		assertFalse(FileTransport.isDevice(this.file));
+		FileTransport transport = new FileTransport(this.file);
+		transport.write(PACKET);
+		Thread.sleep(SETTLE_MS);
+		assertEquals(0, transport.available());
+		transport.close();
+		assertArrayEquals(PACKET, Files.readAllBytes(this.file.toPath()));
+	}
+	
+	@Test
+	public void readsSeparateInput() throws IOException, InterruptedException {
+		File input = File.createTempFile("acks", ".bin");
+		try {
+			Files.write(input.toPath(), new byte[] {(byte) FrameProtocol.ACK, (byte) 0x80});
+			FileTransport transport = new FileTransport(this.file, input);
+			long deadline = System.nanoTime() + 1_000_000_000L;
+			while(transport.available() < 2 && System.nanoTime() < deadline) {
+				Thread.sleep(1);
+			}
+			assertEquals(FrameProtocol.ACK, transport.read());
+			assertEquals(0x80, transport.read());
+			assertEquals(-1, transport.read());
+			transport.close();
+		} finally {
+			input.delete();
+		}
+	}
+	
+	@Test
+	public void onlyDevicesAreRead() {
+		File devNull = new File("/dev/null");
+		Assume.assumeTrue(devNull.exists());
+		assertTrue(FileTransport.isDevice(devNull));
+		assertFalse(FileTransport.isDevice(this.file));
+		assertFalse(FileTransport.isDevice(this.file.getParentFile()));
+	}
+}
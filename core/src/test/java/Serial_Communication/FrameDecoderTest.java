@@ -0,0 +1,285 @@
+// FrameDecoderTest.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import org.junit.Test;
+import word_processing.GrayFrame;
+import word_processing.LedFrame;
+
+/**
+ * <em>FrameDecoderTest class</em>
+ * round trips frames through <em>FrameEncoder</em> and <em>FrameDecoder</em>
+ * for the board sizes in use, on/off and TYPE_GRAY levels, and checks the
+ * decoder drops corrupted packets and finds the next SYNC after garbage
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/FrameDecoder.java
+ */
+public class FrameDecoderTest {
+	
+	// frame of @param height by @param width with random LEDs lit
+	static LedFrame random(int height, int width, long seed) {
+		Random random = new Random(seed);
+		LedFrame frame = new LedFrame(height, width);
+		for(int col = 0; col < width; col++) {
+			frame.setColumn(col, random.nextLong());
+		}
+		return frame;
+	}
+	
+	// encodes a random frame of @param height by @param width and checks it decodes the same
+	static void roundTrip(int height, int width) {
+		LedFrame frame = random(height, width, height * 1000 + width);
+		byte[] packet = new FrameEncoder(height, width).encode(frame);
+		assertEquals(FrameProtocol.OVERHEAD + FrameProtocol.packedLength(height * width), packet.length);
+		
+		FrameDecoder decoder = new FrameDecoder(height, width);
+		assertEquals(frame, decoder.accept(packet));
+		assertEquals(1, decoder.getPackets());
+		assertEquals(0, decoder.getErrors());
+	}
+	
+	@Test
+	public void roundTripsRoofBoard() {
+		roundTrip(10, 30);
+		
+		//300 LEDs packed into 38 bytes
+		byte[] packet = new FrameEncoder(10, 30).encode(new LedFrame(10, 30));
+		assertEquals(38, (packet[2] & 0xFF) << 8 | (packet[3] & 0xFF));
+	}
+	
+	@Test
+	public void roundTripsWideBoard() {
+		roundTrip(32, 480);
+	}
+	
+	@Test
+	public void roundTripsSquareBoard() {
+		roundTrip(64, 64);
+	}
+	
+	@Test
+	public void roundTripsDeltas() {
+		for(int[] size : new int[][] {{10, 30}, {32, 480}, {64, 64}}) {
+			DeltaFrameEncoder encoder = new DeltaFrameEncoder(size[0], size[1]);
+			FrameDecoder decoder = new FrameDecoder(size[0], size[1]);
+			LedFrame frame = random(size[0], size[1], 1);
+			for(int i = 0; i < 20; i++) {
+				
+				//scroll one column and light a few LEDs
+				frame.shift(-1);
+				frame.set(i % size[0], i % size[1], true);
+				assertEquals(frame, decoder.accept(encoder.encode(frame)));
+			}
+			assertEquals(0, decoder.getErrors());
+		}
+	}
+	
+	@Test
+	public void dropsCorruptedCrc() {
+		LedFrame frame = random(10, 30, 2);
+		byte[] packet = new FrameEncoder(10, 30).encode(frame);
+		packet[packet.length - 1] ^= 0x01;
+		
+		FrameDecoder decoder = new FrameDecoder(10, 30);
+		assertNull(decoder.accept(packet));
+		assertEquals(1, decoder.getErrors());
+		assertEquals(0, decoder.getPackets());
+		assertEquals(new LedFrame(10, 30), decoder.getBoard());
+		
+		//a corrupted payload is caught the same way
+		packet = new FrameEncoder(10, 30).encode(frame);
+		packet[FrameProtocol.HEADER_LENGTH + 5] ^= 0x10;
+		assertNull(decoder.accept(packet));
+		assertEquals(2, decoder.getErrors());
+	}
+	
+	@Test
+	public void resyncsAfterGarbage() {
+		LedFrame frame = random(10, 30, 3);
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		stream.write(new byte[] {0x12, 0x00, (byte) 0xFF, 0x7E}, 0, 4);
+		stream.write(FrameProtocol.SYNC);
+		byte[] packet = new FrameEncoder(10, 30).encode(frame);
+		stream.write(packet, 0, packet.length);
+		
+		FrameDecoder decoder = new FrameDecoder(10, 30);
+		assertEquals(frame, decoder.accept(stream.toByteArray()));
+		assertEquals(1, decoder.getPackets());
+	}
+	
+	@Test
+	public void resyncsAfterStraySync() {
+		
+		//a stray SYNC right before the real one is skipped as an unknown TYPE
+		LedFrame frame = random(10, 30, 4);
+		byte[] packet = new FrameEncoder(10, 30).encode(frame);
+		byte[] stray = new byte[packet.length + 1];
+		stray[0] = (byte) FrameProtocol.SYNC;
+		System.arraycopy(packet, 0, stray, 1, packet.length);
+		
+		FrameDecoder decoder = new FrameDecoder(10, 30);
+		assertEquals(frame, decoder.accept(stray));
+		assertEquals(0, decoder.getErrors());
+	}
+	
+	@Test
+	public void dropsOversizedLength() {
+		LedFrame frame = random(10, 30, 5);
+		byte[] packet = new FrameEncoder(10, 30).encode(frame);
+		
+		//longer than any packet for the board, dropped as soon as LENGTH is read
+		byte[] oversized = packet.clone();
+		oversized[2] = 0x7F;
+		
+		FrameDecoder decoder = new FrameDecoder(10, 30);
+		assertNull(decoder.accept(oversized));
+		assertEquals(1, decoder.getErrors());
+		assertEquals(frame, decoder.accept(packet));
+	}
+	
+	@Test
+	public void dropsWrongLength() {
+		LedFrame frame = random(10, 30, 6);
+		byte[] full = new FrameEncoder(10, 30).encode(frame);
+		
+		//a valid CRC over a payload too short for the board is still not applied
+		byte[] payload = new byte[20];
+		System.arraycopy(full, FrameProtocol.HEADER_LENGTH, payload, 0, payload.length);
+		byte[] truncated = FrameProtocol.packet(FrameProtocol.TYPE_FULL, payload, payload.length);
+		
+		FrameDecoder decoder = new FrameDecoder(10, 30);
+		assertNull(decoder.accept(truncated));
+		assertEquals(1, decoder.getErrors());
+		assertEquals(new LedFrame(10, 30), decoder.getBoard());
+		assertEquals(frame, decoder.accept(full));
+	}
+	
+	@Test
+	public void resyncsAfterTruncatedPacket() {
+		LedFrame first = random(10, 30, 7);
+		LedFrame second = random(10, 30, 8);
+		FrameEncoder encoder = new FrameEncoder(10, 30);
+		byte[] cut = encoder.encode(first);
+		byte[] packet = encoder.encode(second);
+		
+		//the first packet loses its tail, the next packet's bytes are read as
+		//its payload and fail the CRC, so the one after that is decoded
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		stream.write(cut, 0, cut.length - 10);
+		for(int i = 0; i < 3; i++) {
+			stream.write(packet, 0, packet.length);
+		}
+		
+		FrameDecoder decoder = new FrameDecoder(10, 30);
+		assertEquals(second, decoder.accept(stream.toByteArray()));
+		assertTrue(decoder.getErrors() >= 1);
+		assertEquals(second, decoder.getBoard());
+	}
+	
+	// frame of @param bits by @param height by @param width with random levels
+	static GrayFrame randomGray(int height, int width, int bits, long seed) {
+		Random random = new Random(seed);
+		GrayFrame frame = new GrayFrame(height, width, bits);
+		for(int k = 0; k < bits; k++) {
+			for(int col = 0; col < width; col++) {
+				frame.getPlane(k).setColumn(col, random.nextLong());
+			}
+		}
+		return frame;
+	}
+	
+	@Test
+	public void roundTripsGray() {
+		for(int[] size : new int[][] {{10, 30}, {32, 480}}) {
+			for(int bits : new int[] {2, 4, 8}) {
+				DeltaFrameEncoder encoder = new DeltaFrameEncoder(size[0], size[1]);
+				FrameDecoder decoder = new FrameDecoder(size[0], size[1]);
+				GrayFrame frame = randomGray(size[0], size[1], bits, bits);
+				byte[] packet = encoder.encode(frame);
+				assertEquals(FrameProtocol.TYPE_GRAY, packet[1]);
+				assertEquals(FrameProtocol.OVERHEAD + 1 + bits * FrameProtocol.packedLength(size[0] * size[1]), packet.length);
+				
+				//the on/off board is the LEDs at least half brightness
+				assertEquals(frame.getPlane(bits - 1), decoder.accept(packet));
+				assertEquals(frame, decoder.getGrayShown());
+				assertEquals(0, decoder.getErrors());
+				
+				//and a delta after it applies to that board
+				LedFrame next = new LedFrame(frame.getPlane(bits - 1));
+				next.shift(-1);
+				byte[] delta = encoder.encode(next);
+				assertEquals(FrameProtocol.TYPE_SHIFT, delta[1]);
+				assertEquals(next, decoder.accept(delta));
+				assertNull(decoder.getGrayShown());
+			}
+		}
+	}
+	
+	@Test
+	public void sendsBinaryGrayAsOnOff() {
+		DeltaFrameEncoder encoder = new DeltaFrameEncoder(10, 30);
+		FrameDecoder decoder = new FrameDecoder(10, 30);
+		LedFrame frame = random(10, 30, 5);
+		byte[] packet = encoder.encode(GrayFrame.of(frame, 4));
+		assertEquals(FrameProtocol.TYPE_FULL, packet[1]);
+		assertEquals(frame, decoder.accept(packet));
+		
+		frame.shift(-1);
+		packet = encoder.encode(GrayFrame.of(frame, 4));
+		assertEquals(FrameProtocol.TYPE_SHIFT, packet[1]);
+		assertEquals(frame, decoder.accept(packet));
+		assertNull(decoder.getGrayShown());
+	}
+	
+	@Test
+	public void sendsGrayTooLongForPacketAsOnOff() {
+		
+		//8 planes of 64x1024 are 65537 bytes, 7 fit
+		assertEquals(7, FrameProtocol.maxGrayBits(64, 1024));
+		DeltaFrameEncoder encoder = new DeltaFrameEncoder(64, 1024);
+		FrameDecoder decoder = new FrameDecoder(64, 1024);
+		GrayFrame frame = randomGray(64, 1024, 8, 1);
+		byte[] packet = encoder.encode(frame);
+		assertEquals(FrameProtocol.TYPE_FULL, packet[1]);
+		assertEquals(frame.getPlane(7), decoder.accept(packet));
+		
+		//nothing was left half changed by the levels that did not fit
+		GrayFrame fits = randomGray(64, 1024, 7, 2);
+		packet = encoder.encode(fits);
+		assertEquals(FrameProtocol.TYPE_GRAY, packet[1]);
+		assertNotNull(decoder.accept(packet));
+		assertEquals(fits, decoder.getGrayShown());
+		LedFrame next = new LedFrame(fits.getPlane(6));
+		next.shift(-1);
+		assertEquals(next, decoder.accept(encoder.encode(next)));
+		assertEquals(0, decoder.getErrors());
+	}
+	
+	@Test
+	public void encodesSameBytesAsReference() {
+		
+		//LED (row, col) is bit col * height + row
+		LedFrame frame = new LedFrame(10, 30);
+		frame.set(0, 0, true);
+		frame.set(9, 0, true);
+		frame.set(2, 1, true);
+		byte[] packet = new FrameEncoder(10, 30).encode(frame);
+		byte[] payload = new byte[38];
+		System.arraycopy(packet, FrameProtocol.HEADER_LENGTH, payload, 0, payload.length);
+		byte[] expected = new byte[38];
+		expected[0] = 0x01;
+		expected[1] = 0x02 | 0x10;
+		assertArrayEquals(expected, payload);
+	}
+}
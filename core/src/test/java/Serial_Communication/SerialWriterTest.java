@@ -0,0 +1,104 @@
+// SerialWriterTest.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import settings.Settings;
+import word_processing.LedFrame;
+
+/**
+ * <em>SerialWriterTest class</em>
+ * runs <em>SerialWriter</em> on its own thread against a
+ * <em>SimulatedController</em>, publishing scrolling frames and checking
+ * the controller ends up showing the newest one however the link behaves
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/SerialWriter.java
+ */
+public class SerialWriterTest {
+	
+	final static int HEIGHT = WindowedSenderTest.HEIGHT;
+	final static int WIDTH = WindowedSenderTest.WIDTH;
+	
+	//short, as every lost packet waits for it
+	final static long ACK_TIMEOUT_MS = 20;
+	
+	final SimulatedController controller = new SimulatedController(HEIGHT, WIDTH, false, 115200);
+	final WindowedSenderTest.Scroller scroller = new WindowedSenderTest.Scroller();
+	SerialWriter writer;
+	
+	@After
+	public void stop() {
+		this.writer.stop();
+	}
+	
+	// starts a writer of @param window packets over the controller
+	void start(int window) {
+		this.writer = new SerialWriter(this.controller, new DeltaFrameEncoder(HEIGHT, WIDTH), new LinkMonitor(115200),
+				ACK_TIMEOUT_MS, window, Settings.SERIAL_RX_BUFFER_BYTES);
+		this.writer.start();
+	}
+	
+	// publishes @param count frames a millisecond apart, returning the last
+	LedFrame publish(int count) throws InterruptedException {
+		LedFrame last = null;
+		for(int i = 0; i < count; i++) {
+			last = this.scroller.next();
+			this.writer.publish(last);
+			Thread.sleep(1);
+		}
+		return last;
+	}
+	
+	// waits up to 2 seconds for the controller to show @param frame
+	void assertShownSoon(LedFrame frame) throws InterruptedException {
+		for(int i = 0; i < 200 && !frame.equals(this.controller.getShown()); i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(frame, this.controller.getShown());
+	}
+	
+	@Test
+	public void showsNewestFrame() throws InterruptedException {
+		this.start(Settings.SERIAL_WINDOW);
+		this.assertShownSoon(this.publish(300));
+		assertEquals(300, this.writer.getFramesProduced());
+		assertTrue(this.writer.getFramesSent() > 0);
+		assertEquals(0, this.controller.getErrors());
+	}
+	
+	@Test
+	public void showsNewestFrameOverLossyLink() throws InterruptedException {
+		this.controller.setDropEvery(7);
+		this.start(Settings.SERIAL_WINDOW);
+		this.assertShownSoon(this.publish(300));
+		assertTrue(this.controller.getOutOfOrder() > 0);
+	}
+	
+	@Test
+	public void resyncsControllerThatStoppedResponding() throws InterruptedException {
+		this.start(Settings.SERIAL_WINDOW);
+		this.assertShownSoon(this.publish(10));
+		
+		this.controller.setResponding(false);
+		this.publish(10);
+		Thread.sleep(ACK_TIMEOUT_MS * (WindowedSender.MAX_RETRIES + 2));
+		this.controller.setResponding(true);
+		this.assertShownSoon(this.publish(10));
+		this.writer.stop();
+		assertTrue(this.writer.getSender().getResyncs() > 0);
+	}
+	
+	@Test
+	public void waitsForAnyByteWithoutWindow() throws InterruptedException {
+		this.start(0);
+		this.assertShownSoon(this.publish(100));
+		assertEquals(0, this.controller.getOutOfOrder());
+	}
+}
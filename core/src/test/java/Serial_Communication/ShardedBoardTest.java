@@ -0,0 +1,207 @@
+// ShardedBoardTest.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import word_processing.LedFrame;
+
+/**
+ * <em>ShardedBoardTest class</em>
+ * commits frames to a <em>ShardedBoard</em> of latched
+ * <em>SimulatedController</em> segments and checks every segment shows the
+ * same frame after each commit, with packets and acknowledgements lost
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/ShardedBoard.java
+ */
+public class ShardedBoardTest {
+	
+	final static int HEIGHT = 10;
+	final static int[] LENGTHS = {12, 10, 8};
+	
+	//short, as every lost packet waits for it
+	final static long ACK_TIMEOUT_MS = 30;
+	
+	/**
+	 * a controller whose link can lose every TYPE_LATCH packet written to it,
+	 * or hold back everything it sends until released
+	 */
+	static class FaultyLink implements Transport {
+		final SimulatedController controller;
+		volatile boolean dropLatches = false;
+		volatile boolean holdReplies = false;
+		
+		FaultyLink(SimulatedController controller) {
+			this.controller = controller;
+		}
+		
+		@Override
+		public void write(byte[] data) {
+			if(this.dropLatches && (data[1] & 0xFF & ~FrameProtocol.FLAG_SEQUENCED) == FrameProtocol.TYPE_LATCH)
+				return;
+			this.controller.write(data);
+		}
+		
+		@Override
+		public int available() {
+			return this.holdReplies ? 0 : this.controller.available();
+		}
+		
+		@Override
+		public int read() {
+			return this.holdReplies ? -1 : this.controller.read();
+		}
+		
+		@Override
+		public void close() {
+			this.controller.close();
+		}
+	}
+	
+	SimulatedController[] controllers;
+	FaultyLink[] links;
+	ShardedBoard board;
+	long seed = 0;
+	
+	@Before
+	public void start() {
+		this.controllers = new SimulatedController[LENGTHS.length];
+		this.links = new FaultyLink[LENGTHS.length];
+		for(int i = 0; i < LENGTHS.length; i++) {
+			this.controllers[i] = new SimulatedController(HEIGHT, LENGTHS[i], true);
+			this.links[i] = new FaultyLink(this.controllers[i]);
+		}
+		this.board = new ShardedBoard(HEIGHT, LENGTHS, this.links, 9600, ACK_TIMEOUT_MS);
+	}
+	
+	@After
+	public void stop() {
+		this.board.stop();
+	}
+	
+	// a new random frame of the whole board
+	LedFrame next() {
+		return FrameDecoderTest.random(HEIGHT, this.board.width, this.seed++);
+	}
+	
+	// checks segment @param i shows its slice of @param frame
+	void assertShows(int i, LedFrame frame) {
+		LedFrame slice = new LedFrame(HEIGHT, LENGTHS[i]);
+		slice.copyFrom(frame, this.board.segments[i].firstCol);
+		assertEquals("segment " + i, slice, this.controllers[i].getShown());
+	}
+	
+	// checks every segment shows its slice of @param frame
+	void assertAllShow(LedFrame frame) {
+		for(int i = 0; i < LENGTHS.length; i++) {
+			this.assertShows(i, frame);
+		}
+	}
+	
+	@Test
+	public void showsSameFrameOnEverySegment() throws InterruptedException {
+		this.board.setCompressing(true);
+		for(int n = 0; n < 30; n++) {
+			
+			//scrolling as well as jumping frames, so deltas are sent too
+			LedFrame frame = this.next();
+			assertTrue(this.board.commit(frame));
+			assertAllShow(frame);
+			frame.shift(-1);
+			assertTrue(this.board.commit(frame));
+			assertAllShow(frame);
+		}
+	}
+	
+	@Test
+	public void lostLoadAbandonsFrameEverywhere() throws InterruptedException {
+		LedFrame first = this.next();
+		assertTrue(this.board.commit(first));
+		
+		//segment 1 misses its LOAD - nothing is latched anywhere
+		this.controllers[1].setDropEvery(1);
+		assertFalse(this.board.commit(this.next()));
+		assertAllShow(first);
+		
+		//and is resynced by the next frame
+		this.controllers[1].setDropEvery(0);
+		LedFrame third = this.next();
+		assertTrue(this.board.commit(third));
+		assertAllShow(third);
+	}
+	
+	@Test
+	public void lostLatchIsSentAgain() throws InterruptedException {
+		assertTrue(this.board.commit(this.next()));
+		
+		//every other write lost from now on: the LOAD arrives, the first LATCH does not
+		long timeouts = SerialWriter.ACK_TIMEOUTS.get();
+		this.controllers[2].setDropEvery(2);
+		LedFrame frame = this.next();
+		assertTrue(this.board.commit(frame));
+		assertAllShow(frame);
+		assertTrue(SerialWriter.ACK_TIMEOUTS.get() > timeouts);
+	}
+	
+	@Test
+	public void unacknowledgedLatchIsNotCommitted() throws InterruptedException {
+		LedFrame first = this.next();
+		assertTrue(this.board.commit(first));
+		
+		//segment 0 never gets a LATCH - the frame is not committed and the
+		//others, already latched, are only put right by the next frame
+		this.links[0].dropLatches = true;
+		LedFrame second = this.next();
+		assertFalse(this.board.commit(second));
+		this.assertShows(0, first);
+		this.assertShows(1, second);
+		this.assertShows(2, second);
+		
+		this.links[0].dropLatches = false;
+		LedFrame third = this.next();
+		assertTrue(this.board.commit(third));
+		assertAllShow(third);
+	}
+	
+	@Test
+	public void lateAcknowledgementIsNotTakenForNextPacket() throws InterruptedException {
+		LedFrame first = this.next();
+		assertTrue(this.board.commit(first));
+		
+		//segment 1's acknowledgement of its LOAD arrives after the timeout
+		this.links[1].holdReplies = true;
+		assertFalse(this.board.commit(this.next()));
+		assertAllShow(first);
+		
+		//it is read during the next LOAD, which the controller never acknowledges
+		this.links[1].holdReplies = false;
+		this.controllers[1].setResponding(false);
+		assertFalse(this.board.commit(this.next()));
+		assertAllShow(first);
+		
+		this.controllers[1].setResponding(true);
+		LedFrame fourth = this.next();
+		assertTrue(this.board.commit(fourth));
+		assertAllShow(fourth);
+	}
+	
+	@Test
+	public void commitsPublishedFrames() throws InterruptedException {
+		this.board.start();
+		LedFrame frame = this.next();
+		this.board.publish(frame);
+		for(int i = 0; i < 200 && this.board.getFramesCommitted() == 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, this.board.getFramesCommitted());
+		assertAllShow(frame);
+	}
+}
@@ -0,0 +1,399 @@
+// WindowedSenderTest.java
+// Author: Vivaan Mahtab
+
+package Serial_Communication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import org.junit.Test;
+import settings.Settings;
+import word_processing.LedFrame;
+
+/**
+ * <em>WindowedSenderTest class</em>
+ * steps a <em>WindowedSender</em> through time against a
+ * <em>SimulatedController</em>, holding back, losing and delaying its
+ * acknowledgements to check the window, go-back-N and resync
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/Serial_Communication/WindowedSender.java
+ */
+public class WindowedSenderTest {
+	
+	final static int HEIGHT = 10;
+	final static int WIDTH = 30;
+	
+	//time to wait for the oldest packet, and time between polls
+	final static long TIMEOUT = 10000000L;
+	final static long STEP = 1000000L;
+	
+	/**
+	 * a controller whose acknowledgements only reach the sender once passed
+	 * on, so they can be held back, lost, or arrive late
+	 */
+	static class DelayedLink implements Transport {
+		final SimulatedController controller;
+		
+		//bytes passed on and not yet read by the sender
+		private final ArrayDeque<Integer> passed = new ArrayDeque<Integer>();
+		
+		//true to pass on nothing until released
+		boolean holding = false;
+		
+		DelayedLink(SimulatedController controller) {
+			this.controller = controller;
+		}
+		
+		// passes on the next @param count bytes the controller sent
+		void pass(int count) {
+			for(int i = 0; i < count; i++) {
+				this.passed.add(this.controller.read());
+			}
+		}
+		
+		// loses the next @param count bytes the controller sent
+		void lose(int count) {
+			for(int i = 0; i < count; i++) {
+				this.controller.read();
+			}
+		}
+		
+		@Override
+		public void write(byte[] data) {
+			this.controller.write(data);
+		}
+		
+		@Override
+		public int available() {
+			if(!this.holding)
+				this.pass(this.controller.available());
+			return this.passed.size();
+		}
+		
+		@Override
+		public int read() {
+			Integer b = this.passed.poll();
+			return b == null ? -1 : b;
+		}
+		
+		@Override
+		public void close() {
+			this.controller.close();
+		}
+	}
+	
+	/**
+	 * frames of the board scrolling left one random column at a time, so
+	 * most are sent as short TYPE_SHIFT packets
+	 */
+	static class Scroller {
+		private final Random random = new Random(42);
+		private final LedFrame frame = FrameDecoderTest.random(HEIGHT, WIDTH, 7);
+		
+		// the next frame, a copy the sender may keep
+		LedFrame next() {
+			this.frame.shift(-1);
+			this.frame.setColumn(WIDTH - 1, this.random.nextLong());
+			return new LedFrame(this.frame);
+		}
+	}
+	
+	final SimulatedController controller = new SimulatedController(HEIGHT, WIDTH, false);
+	final DelayedLink link = new DelayedLink(this.controller);
+	final Scroller scroller = new Scroller();
+	
+	//virtual System.nanoTime()
+	long now = 0;
+	
+	// a sender of @param window packets and @param bufferBytes over the link
+	WindowedSender sender(int window, int bufferBytes) {
+		return this.sender(window, bufferBytes, false);
+	}
+	
+	// same as above, sending TYPE_COLUMNS whenever shorter if @param compressing
+	WindowedSender sender(int window, int bufferBytes, boolean compressing) {
+		DeltaFrameEncoder encoder = new DeltaFrameEncoder(HEIGHT, WIDTH);
+		encoder.setCompressing(compressing);
+		return new WindowedSender(this.link, encoder, new LinkMonitor(115200), window, bufferBytes, TIMEOUT);
+	}
+	
+	/**
+	 * a frame of a few two column glyphs with gaps between, from the glyph
+	 * column @param first on, @param step glyph columns per board column,
+	 * short as TYPE_COLUMNS but not as a TYPE_SHIFT of another
+	 */
+	static LedFrame text(int first, int step) {
+		long[] glyphs = {0x1F, 0x1F, 0, 0, 0, 0, 0x3E0, 0x3E0, 0, 0, 0, 0x11};
+		LedFrame frame = new LedFrame(HEIGHT, WIDTH);
+		for(int col = 0; col < WIDTH; col++) {
+			frame.setColumn(col, glyphs[(first + col * step) % glyphs.length]);
+		}
+		return frame;
+	}
+	
+	// sends frames whenever @param sender is ready until @param count are sent, then the rest of the window
+	LedFrame run(WindowedSender sender, int count) {
+		LedFrame last = null;
+		for(int sent = 0; sent < count; this.now += STEP) {
+			sender.poll(this.now);
+			if(sender.isReady()) {
+				last = this.scroller.next();
+				sender.send(last, this.now);
+				sent++;
+			}
+		}
+		this.drain(sender);
+		return last;
+	}
+	
+	// polls @param sender until nothing is in flight, failing if that takes too long
+	void drain(WindowedSender sender) {
+		for(int i = 0; i < 1000 && sender.getInFlight() > 0; i++, this.now += STEP) {
+			sender.poll(this.now);
+		}
+		assertEquals("still in flight", 0, sender.getInFlight());
+	}
+	
+	@Test
+	public void sendsPastSequenceWraparound() {
+		WindowedSender sender = this.sender(Settings.SERIAL_WINDOW, Settings.SERIAL_RX_BUFFER_BYTES);
+		int count = FrameProtocol.SEQUENCE_MODULO * 2 + 10;
+		LedFrame last = this.run(sender, count);
+		assertEquals(last, this.controller.getShown());
+		assertEquals(count, sender.getAcked());
+		assertEquals(count, this.controller.getPackets());
+		assertEquals(0, sender.getRetransmits());
+		assertEquals(0, sender.getResyncs());
+		assertEquals(0, this.controller.getOutOfOrder());
+	}
+	
+	@Test
+	public void recoversFromDroppedPackets() {
+		WindowedSender sender = this.sender(Settings.SERIAL_WINDOW, Settings.SERIAL_RX_BUFFER_BYTES);
+		this.controller.setDropEvery(5);
+		LedFrame last = this.run(sender, 300);
+		assertEquals(last, this.controller.getShown());
+		assertTrue(sender.getRetransmits() > 0);
+		assertTrue(this.controller.getOutOfOrder() > 0);
+		assertEquals(0, this.controller.getErrors());
+	}
+	
+	@Test
+	public void windowLimitsPacketsInFlight() {
+		WindowedSender sender = this.sender(3, 1000);
+		this.link.holding = true;
+		int sent = 0;
+		for(int i = 0; i < 10; i++) {
+			sender.poll(this.now);
+			if(sender.isReady()) {
+				sender.send(this.scroller.next(), this.now);
+				sent++;
+			}
+		}
+		assertEquals(3, sent);
+		assertEquals(3, sender.getInFlight());
+		
+		this.link.holding = false;
+		sender.poll(this.now);
+		assertEquals(0, sender.getInFlight());
+		assertEquals(3, sender.getAcked());
+		assertTrue(sender.isReady());
+	}
+	
+	@Test
+	public void bufferLimitsBytesInFlight() {
+		int buffer = Settings.SERIAL_RX_BUFFER_BYTES;
+		WindowedSender sender = this.sender(FrameProtocol.MAX_WINDOW, buffer);
+		this.run(sender, 1);
+		
+		//short packets only, as many as fit in the buffer (sent at once, so none time out)
+		this.link.holding = true;
+		int bytes = 0, length = 0;
+		for(int i = 0; i < 100; i++) {
+			sender.poll(this.now);
+			if(sender.isReady()) {
+				length = sender.send(this.scroller.next(), this.now).length;
+				bytes += length;
+			}
+		}
+		assertTrue(sender.getInFlight() > 1);
+		assertTrue(bytes <= buffer);
+		assertTrue(bytes + length > buffer);
+		assertEquals(1 + sender.getInFlight(), this.controller.getPackets());
+	}
+	
+	@Test
+	public void sendsPacketLargerThanBufferAlone() {
+		WindowedSender sender = this.sender(Settings.SERIAL_WINDOW, 16);
+		this.link.holding = true;
+		byte[] packet = sender.send(FrameDecoderTest.random(HEIGHT, WIDTH, 1), this.now);
+		assertTrue(packet.length > 16);
+		assertEquals(1, this.controller.getPackets());
+		assertEquals(1, sender.getInFlight());
+		assertFalse(sender.isReady());
+		
+		this.link.holding = false;
+		sender.poll(this.now += STEP);
+		assertEquals(1, sender.getAcked());
+		assertTrue(sender.isReady());
+	}
+	
+	@Test
+	public void lastAckReleasesEveryPacketBefore() {
+		WindowedSender sender = this.sender(4, 1000);
+		this.run(sender, 1);
+		this.link.holding = true;
+		for(int i = 0; i < 4; i++) {
+			sender.send(this.scroller.next(), this.now);
+		}
+		
+		//the first three ACKs (and SEQs) are lost, only the fourth gets through
+		this.link.lose(6);
+		this.link.holding = false;
+		sender.poll(this.now += STEP);
+		assertEquals(0, sender.getInFlight());
+		assertEquals(5, sender.getAcked());
+		assertEquals(0, sender.getRetransmits());
+	}
+	
+	@Test
+	public void lateAckReleasesNothingAfter() {
+		WindowedSender sender = this.sender(4, 1000);
+		this.run(sender, 1);
+		this.link.holding = true;
+		LedFrame first = this.scroller.next();
+		sender.send(first, this.now);
+		
+		//not acknowledged in time, sent again - and acknowledged twice
+		sender.poll(this.now += TIMEOUT);
+		assertEquals(1, sender.getRetransmits());
+		this.link.pass(2);
+		sender.poll(this.now += STEP);
+		assertEquals(0, sender.getInFlight());
+		
+		//the second ACK arrives after the next packet is sent
+		LedFrame second = this.scroller.next();
+		sender.send(second, this.now);
+		this.link.pass(2);
+		sender.poll(this.now += STEP);
+		assertEquals(1, sender.getInFlight());
+		this.link.pass(2);
+		sender.poll(this.now += STEP);
+		assertEquals(0, sender.getInFlight());
+		assertEquals(3, sender.getAcked());
+		assertEquals(second, this.controller.getShown());
+	}
+	
+	@Test
+	public void resendsWindowAfterLostPacket() {
+		WindowedSender sender = this.sender(4, 1000);
+		this.run(sender, 1);
+		
+		//the second of four packets is lost, the two after it arrive out of order
+		this.controller.setDropEvery(2);
+		sender.send(this.scroller.next(), this.now);
+		sender.send(this.scroller.next(), this.now);
+		this.controller.setDropEvery(0);
+		sender.send(this.scroller.next(), this.now);
+		LedFrame last = this.scroller.next();
+		sender.send(last, this.now);
+		sender.poll(this.now += STEP);
+		assertEquals(2, this.controller.getOutOfOrder());
+		assertEquals(3, sender.getInFlight());
+		
+		//go back N: all three again, in order
+		sender.poll(this.now += TIMEOUT);
+		assertEquals(3, sender.getRetransmits());
+		sender.poll(this.now += STEP);
+		assertEquals(0, sender.getInFlight());
+		assertEquals(last, this.controller.getShown());
+		assertEquals(0, sender.getResyncs());
+	}
+	
+	@Test
+	public void resendsFullPacketBetweenCompressedOnes() {
+		WindowedSender sender = this.sender(4, 1000, true);
+		sender.send(text(0, 1), this.now);
+		sender.poll(this.now += STEP);
+		assertEquals(0, sender.getInFlight());
+		
+		//a TYPE_FULL and the TYPE_COLUMNS after it are applied, but both ACKs are lost
+		this.link.holding = true;
+		sender.send(FrameDecoderTest.random(HEIGHT, WIDTH, 3), this.now);
+		LedFrame last = text(3, 3);
+		sender.send(last, this.now);
+		this.link.lose(4);
+		
+		//sent again, the TYPE_COLUMNS must still match the dictionary the TYPE_FULL leaves
+		this.link.holding = false;
+		sender.poll(this.now += TIMEOUT);
+		assertEquals(2, sender.getRetransmits());
+		sender.poll(this.now += STEP);
+		assertEquals(0, sender.getInFlight());
+		assertEquals(0, this.controller.getErrors());
+		assertEquals(last, this.controller.getShown());
+		
+		last = text(1, 5);
+		sender.send(last, this.now);
+		sender.poll(this.now += STEP);
+		assertEquals(0, sender.getInFlight());
+		assertEquals(last, this.controller.getShown());
+		assertEquals(0, sender.getResyncs());
+	}
+	
+	@Test
+	public void recoversFromDroppedCompressedPackets() {
+		WindowedSender sender = this.sender(Settings.SERIAL_WINDOW, Settings.SERIAL_RX_BUFFER_BYTES, true);
+		this.controller.setDropEvery(5);
+		
+		//mostly text, now and then a frame only a TYPE_FULL can send
+		LedFrame last = null;
+		for(int sent = 0; sent < 300; this.now += STEP) {
+			sender.poll(this.now);
+			if(sender.isReady()) {
+				last = sent % 7 == 6 ? FrameDecoderTest.random(HEIGHT, WIDTH, sent) : text(sent, 1 + sent % 5);
+				sender.send(last, this.now);
+				sent++;
+			}
+		}
+		this.drain(sender);
+		assertEquals(last, this.controller.getShown());
+		assertEquals(0, this.controller.getErrors());
+		assertTrue(sender.getRetransmits() > 0);
+	}
+	
+	@Test
+	public void resyncsAfterMaxRetries() {
+		WindowedSender sender = this.sender(4, 1000);
+		this.run(sender, 1);
+		
+		//the controller stops answering (e.g. it is restarting)
+		this.controller.setResponding(false);
+		sender.send(this.scroller.next(), this.now);
+		LedFrame last = this.scroller.next();
+		sender.send(last, this.now);
+		for(int i = 0; i < WindowedSender.MAX_RETRIES; i++) {
+			sender.poll(this.now += TIMEOUT);
+		}
+		assertEquals(2 * WindowedSender.MAX_RETRIES, sender.getRetransmits());
+		assertEquals(0, sender.getResyncs());
+		
+		//one more timeout abandons the window for a TYPE_FULL of the newest frame
+		long packets = this.controller.getPackets();
+		sender.poll(this.now += TIMEOUT);
+		assertEquals(1, sender.getResyncs());
+		assertEquals(1, sender.getInFlight());
+		assertEquals(packets + 1, this.controller.getPackets());
+		
+		this.controller.setResponding(true);
+		sender.poll(this.now += TIMEOUT);
+		this.drain(sender);
+		assertEquals(last, this.controller.getShown());
+		assertEquals(1, sender.getResyncs());
+	}
+}
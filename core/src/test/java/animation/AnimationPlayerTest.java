@@ -0,0 +1,234 @@
+// AnimationPlayerTest.java
+// Author: Vivaan Mahtab
+
+package animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import settings.BoardGeometry;
+import settings.Settings;
+import word_processing.GlyphRegistry;
+import word_processing.LedFrame;
+import word_processing.WordEvent;
+
+/**
+ * <em>AnimationPlayerTest class</em>
+ * compiles a short <em>WordEvent</em> scroll, replays it with an
+ * <em>AnimationPlayer</em> and checks every frame is the one rendered,
+ * and that damaged animation files are rejected
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/animation/AnimationPlayer.java
+ * @see local/animation/AnimationWriter.java
+ * @see local/animation/AnimationCompiler.java
+ */
+public class AnimationPlayerTest {
+	
+	final static BoardGeometry GEOMETRY = new BoardGeometry(Settings.BULB_GRID_HEIGHT, 30, 2);
+	
+	//each column is shown for 2 frames, so half the frames repeat
+	final static double SPEED = 20;
+	final static double RATE = 40;
+	
+	final static String TEXT = "HI 42";
+	
+	private File file;
+	
+	@Before
+	public void compile() throws IOException {
+		
+		//the bundled font, another test may have loaded its own
+		GlyphRegistry.load();
+		this.file = File.createTempFile("scroll", AnimationFile.EXTENSION);
+		AnimationCompiler.compile(new WordEvent(TEXT, 0, GEOMETRY), SPEED, RATE, this.file);
+	}
+	
+	@After
+	public void delete() {
+		this.file.delete();
+	}
+	
+	// frame @param i of the scroll, rendered again
+	static LedFrame rendered(int i) {
+		WordEvent wordEvent = new WordEvent(TEXT, 0, GEOMETRY);
+		wordEvent.move(-GEOMETRY.getLength() + (int) (i * SPEED / RATE));
+		return wordEvent.get_offset_board();
+	}
+	
+	// frames in the scroll
+	static int frames() {
+		return (int) Math.ceil((new WordEvent(TEXT, 0, GEOMETRY).getSize() + GEOMETRY.getLength()) * RATE / SPEED);
+	}
+	
+	@Test
+	public void replaysRenderedFrames() throws IOException {
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			assertEquals(GEOMETRY.getHeight(), player.getHeight());
+			assertEquals(GEOMETRY.getVisibleLength(), player.getWidth());
+			assertEquals(RATE, player.getFrameRate(), 1e-3);
+			assertEquals(frames(), player.getFrameCount());
+			
+			//the same target each time, as the engine does
+			LedFrame target = new LedFrame(GEOMETRY.getHeight(), GEOMETRY.getVisibleLength());
+			for(int i = 0; i < player.getFrameCount(); i++) {
+				assertEquals("frame " + i, rendered(i), player.frame(i, target));
+			}
+			
+			//and backwards, found through the index
+			for(int i = player.getFrameCount() - 1; i >= 0; i--) {
+				assertEquals("frame " + i, rendered(i), player.frame(i, target));
+			}
+		}
+	}
+	
+	@Test
+	public void storesRepeatedFramesOnce() throws IOException {
+		int changes = 1;
+		for(int i = 1; i < frames(); i++) {
+			if(!rendered(i).equals(rendered(i - 1)))
+				changes++;
+		}
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			assertEquals(changes, player.getStoredCount());
+			assertTrue(player.getStoredCount() <= (player.getFrameCount() + 1) / 2);
+			assertEquals(AnimationFile.HEADER_LENGTH + changes * AnimationFile.frameLength(GEOMETRY.getHeight(), GEOMETRY.getVisibleLength())
+					+ 4L * player.getFrameCount(), this.file.length());
+		}
+	}
+	
+	@Test
+	public void repeatsAfterPause() throws IOException {
+		LedFrame on = LedFrame.fromRows(new String[] {"101", "010"});
+		LedFrame off = new LedFrame(2, 3);
+		try(AnimationWriter writer = new AnimationWriter(this.file, 2, 3, RATE)) {
+			writer.add(on);
+			writer.add(on);
+			writer.add(off);
+			writer.add(off);
+			writer.add(off);
+			writer.add(on);
+			assertEquals(6, writer.getFrameCount());
+			assertEquals(3, writer.getStoredCount());
+		}
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			assertEquals(3, player.getStoredCount());
+			LedFrame target = new LedFrame(2, 3);
+			assertEquals(on, player.frame(5, target));
+			assertEquals(off, player.frame(4, target));
+			assertEquals(on, player.frame(1, target));
+		}
+	}
+	
+	@Test
+	public void nextMovesOnFromSeek() throws IOException {
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			LedFrame target = new LedFrame(GEOMETRY.getHeight(), GEOMETRY.getVisibleLength());
+			int last = player.getFrameCount() - 1;
+			
+			player.seek(last - 1);
+			assertEquals(last - 1, player.getPosition());
+			assertEquals(rendered(last - 1), player.next(target));
+			assertEquals(rendered(last), player.next(target));
+			
+			//wraps to the start
+			assertEquals(0, player.getPosition());
+			assertEquals(rendered(0), player.next(target));
+			
+			try {
+				player.seek(player.getFrameCount());
+				fail("seeked past the end");
+			} catch(IndexOutOfBoundsException e) {
+				assertEquals(1, player.getPosition());
+			}
+		}
+	}
+	
+	@Test
+	public void frameAtFollowsClock() throws IOException {
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			long period = (long) (1e9 / RATE);
+			int count = player.getFrameCount();
+			
+			assertEquals(0, player.frameAt(0, false));
+			assertEquals(0, player.frameAt(-period, false));
+			assertEquals(0, player.frameAt(period - 1, false));
+			assertEquals(1, player.frameAt(period, false));
+			assertEquals(count - 1, player.frameAt(count * period - 1, false));
+			
+			//ended, unless looping
+			assertEquals(-1, player.frameAt(count * period, false));
+			assertEquals(0, player.frameAt(count * period, true));
+			assertEquals(3, player.frameAt((2L * count + 3) * period, true));
+			assertEquals(-1, player.frameAt((2L * count + 3) * period, false));
+		}
+	}
+	
+	// checks @param bytes are rejected as an animation file
+	void assertRejected(byte[] bytes, String reason) throws IOException {
+		Files.write(this.file.toPath(), bytes);
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			fail("accepted " + reason);
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith(this.file.getPath() + " is "));
+		}
+	}
+	
+	// @param bytes with big endian @param value at @param offset
+	static byte[] withInt(byte[] bytes, int offset, int value) {
+		byte[] changed = bytes.clone();
+		changed[offset] = (byte) (value >>> 24);
+		changed[offset + 1] = (byte) (value >>> 16);
+		changed[offset + 2] = (byte) (value >>> 8);
+		changed[offset + 3] = (byte) value;
+		return changed;
+	}
+	
+	@Test
+	public void rejectsDamagedHeader() throws IOException {
+		byte[] bytes = Files.readAllBytes(this.file.toPath());
+		int stored;
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			stored = player.getStoredCount();
+		}
+		
+		assertRejected(withInt(bytes, 0, AnimationFile.MAGIC + 1), "a bad MAGIC");
+		byte[] version = bytes.clone();
+		version[AnimationFile.VERSION_OFFSET]++;
+		assertRejected(version, "another VERSION");
+		assertRejected(new byte[AnimationFile.HEADER_LENGTH - 1], "less than a HEADER");
+		
+		byte[] height = bytes.clone();
+		height[AnimationFile.HEIGHT_OFFSET] = 0;
+		assertRejected(height, "no rows");
+		assertRejected(withInt(bytes, AnimationFile.RATE_OFFSET, 0), "no frame rate");
+		assertRejected(withInt(bytes, AnimationFile.COUNT_OFFSET, -1), "a negative frame count");
+		assertRejected(withInt(bytes, AnimationFile.STORED_OFFSET, stored + 1), "an INDEX not after the frames");
+	}
+	
+	@Test
+	public void rejectsDamagedIndex() throws IOException {
+		byte[] bytes = Files.readAllBytes(this.file.toPath());
+		int count, stored;
+		try(AnimationPlayer player = new AnimationPlayer(this.file)) {
+			count = player.getFrameCount();
+			stored = player.getStoredCount();
+		}
+		int index = bytes.length - 4 * count;
+		
+		//cut short, longer than the file, and showing frames that are not stored
+		assertRejected(Arrays.copyOf(bytes, bytes.length - 1), "a truncated INDEX");
+		assertRejected(withInt(bytes, AnimationFile.COUNT_OFFSET, count + 1), "more frames than the INDEX");
+		assertRejected(withInt(bytes, index + 4 * (count - 1), stored), "a frame past the stored ones");
+		assertRejected(withInt(bytes, index, -1), "a negative stored frame");
+	}
+}
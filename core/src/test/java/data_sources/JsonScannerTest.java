@@ -0,0 +1,72 @@
+// JsonScannerTest.java
+// Author: Vivaan Mahtab
+
+package data_sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * <em>JsonScannerTest class</em>
+ * checks <em>JsonScanner</em> finds main.temp wherever it is in the
+ * document and nothing else named temp
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/data_sources/JsonScanner.java
+ */
+public class JsonScannerTest {
+	
+	static double temp(String json) {
+		return JsonScanner.findNumber(json, "main", "temp");
+	}
+	
+	@Test
+	public void findsTempFirst() {
+		assertEquals(293.15, temp("{\"main\":{\"temp\":293.15,\"pressure\":1012}}"), 0);
+	}
+	
+	@Test
+	public void findsTempAfterOtherFields() {
+		assertEquals(293.15, temp("{\"coord\":{\"lon\":-122.08,\"lat\":37.39},\"weather\":[{\"id\":800,"
+				+ "\"main\":\"Clear\"}],\"main\":{\"feels_like\":290.2,\"pressure\":1012,\"temp\":293.15}}"), 0);
+	}
+	
+	@Test
+	public void findsTempBeforeNestedObjects() {
+		assertEquals(-1.5e2, temp("{\"main\":{\"range\":{\"low\":{\"temp\":1}},\"temp\":-1.5e2,"
+				+ "\"more\":{\"temp\":2}},\"wind\":{\"speed\":3}}"), 0);
+	}
+	
+	@Test
+	public void findsMainAfterItsFields() {
+		assertEquals(280, temp("{\"name\":\"x\",\"id\":5,\"main\":{\"humidity\":40,\"temp\":280}}"), 0);
+	}
+	
+	@Test
+	public void ignoresTempOutsideMain() {
+		
+		//temp at the top level, within another object, within an array, and main.temp nested too deep
+		assertTrue(Double.isNaN(temp("{\"temp\":300}")));
+		assertTrue(Double.isNaN(temp("{\"daily\":{\"temp\":300},\"main\":{\"humidity\":40}}")));
+		assertTrue(Double.isNaN(temp("{\"list\":[{\"main\":{\"temp\":300}}]}")));
+		assertTrue(Double.isNaN(temp("{\"x\":{\"main\":{\"temp\":300}}}")));
+		
+		//and skipped when main.temp comes after it
+		assertEquals(280, temp("{\"temp\":300,\"daily\":{\"temp\":301},\"main\":{\"temp\":280}}"), 0);
+	}
+	
+	@Test
+	public void ignoresStringsLookingLikeKeys() {
+		assertEquals(280, temp("{\"note\":\"\\\"main\\\":{\\\"temp\\\":1}\",\"main\":{\"temp\":280}}"), 0);
+		assertTrue(Double.isNaN(temp("{\"main\":{\"temp\":\"warm\"}}")));
+	}
+	
+	@Test
+	public void rejectsInvalidJson() {
+		assertTrue(Double.isNaN(temp("{\"main\":{\"temp")));
+		assertTrue(Double.isNaN(temp("}}{\"main\":{\"temp\":280}}")));
+	}
+}
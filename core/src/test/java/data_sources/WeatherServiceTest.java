@@ -0,0 +1,275 @@
+// WeatherServiceTest.java
+// Author: Vivaan Mahtab
+
+package data_sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <em>WeatherServiceTest class</em>
+ * runs <em>WeatherService</em> against a local stub of the OpenWeatherMap
+ * endpoint: fresh and stale temperatures, failed responses and timeouts,
+ * none of which may block get() or lose the last temperature fetched
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/data_sources/WeatherService.java
+ */
+public class WeatherServiceTest {
+	
+	//TTL of the services tested, also their retry interval from the start of
+	//a fetch, so longer than a fetch that times out
+	final static long TTL_MS = 800;
+	
+	//timeouts of the services tested
+	final static int TIMEOUT_MS = 300;
+	
+	//response body for @param kelvin, with fields around main.temp
+	static String body(double kelvin) {
+		return "{\"coord\":{\"lon\":-122.08,\"lat\":37.39},\"main\":{\"feels_like\":280.1,\"temp\":" + kelvin
+				+ ",\"humidity\":40},\"name\":\"Mountain View\"}";
+	}
+	
+	// stub endpoint answering with the next status and body queued, counting requests
+	static class Stub implements HttpHandler {
+		final BlockingQueue<Object[]> responses = new LinkedBlockingQueue<Object[]>();
+		final AtomicInteger requests = new AtomicInteger();
+		
+		//released before a response is written, if not null
+		volatile CountDownLatch gate;
+		
+		void respond(int status, String body) {
+			this.responses.add(new Object[] {status, body});
+		}
+		
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			this.requests.incrementAndGet();
+			try {
+				CountDownLatch gate = this.gate;
+				if(gate != null)
+					gate.await(5, TimeUnit.SECONDS);
+				Object[] response = this.responses.poll(5, TimeUnit.SECONDS);
+				byte[] body = ((String) response[1]).getBytes(StandardCharsets.UTF_8);
+				exchange.sendResponseHeaders((Integer) response[0], body.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(body);
+				out.close();
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+	
+	// collects temperatures passed to the listener
+	static class Updates implements WeatherService.Listener {
+		final BlockingQueue<String> temperatures = new LinkedBlockingQueue<String>();
+		
+		@Override
+		public void weatherUpdated(String temperature) {
+			this.temperatures.add(temperature);
+		}
+		
+		String next() throws InterruptedException {
+			String temperature = this.temperatures.poll(5, TimeUnit.SECONDS);
+			if(temperature == null)
+				fail("no weather update");
+			return temperature;
+		}
+	}
+	
+	HttpServer server;
+	Stub stub;
+	WeatherService service;
+	Updates updates;
+	
+	@Before
+	public void start() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.stub = new Stub();
+		this.server.createContext("/weather", this.stub);
+		this.server.start();
+		this.service = this.service("http://127.0.0.1:" + this.server.getAddress().getPort() + "/weather");
+		this.updates = new Updates();
+	}
+	
+	@After
+	public void stop() {
+		this.service.shutdown();
+		if(this.stub.gate != null)
+			this.stub.gate.countDown();
+		this.server.stop(0);
+	}
+	
+	WeatherService service(String url) {
+		return new WeatherService(url, "94043", "KEY", TTL_MS, TIMEOUT_MS, TIMEOUT_MS);
+	}
+	
+	@Test
+	public void fetchesFreshTemperature() throws Exception {
+		this.stub.respond(200, body(300));
+		
+		//nothing fetched yet - placeholder straight away, then the temperature
+		assertEquals(WeatherService.PLACEHOLDER, this.service.get(this.updates));
+		assertEquals("80°F", this.updates.next());
+		assertEquals("80°F", this.service.get(this.updates));
+		
+		//fresh, so no second request
+		Thread.sleep(50);
+		assertEquals(1, this.stub.requests.get());
+	}
+	
+	@Test
+	public void returnsStaleTemperatureWhileRefreshing() throws Exception {
+		this.stub.respond(200, body(300));
+		this.service.get(this.updates);
+		assertEquals("80°F", this.updates.next());
+		
+		//stale - the old temperature comes back at once while the refresh is held
+		this.stub.gate = new CountDownLatch(1);
+		this.stub.respond(200, body(310));
+		Thread.sleep(TTL_MS + 50);
+		long start = System.nanoTime();
+		assertEquals("80°F", this.service.get(this.updates));
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+		
+		//still fetching - no second refresh started
+		assertEquals("80°F", this.service.get(this.updates));
+		
+		this.stub.gate.countDown();
+		assertEquals("98°F", this.updates.next());
+		assertEquals("98°F", this.service.get(this.updates));
+		assertEquals(2, this.stub.requests.get());
+	}
+	
+	@Test
+	public void keepsTemperatureAfterErrorResponse() throws Exception {
+		this.stub.respond(200, body(300));
+		this.service.get(this.updates);
+		assertEquals("80°F", this.updates.next());
+		
+		long errors = WeatherService.ERRORS.get();
+		this.stub.respond(503, "{\"message\":\"unavailable\"}");
+		Thread.sleep(TTL_MS + 50);
+		assertEquals("80°F", this.service.get(this.updates));
+		assertEquals("80°F", this.updates.next());
+		assertEquals(errors + 1, WeatherService.ERRORS.get());
+		assertEquals("80°F", this.service.get(this.updates));
+	}
+	
+	@Test
+	public void reportsErrorWithoutTemperature() throws Exception {
+		this.stub.respond(404, "{\"cod\":\"404\"}");
+		assertEquals(WeatherService.PLACEHOLDER, this.service.get(this.updates));
+		assertEquals(WeatherService.ERROR, this.updates.next());
+		
+		//a response without main.temp fails the same way
+		this.stub.respond(200, "{\"temp\":300}");
+		try {
+			this.service.fetch();
+			fail("no main.temp");
+		} catch(IOException e) {
+			//expected
+		}
+	}
+	
+	@Test
+	public void readTimeoutKeepsTemperatureAndWaitsToRetry() throws Exception {
+		this.stub.respond(200, body(300));
+		this.service.get(this.updates);
+		assertEquals("80°F", this.updates.next());
+		
+		//the stub holds its response past the read timeout
+		//(handled one at a time, so this response is not taken by a later request)
+		this.stub.gate = new CountDownLatch(1);
+		this.stub.respond(200, body(999));
+		Thread.sleep(TTL_MS + 50);
+		long start = System.nanoTime();
+		assertEquals("80°F", this.service.get(this.updates));
+		assertEquals("80°F", this.updates.next());
+		long elapsed = System.nanoTime() - start;
+		assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS - 50));
+		this.stub.gate.countDown();
+		this.stub.gate = null;
+		
+		//the retry interval has not passed since the attempt - no new request
+		int requests = this.stub.requests.get();
+		assertEquals("80°F", this.service.get(this.updates));
+		Thread.sleep(50);
+		assertEquals(requests, this.stub.requests.get());
+		assertNull(this.updates.temperatures.poll());
+		
+		//once it has, the next get() tries again
+		this.stub.respond(200, body(310));
+		Thread.sleep(TTL_MS + 50);
+		assertEquals("80°F", this.service.get(this.updates));
+		assertEquals("98°F", this.updates.next());
+	}
+	
+	@Test
+	public void connectTimeoutKeepsTemperature() throws Exception {
+		this.stub.respond(200, body(300));
+		this.service.get(this.updates);
+		assertEquals("80°F", this.updates.next());
+		
+		//a listening socket that never accepts, its backlog filled so
+		//further connections are left waiting
+		ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+		List<Socket> filler = new ArrayList<Socket>();
+		try {
+			boolean full = false;
+			for(int i = 0; i < 64 && !full; i++) {
+				Socket socket = new Socket();
+				filler.add(socket);
+				try {
+					socket.connect(silent.getLocalSocketAddress(), 100);
+				} catch(SocketTimeoutException e) {
+					full = true;
+				}
+			}
+			Assume.assumeTrue("connections are never left waiting here", full);
+			
+			WeatherService unreachable = this.service("http://127.0.0.1:" + silent.getLocalPort() + "/weather");
+			try {
+				unreachable.fetch();
+				fail("connected");
+			} catch(SocketTimeoutException e) {
+				//expected
+			}
+			unreachable.shutdown();
+		} finally {
+			for(Socket socket : filler) {
+				socket.close();
+			}
+			silent.close();
+		}
+	}
+}
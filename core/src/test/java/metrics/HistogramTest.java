@@ -0,0 +1,112 @@
+// HistogramTest.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * <em>HistogramTest class</em>
+ * checks the buckets of <em>Histogram</em> are exact below 16 and cover
+ * every long above it, and that percentiles read from them are within
+ * 1/16 of the true value
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/metrics/Histogram.java
+ */
+public class HistogramTest {
+	
+	// checks @param estimate is within 1/16 of @param actual
+	static void assertClose(String message, long actual, long estimate) {
+		assertTrue(message + ": " + estimate + " for " + actual, Math.abs(estimate - actual) <= actual / 16);
+	}
+	
+	@Test
+	public void exactBelowLinear() {
+		for(int value = 0; value < Histogram.LINEAR; value++) {
+			assertEquals(value, Histogram.bucketOf(value));
+			assertEquals(value, Histogram.middleOf(value));
+		}
+		assertEquals(0, Histogram.bucketOf(-1));
+		assertEquals(0, Histogram.bucketOf(Long.MIN_VALUE));
+	}
+	
+	@Test
+	public void splitsEachPowerOfTwo() {
+		
+		//16 and 17 share the first bucket past the exact ones, 2 wide
+		assertEquals(15, Histogram.bucketOf(15));
+		assertEquals(16, Histogram.bucketOf(16));
+		assertEquals(16, Histogram.bucketOf(17));
+		assertEquals(17, Histogram.middleOf(16));
+		assertEquals(17, Histogram.bucketOf(18));
+		assertEquals(23, Histogram.bucketOf(31));
+		
+		//every power of two starts a new run of SUB_BUCKETS
+		for(int exponent = Histogram.LINEAR_BITS; exponent < Long.SIZE - 1; exponent++) {
+			int first = Histogram.LINEAR + (exponent - Histogram.LINEAR_BITS) * Histogram.SUB_BUCKETS;
+			assertEquals(first - 1, Histogram.bucketOf((1L << exponent) - 1));
+			assertEquals(first, Histogram.bucketOf(1L << exponent));
+			assertEquals(first + Histogram.SUB_BUCKETS - 1, Histogram.bucketOf((1L << exponent) * 2 - 1));
+		}
+	}
+	
+	@Test
+	public void largestValueHasLastBucket() {
+		assertEquals(Histogram.BUCKETS - 1, Histogram.bucketOf(Long.MAX_VALUE));
+		assertClose("middle of the last bucket", Long.MAX_VALUE, Histogram.middleOf(Histogram.BUCKETS - 1));
+		
+		Histogram histogram = new Histogram("test");
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(1, histogram.counts(new long[Histogram.BUCKETS])[Histogram.BUCKETS - 1]);
+		assertEquals(Long.MAX_VALUE, histogram.getMax());
+	}
+	
+	@Test
+	public void middleIsCloseToEveryValueInBucket() {
+		Random random = new Random(16);
+		int last = 0;
+		for(long value = 0; value < 1 << 16; value++) {
+			int bucket = Histogram.bucketOf(value);
+			assertTrue(bucket == last || bucket == last + 1);
+			assertClose("value " + value, value, Histogram.middleOf(bucket));
+			last = bucket;
+		}
+		for(int i = 0; i < 100000; i++) {
+			long value = (random.nextLong() >>> 1) >>> random.nextInt(Long.SIZE - 1);
+			assertClose("value " + value, value, Histogram.middleOf(Histogram.bucketOf(value)));
+		}
+	}
+	
+	@Test
+	public void percentilesWithinSixteenth() {
+		Histogram histogram = new Histogram("test");
+		assertEquals(0, histogram.percentile(0.5));
+		
+		//log-normal, like the durations recorded
+		Random random = new Random(42);
+		long[] values = new long[20000];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.exp(12 + 2 * random.nextGaussian());
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+		assertEquals(values.length, histogram.getCount());
+		assertEquals(values[values.length - 1], histogram.getMax());
+		
+		for(double quantile : new double[] {0.001, 0.1, 0.5, 0.9, 0.99, 0.999}) {
+			long actual = values[(int) Math.ceil(quantile * values.length) - 1];
+			assertClose("p" + quantile, actual, histogram.percentile(quantile));
+		}
+		
+		//never more than the largest value recorded
+		assertTrue(histogram.percentile(1) <= histogram.getMax());
+		assertClose("p1", histogram.getMax(), histogram.percentile(1));
+	}
+}
@@ -0,0 +1,54 @@
+// MetricsBeanTest.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import javax.management.AttributeNotFoundException;
+import javax.management.ReflectionException;
+import org.junit.Test;
+
+/**
+ * <em>MetricsBeanTest class</em>
+ * reads metrics through <em>MetricsBean</em> and checks it fails the way
+ * the DynamicMBean contract asks for anything it does not have
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/metrics/MetricsBean.java
+ */
+public class MetricsBeanTest {
+	
+	@Test
+	public void readsHistogramAttributes() throws AttributeNotFoundException {
+		Histogram histogram = Metrics.histogram("test.bean");
+		histogram.record(3000000);
+		MetricsBean bean = new MetricsBean();
+		assertEquals(histogram.getCount(), bean.getAttribute("test.bean.count"));
+		assertEquals(3.0, (Double) bean.getAttribute("test.bean.max_ms"), 1e-9);
+	}
+	
+	@Test
+	public void unknownAttributeIsNotFound() {
+		try {
+			new MetricsBean().getAttribute("test.missing.p50_ms");
+			fail("read a missing attribute");
+		} catch(AttributeNotFoundException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("test.missing.p50_ms"));
+		}
+	}
+	
+	@Test
+	public void invokeIsReflectionException() throws Exception {
+		try {
+			new MetricsBean().invoke("reset", new Object[0], new String[0]);
+			fail("invoked an operation");
+		} catch(ReflectionException e) {
+			assertTrue(e.getTargetException() instanceof NoSuchMethodException);
+			assertEquals("reset", e.getTargetException().getMessage());
+		}
+	}
+}
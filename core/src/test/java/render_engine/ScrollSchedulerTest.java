@@ -0,0 +1,143 @@
+// ScrollSchedulerTest.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * <em>ScrollSchedulerTest class</em>
+ * drives <em>ScrollScheduler</em> through a <em>SimulatedClock</em>, so
+ * minutes of scrolling take no time and every tick lands on an exact
+ * nanosecond
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/ScrollScheduler.java
+ */
+public class ScrollSchedulerTest {
+	
+	//nanoseconds per second
+	final static long SECOND = 1000000000L;
+	
+	/**
+	 * ticks @param scheduler every @param period and once more at exactly
+	 * @param end, as @param clock reaches each
+	 * 
+	 * @return the sum of advance() over every tick
+	 */
+	static long run(ScrollScheduler scheduler, SimulatedClock clock, long period, long end) throws InterruptedException {
+		long moved = 0;
+		for(long next = clock.nanoTime() + period; next < end; next += period) {
+			clock.sleepUntil(next);
+			moved += scheduler.advance();
+		}
+		clock.sleepUntil(end);
+		return moved + scheduler.advance();
+	}
+	
+	@Test
+	public void movesFractionalSpeedExactly() throws InterruptedException {
+		
+		//60 / 7 columns per second is 60 columns every 7 seconds, whatever the tick rate
+		for(long period : new long[] {SECOND / 60, SECOND / 24, SECOND / 7, 333333333L}) {
+			SimulatedClock clock = new SimulatedClock();
+			ScrollScheduler scheduler = new ScrollScheduler(clock);
+			scheduler.setSpeed(60.0 / 7);
+			for(int n = 1; n <= 10; n++) {
+				long moved = run(scheduler, clock, period, n * 7 * SECOND);
+				assertEquals("period " + period + " after " + n * 7 + " s", 60, moved);
+			}
+		}
+	}
+	
+	@Test
+	public void movesWholePartOfElapsedColumns() throws InterruptedException {
+		SimulatedClock clock = new SimulatedClock();
+		ScrollScheduler scheduler = new ScrollScheduler(clock);
+		scheduler.setSpeed(2.5);
+		long moved = 0;
+		for(int ms = 1; ms <= 10000; ms++) {
+			clock.sleepUntil(ms * 1000000L);
+			moved += scheduler.advance();
+			assertEquals((long) Math.floor(2.5 * ms / 1000.0 + 1e-9), moved);
+		}
+	}
+	
+	@Test
+	public void scrollsBackwardsAtNegativeSpeed() throws InterruptedException {
+		SimulatedClock clock = new SimulatedClock();
+		ScrollScheduler scheduler = new ScrollScheduler(clock);
+		scheduler.setSpeed(-60.0 / 7);
+		assertEquals(-120, run(scheduler, clock, SECOND / 60, 14 * SECOND));
+	}
+	
+	@Test
+	public void catchesUpAfterStallInOneTick() throws InterruptedException {
+		SimulatedClock clock = new SimulatedClock();
+		ScrollScheduler scheduler = new ScrollScheduler(clock);
+		scheduler.setSpeed(10);
+		assertEquals(10, run(scheduler, clock, SECOND / 60, SECOND));
+		
+		//a 3 second stall - the next tick moves exactly the 30 columns missed
+		clock.advance(3 * SECOND);
+		assertEquals(30, scheduler.advance());
+		
+		//and nothing more: ticks go back to 10 columns per second straight away
+		assertEquals(0, scheduler.advance());
+		long moved = 40;
+		for(int i = 0; i < 5; i++) {
+			clock.advance(SECOND / 50);
+			int columns = scheduler.advance();
+			assertTrue(columns == 0 || columns == 1);
+			moved += columns;
+		}
+		assertEquals(41, moved);
+	}
+	
+	@Test
+	public void catchUpIsSameWhereverStallFalls() throws InterruptedException {
+		
+		//the same 12.5 seconds, with and without a stall, end on the same column
+		long expected = -1;
+		for(long stallAt = 0; stallAt <= 12 * SECOND; stallAt += 1500000000L) {
+			SimulatedClock clock = new SimulatedClock();
+			ScrollScheduler scheduler = new ScrollScheduler(clock);
+			scheduler.setSpeed(60.0 / 7);
+			long moved = run(scheduler, clock, SECOND / 60, stallAt);
+			clock.advance(SECOND / 2);
+			moved += scheduler.advance();
+			moved += run(scheduler, clock, SECOND / 60, 12 * SECOND + SECOND / 2);
+			if(expected < 0)
+				expected = moved;
+			assertEquals("stall at " + stallAt, expected, moved);
+		}
+		assertEquals((long) (60.0 / 7 * 12.5), expected);
+	}
+	
+	@Test
+	public void keepsColumnsOwedAcrossSpeedChange() throws InterruptedException {
+		SimulatedClock clock = new SimulatedClock();
+		ScrollScheduler scheduler = new ScrollScheduler(clock);
+		scheduler.setSpeed(4);
+		
+		//stalled for 2 seconds, then the speed changes before the next tick
+		clock.advance(2 * SECOND);
+		scheduler.setSpeed(1);
+		clock.advance(SECOND);
+		assertEquals(8 + 1, scheduler.advance());
+	}
+	
+	@Test
+	public void givesFractionBetweenColumns() throws InterruptedException {
+		SimulatedClock clock = new SimulatedClock();
+		ScrollScheduler scheduler = new ScrollScheduler(clock);
+		scheduler.setSpeed(4);
+		clock.advance(SECOND * 5 / 8);
+		assertEquals(2, scheduler.advance());
+		assertEquals(0.5, scheduler.getFraction(), 1e-9);
+	}
+}
@@ -0,0 +1,126 @@
+// GlyphRegistryTest.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import metrics.Metrics;
+import org.junit.Test;
+import settings.Settings;
+
+/**
+ * <em>GlyphRegistryTest class</em>
+ * looks up more codepoints than GLYPH_CACHE_SIZE in a generated font and
+ * checks the least recently used glyphs are the ones decoded again, and
+ * the hits and misses behind glyph.hit_rate
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/word_processing/GlyphRegistry.java
+ */
+public class GlyphRegistryTest {
+	
+	final static int HEIGHT = Settings.BULB_GRID_HEIGHT;
+	
+	//more characters than the cache holds
+	final static int GLYPHS = Settings.GLYPH_CACHE_SIZE + 100;
+	
+	//first codepoint of the font, past the bundled one's
+	final static int FIRST = 0x4E00;
+	
+	// a font of GLYPHS one column glyphs, each column the glyph's number
+	static byte[] font() throws IOException {
+		Map<Integer, LedFrame> glyphs = new TreeMap<Integer, LedFrame>();
+		for(int i = 0; i < GLYPHS; i++) {
+			LedFrame glyph = new LedFrame(HEIGHT, 1);
+			glyph.setColumn(0, i + 1);
+			glyphs.put(FIRST + i, glyph);
+		}
+		return FontCompiler.pack(glyphs, HEIGHT);
+	}
+	
+	// checks @param codepoint resolves to its own glyph
+	static void assertGlyph(int codepoint) {
+		assertEquals(codepoint - FIRST + 1, GlyphRegistry.get(codepoint).getColumn(0));
+	}
+	
+	// checks the counts and the glyph.hit_rate gauge
+	static void assertCounts(long hits, long misses) {
+		assertEquals(hits, GlyphRegistry.getCacheHits());
+		assertEquals(misses, GlyphRegistry.getCacheMisses());
+		String rate = String.format(Locale.ROOT, "glyph.hit_rate %.3f", (double) hits / (hits + misses));
+		assertTrue(Metrics.summary(), Metrics.summary().contains(rate));
+	}
+	
+	@Test
+	public void evictsLeastRecentlyUsed() throws IOException {
+		GlyphRegistry.load(PackedFont.read(new ByteArrayInputStream(font()), "test"));
+		assertEquals(GLYPHS, GlyphRegistry.getGlyphCount());
+		
+		//fill the cache exactly
+		for(int i = 0; i < Settings.GLYPH_CACHE_SIZE; i++) {
+			assertGlyph(FIRST + i);
+		}
+		assertEquals(Settings.GLYPH_CACHE_SIZE, GlyphRegistry.getCacheSize());
+		assertCounts(0, Settings.GLYPH_CACHE_SIZE);
+		
+		//the first is used again, so the second is now the least recently used
+		LedFrame first = GlyphRegistry.get(FIRST);
+		assertCounts(1, Settings.GLYPH_CACHE_SIZE);
+		
+		//one more glyph evicts the second, not the first
+		assertGlyph(FIRST + Settings.GLYPH_CACHE_SIZE);
+		assertEquals(Settings.GLYPH_CACHE_SIZE, GlyphRegistry.getCacheSize());
+		assertSame(first, GlyphRegistry.get(FIRST));
+		assertCounts(2, Settings.GLYPH_CACHE_SIZE + 1);
+		assertGlyph(FIRST + 1);
+		assertCounts(2, Settings.GLYPH_CACHE_SIZE + 2);
+		
+		//which evicted FIRST + 2, the next least recently used, leaving FIRST + 3
+		assertGlyph(FIRST + 3);
+		assertCounts(3, Settings.GLYPH_CACHE_SIZE + 2);
+		assertGlyph(FIRST + 2);
+		assertCounts(3, Settings.GLYPH_CACHE_SIZE + 3);
+	}
+	
+	@Test
+	public void cyclingPastCacheAlwaysMisses() throws IOException {
+		GlyphRegistry.load(PackedFont.read(new ByteArrayInputStream(font()), "test"));
+		
+		//in order, every glyph is evicted before it comes round again
+		for(int round = 0; round < 3; round++) {
+			for(int i = 0; i < GLYPHS; i++) {
+				assertGlyph(FIRST + i);
+			}
+		}
+		assertCounts(0, 3 * GLYPHS);
+		assertEquals(Settings.GLYPH_CACHE_SIZE, GlyphRegistry.getCacheSize());
+	}
+	
+	@Test
+	public void mapsFontFile() throws IOException {
+		File file = File.createTempFile("glyphs", PackedFont.EXTENSION);
+		file.deleteOnExit();
+		try(FileOutputStream out = new FileOutputStream(file)) {
+			out.write(font());
+		}
+		GlyphRegistry.load(file);
+		assertEquals(GLYPHS, GlyphRegistry.getGlyphCount());
+		for(int i = GLYPHS - 1; i >= 0; i -= 7) {
+			assertGlyph(FIRST + i);
+		}
+		
+		//a character with no design of its own
+		assertSame(GlyphRegistry.get(0x10FFFF), GlyphRegistry.get(0x10FFFE));
+	}
+}
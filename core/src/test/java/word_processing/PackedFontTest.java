@@ -0,0 +1,208 @@
+// PackedFontTest.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Test;
+import settings.Settings;
+
+/**
+ * <em>PackedFontTest class</em>
+ * compiles local/Alphanumeric_Characters with <em>FontCompiler</em> and
+ * checks every glyph of the <em>PackedFont</em> decodes to the columns of
+ * its design file, and that damaged font files are rejected
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/word_processing/PackedFont.java
+ * @see local/word_processing/FontCompiler.java
+ */
+public class PackedFontTest {
+	
+	//the designs and the font compiled from them, from core/ where the tests run
+	final static File DESIGNS = new File("../Alphanumeric_Characters");
+	final static File BUNDLED = new File("../word_processing/" + GlyphRegistry.FONT_RESOURCE);
+	
+	// the designs compiled
+	static byte[] compile() throws IOException {
+		return FontCompiler.pack(FontCompiler.readDesigns(DESIGNS, Settings.BULB_GRID_HEIGHT), Settings.BULB_GRID_HEIGHT);
+	}
+	
+	// checks @param bytes are rejected as a font file
+	static void assertRejected(byte[] bytes) {
+		try {
+			PackedFont.read(new ByteArrayInputStream(bytes), "damaged");
+			fail("accepted a damaged font");
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("damaged"));
+		}
+	}
+	
+	@Test
+	public void decodesEveryDesign() throws IOException {
+		PackedFont font = PackedFont.read(new ByteArrayInputStream(compile()), "compiled");
+		File[] files = DESIGNS.listFiles();
+		assertEquals(files.length, font.getGlyphCount());
+		assertEquals(Settings.BULB_GRID_HEIGHT, font.getHeight());
+		
+		for(File file : files) {
+			int index = font.indexOf(FontCompiler.codepointOf(file.getName()));
+			assertTrue(file.getName(), index >= 0);
+			LedFrame glyph = font.glyph(index);
+			
+			//compared with the text of the file, row by row
+			try(BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+				for(int row = 0; row < Settings.BULB_GRID_HEIGHT; row++) {
+					String line = reader.readLine();
+					assertEquals(file.getName() + " width", line.length(), glyph.getWidth());
+					for(int col = 0; col < line.length(); col++) {
+						assertEquals(file.getName() + " (" + row + ", " + col + ")", line.charAt(col) == '1', glyph.get(row, col));
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void bundledFontIsUpToDate() throws IOException {
+		assertArrayEquals("rerun FontCompiler", compile(), Files.readAllBytes(BUNDLED.toPath()));
+	}
+	
+	@Test
+	public void findsOnlyCodepointsInFont() throws IOException {
+		PackedFont font = PackedFont.read(new ByteArrayInputStream(compile()), "compiled");
+		for(int i = 0; i < font.getGlyphCount(); i++) {
+			assertEquals(i, font.indexOf(font.getCodepoint(i)));
+			if(i > 0)
+				assertTrue(font.getCodepoint(i - 1) < font.getCodepoint(i));
+		}
+		assertEquals(-1, font.indexOf('a'));
+		assertEquals(-1, font.indexOf(0));
+		assertEquals(-1, font.indexOf(Integer.MAX_VALUE));
+	}
+	
+	@Test
+	public void mapsSameAsRead() throws IOException {
+		File file = File.createTempFile("font", PackedFont.EXTENSION);
+		file.deleteOnExit();
+		byte[] bytes = compile();
+		try(FileOutputStream out = new FileOutputStream(file)) {
+			out.write(bytes);
+		}
+		PackedFont mapped = PackedFont.map(file);
+		PackedFont read = PackedFont.read(new ByteArrayInputStream(bytes), "compiled");
+		for(int i = 0; i < read.getGlyphCount(); i++) {
+			assertEquals(read.glyph(i), mapped.glyph(i));
+		}
+	}
+	
+	@Test
+	public void rejectsBadMagic() throws IOException {
+		byte[] bytes = compile();
+		bytes[0] ^= 1;
+		try {
+			PackedFont.read(new ByteArrayInputStream(bytes), "magic");
+			fail("accepted a bad MAGIC");
+		} catch(IOException e) {
+			assertEquals("magic is not a font file", e.getMessage());
+		}
+		assertRejectedAs(new byte[PackedFont.HEADER_LENGTH - 1], "is not a font file");
+	}
+	
+	@Test
+	public void rejectsOtherVersion() throws IOException {
+		byte[] bytes = compile();
+		bytes[PackedFont.VERSION_OFFSET] = PackedFont.VERSION + 1;
+		assertRejectedAs(bytes, "is font version " + (PackedFont.VERSION + 1));
+	}
+	
+	@Test
+	public void rejectsTruncatedFile() throws IOException {
+		byte[] bytes = compile();
+		
+		//cut inside the INDEX, and inside the last glyph's columns
+		int index = PackedFont.HEADER_LENGTH + 3 * PackedFont.ENTRY_LENGTH + 4;
+		assertRejected(Arrays.copyOf(bytes, index));
+		assertRejected(Arrays.copyOf(bytes, bytes.length - 1));
+	}
+	
+	@Test
+	public void rejectsDamagedIndex() throws IOException {
+		byte[] bytes = compile();
+		
+		//a DATA offset that does not follow the INDEX
+		byte[] offset = bytes.clone();
+		offset[PackedFont.DATA_OFFSET + 3]++;
+		assertRejected(offset);
+		
+		//glyphs out of codepoint order
+		byte[] order = bytes.clone();
+		System.arraycopy(bytes, PackedFont.HEADER_LENGTH, order, PackedFont.HEADER_LENGTH + PackedFont.ENTRY_LENGTH, 4);
+		System.arraycopy(bytes, PackedFont.HEADER_LENGTH + PackedFont.ENTRY_LENGTH, order, PackedFont.HEADER_LENGTH, 4);
+		assertRejected(order);
+		
+		//a glyph wider than the file
+		byte[] width = bytes.clone();
+		width[PackedFont.HEADER_LENGTH + 8] = (byte) 0xFF;
+		assertRejected(width);
+		
+		//no rows
+		byte[] height = bytes.clone();
+		height[PackedFont.HEIGHT_OFFSET] = 0;
+		assertRejected(height);
+	}
+	
+	// checks @param bytes are rejected with a message ending in @param reason
+	static void assertRejectedAs(byte[] bytes, String reason) {
+		try {
+			PackedFont.read(new ByteArrayInputStream(bytes), "font");
+			fail("accepted " + reason);
+		} catch(IOException e) {
+			assertEquals("font " + reason, e.getMessage());
+		}
+	}
+	
+	@Test
+	public void rejectsInvalidDesigns() throws IOException {
+		File directory = Files.createTempDirectory("designs").toFile();
+		String[] ragged = new String[Settings.BULB_GRID_HEIGHT];
+		Arrays.fill(ragged, "101");
+		ragged[4] = "10";
+		write(new File(directory, "A"), ragged);
+		write(new File(directory, "B"), new String[] {"1", "0"});
+		write(new File(directory, "AB"), ragged);
+		try {
+			FontCompiler.readDesigns(directory, Settings.BULB_GRID_HEIGHT);
+			fail("accepted invalid designs");
+		} catch(IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("A: row 5 is 2 long, must be 3"));
+			assertTrue(e.getMessage(), e.getMessage().contains("B: 2 rows, must have " + Settings.BULB_GRID_HEIGHT));
+			assertTrue(e.getMessage(), e.getMessage().contains("AB: not named after one character"));
+		} finally {
+			for(File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+	
+	// writes @param rows to @param file, one per line
+	static void write(File file, String[] rows) throws IOException {
+		Files.write(file.toPath(), Arrays.asList(rows), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,97 @@
+// SmoothRendererTest.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * <em>SmoothRendererTest class</em>
+ * renders messages at fractional positions into <em>GrayFrame</em>s and
+ * checks the light of each column is spread over the two LEDs it falls
+ * across without changing in total
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/word_processing/SmoothRenderer.java
+ */
+public class SmoothRendererTest {
+	
+	final static int HEIGHT = 10;
+	final static int WIDTH = 30;
+	
+	// a message of @param width columns lit only at @param lit
+	static LedFrame message(int width, int... lit) {
+		LedFrame message = new LedFrame(HEIGHT, width);
+		for(int col : lit) {
+			message.setColumn(col, (1L << HEIGHT) - 1);
+		}
+		return message;
+	}
+	
+	@Test
+	public void litColumnAddsUpToFullBrightness() {
+		LedFrame message = message(60, 20);
+		for(int bits = 1; bits <= GrayFrame.MAX_BITS; bits++) {
+			GrayFrame frame = new GrayFrame(HEIGHT, WIDTH, bits);
+			int steps = 4 * frame.getMaxLevel();
+			for(int step = 0; step <= 3 * steps; step++) {
+				double position = 5 + (double) step / steps;
+				SmoothRenderer.render(message, position, frame);
+				for(int row = 0; row < HEIGHT; row++) {
+					int sum = 0;
+					for(int col = 0; col < WIDTH; col++) {
+						sum += frame.get(row, col);
+					}
+					assertEquals(bits + " bits at " + position, frame.getMaxLevel(), sum);
+				}
+				
+				//all of it on the column at or left of 20 - position, and the one after
+				int first = 20 - (int) Math.ceil(position - 1e-9);
+				for(int col = 0; col < WIDTH; col++) {
+					if(col != first && col != first + 1)
+						assertEquals(0, frame.get(0, col));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void wholeColumnIsFullBrightness() {
+		LedFrame message = message(60, 20);
+		GrayFrame frame = SmoothRenderer.render(message, 5, new GrayFrame(HEIGHT, WIDTH, 4));
+		assertEquals(15, frame.get(0, 15));
+		assertEquals(0, frame.get(0, 14));
+		assertEquals(0, frame.get(0, 16));
+		assertEquals(GrayFrame.of(message(WIDTH, 15), 4), frame);
+	}
+	
+	@Test
+	public void fractionRoundingUpMovesToNextColumn() {
+		LedFrame message = message(60, 20, 21, 35);
+		for(int bits = 1; bits <= GrayFrame.MAX_BITS; bits++) {
+			int max = (1 << bits) - 1;
+			
+			//closer to the next column than to the last level before it
+			double fraction = 1 - 0.4 / max;
+			GrayFrame rounded = SmoothRenderer.render(message, 5 + fraction, new GrayFrame(HEIGHT, WIDTH, bits));
+			GrayFrame next = SmoothRenderer.render(message, 6, new GrayFrame(HEIGHT, WIDTH, bits));
+			assertEquals(bits + " bits", next, rounded);
+			assertEquals(max, rounded.get(0, 14));
+		}
+	}
+	
+	@Test
+	public void adjacentLitColumnsStayLit() {
+		LedFrame message = message(60, 20, 21);
+		GrayFrame frame = new GrayFrame(HEIGHT, WIDTH, 3);
+		for(int step = 0; step < 7; step++) {
+			SmoothRenderer.render(message, 5 + step / 7.0, frame);
+			
+			//the LED between the two columns is lit by one or the other throughout
+			assertEquals(7, frame.get(HEIGHT - 1, 15));
+		}
+	}
+}
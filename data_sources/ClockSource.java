@@ -0,0 +1,90 @@
+// ClockSource.java
+// Author: Vivaan Mahtab
+
+package data_sources;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * <em>ClockSource class</em>
+ * the current time or date as text for the board, which only changes on
+ * a minute (TIME) or day (DATE) boundary
+ * 
+ * poll() is a single comparison against the next boundary, so it can be
+ * called every tick, and the text is only formatted again once a boundary
+ * has passed
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/RenderEngine.java
+ */
+public class ClockSource {
+	
+	//"HH:MM" in 24H format and "MM/DD", formatters are immutable so are shared
+	public final static DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+	public final static DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd");
+	
+	final DateTimeFormatter formatter;
+	
+	//smallest unit the text shows, it only changes when this unit rolls over
+	final ChronoUnit unit;
+	
+	//wall clock and time zone
+	final Clock clock;
+	
+	//current text and Clock.millis() when it next changes
+	private String text;
+	private long nextChange = Long.MIN_VALUE;
+	
+	/**
+	 * @param formatter - format of the text
+	 * @param unit - smallest unit @param formatter shows
+	 * @param clock - wall clock and time zone to read
+	 */
+	public ClockSource(DateTimeFormatter formatter, ChronoUnit unit, Clock clock) {
+		this.formatter = formatter;
+		this.unit = unit;
+		this.clock = clock;
+	}
+	
+	// current time as "HH:MM" in 24H format, changing each minute
+	public static ClockSource time(Clock clock) {
+		return new ClockSource(TIME_FORMAT, ChronoUnit.MINUTES, clock);
+	}
+	
+	// current date as "MM/DD", changing each day
+	public static ClockSource date(Clock clock) {
+		return new ClockSource(DATE_FORMAT, ChronoUnit.DAYS, clock);
+	}
+	
+	/**
+	 * checks if the text has changed since the last call, formatting
+	 * it again only if it has
+	 * 
+	 * @return true on the first call and after each boundary
+	 */
+	public boolean poll() {
+		if(this.clock.millis() < this.nextChange)
+			return false;
+		
+		ZonedDateTime now = ZonedDateTime.now(this.clock);
+		this.text = this.formatter.format(now);
+		this.nextChange = now.truncatedTo(this.unit).plus(1, this.unit).toInstant().toEpochMilli();
+		return true;
+	}
+	
+	// current text, polling first if never polled
+	public String getText() {
+		if(this.text == null)
+			this.poll();
+		return this.text;
+	}
+	
+	// Clock.millis() when the text next changes
+	public long getNextChange() {
+		return this.nextChange;
+	}
+}
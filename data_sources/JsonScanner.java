@@ -0,0 +1,143 @@
+// JsonScanner.java
+// Author: Vivaan Mahtab
+
+package data_sources;
+
+/**
+ * <em>JsonScanner class</em>
+ * finds a single number within a JSON document in one pass without
+ * building the document, so the order of fields does not matter
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote only object keys are tracked, values within arrays are skipped
+ * @see local/data_sources/WeatherService.java
+ */
+final class JsonScanner {
+	
+	//deepest nesting whose keys are tracked
+	private final static int MAX_DEPTH = 32;
+	
+	private JsonScanner() {}
+	
+	/**
+	 * finds the number at @param path, a series of object keys starting
+	 * from the outermost object, e.g. ("main", "temp") for {"main":{"temp":1}}
+	 * 
+	 * @return the number, or NaN if @param path does not lead to a number
+	 * 		   or the document is not valid JSON
+	 */
+	static double findNumber(CharSequence json, String... path) {
+		
+		//key each open container was the value of, null within arrays
+		String[] keys = new String[MAX_DEPTH];
+		//true if the open container at each depth is an object
+		boolean[] objects = new boolean[MAX_DEPTH];
+		
+		int depth = 0;
+		String key = null;
+		boolean expectKey = false;
+		
+		int i = 0;
+		int length = json.length();
+		while(i < length) {
+			char c = json.charAt(i);
+			
+			switch(c) {
+			case '"':
+				int end = skipString(json, i);
+				if(end < 0)
+					return Double.NaN;
+				if(expectKey) {
+					key = unescape(json, i + 1, end - 1);
+					expectKey = false;
+				}
+				else {
+					key = null;
+				}
+				i = end;
+				continue;
+				
+			case '{':
+			case '[':
+				if(depth < MAX_DEPTH) {
+					keys[depth] = depth > 0 && objects[depth - 1] ? key : null;
+					objects[depth] = c == '{';
+				}
+				depth++;
+				expectKey = c == '{';
+				key = null;
+				break;
+				
+			case '}':
+			case ']':
+				depth--;
+				if(depth < 0)
+					return Double.NaN;
+				expectKey = false;
+				key = null;
+				break;
+				
+			case ',':
+				expectKey = depth > 0 && depth <= MAX_DEPTH && objects[depth - 1];
+				key = null;
+				break;
+				
+			default:
+				if(c == '-' || (c >= '0' && c <= '9')) {
+					int start = i;
+					while(i < length && "+-.eE0123456789".indexOf(json.charAt(i)) >= 0) {
+						i++;
+					}
+					if(key != null && matches(keys, objects, depth, key, path)) {
+						try {
+							return Double.parseDouble(json.subSequence(start, i).toString());
+						} catch(NumberFormatException e) {
+							return Double.NaN;
+						}
+					}
+					key = null;
+					continue;
+				}
+				break;
+			}
+			i++;
+		}
+		return Double.NaN;
+	}
+	
+	// checks if @param key within the open containers is @param path
+	private static boolean matches(String[] keys, boolean[] objects, int depth, String key, String[] path) {
+		if(depth != path.length || depth > MAX_DEPTH || !key.equals(path[path.length - 1]))
+			return false;
+		for(int d = 1; d < depth; d++) {
+			if(!objects[d] || !path[d - 1].equals(keys[d]))
+				return false;
+		}
+		return objects[0];
+	}
+	
+	// index after the closing quote of the string opening at @param start, -1 if unterminated
+	private static int skipString(CharSequence json, int start) {
+		for(int i = start + 1; i < json.length(); i++) {
+			char c = json.charAt(i);
+			if(c == '\\')
+				i++;
+			else if(c == '"')
+				return i + 1;
+		}
+		return -1;
+	}
+	
+	// contents of a string between @param from and @param to, simple escapes resolved
+	private static String unescape(CharSequence json, int from, int to) {
+		StringBuilder builder = new StringBuilder(to - from);
+		for(int i = from; i < to; i++) {
+			char c = json.charAt(i);
+			if(c == '\\' && i + 1 < to)
+				c = json.charAt(++i);
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,232 @@
+// WeatherService.java
+// Author: Vivaan Mahtab
+
+package data_sources;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.Metrics;
+import settings.Settings;
+
+/**
+ * <em>WeatherService class</em>
+ * gets current temperature in Fahrenheit from https://openweathermap.org/
+ * without ever blocking the caller
+ * 
+ * the last temperature fetched is kept for WEATHER_CACHE_TTL_MS, get()
+ * returns it immediately and, once it is older than that, fetches a new
+ * one on a background thread and passes it to a <em>Listener</em>
+ * 
+ * this weather is the ACUTAL weather, neglecting wind chill and external factors
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote only works for US
+ * @see local/src/settings/Settings
+ */
+public class WeatherService implements Settings {
+	
+	// receives a temperature once a background fetch finishes
+	public interface Listener {
+		void weatherUpdated(String temperature);
+	}
+	
+	//endpoint of the OpenWeatherMap current weather API
+	public final static String OPENWEATHERMAP_URL = "http://api.openweathermap.org/data/2.5/weather";
+	
+	//returned by get() before any temperature has been fetched
+	public final static String PLACEHOLDER = "...";
+	
+	//returned when no temperature could be fetched
+	public final static String ERROR = "ERROR";
+	
+	//time to wait after a failed fetch before trying again
+	final static long RETRY_INTERVAL_MS = 30 * 1000;
+	
+	//time each fetch takes (failed or not), and fetches that failed
+	final static Histogram FETCH = Metrics.histogram("weather.fetch");
+	final static Counter ERRORS = Metrics.counter("weather.errors");
+	
+	//request URL of API
+	final String requestUrl;
+	
+	final long ttlMillis;
+	final int connectTimeoutMillis;
+	final int readTimeoutMillis;
+	
+	//last temperature fetched, null if none yet
+	private volatile String temperature;
+	
+	//System.currentTimeMillis() of the last successful fetch and last attempt
+	private volatile long fetchedAt;
+	private volatile long attemptedAt;
+	
+	//true while a background fetch is running
+	private final AtomicBoolean fetching = new AtomicBoolean(false);
+	
+	//runs fetches off the caller's thread
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "weather-fetch");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	/**
+	 * @param zipCode - zip code to retrieve weather within United States
+	 * @param appID - personal authentication code for API (go to api.openweathermap.org to generate)
+	 */
+	public WeatherService(String zipCode, String appID) {
+		this(OPENWEATHERMAP_URL, zipCode, appID, WEATHER_CACHE_TTL_MS, 
+				WEATHER_CONNECT_TIMEOUT_MS, WEATHER_READ_TIMEOUT_MS);
+	}
+	
+	/**
+	 * @param baseUrl - endpoint to request from, OPENWEATHERMAP_URL or a local
+	 * 					stand-in serving the same responses
+	 * @param zipCode - zip code to retrieve weather within United States
+	 * @param appID - personal authentication code for API
+	 * @param ttlMillis - how long a fetched temperature is used before refreshing
+	 * @param connectTimeoutMillis - time to wait for the connection to open
+	 * @param readTimeoutMillis - time to wait for the response
+	 */
+	public WeatherService(String baseUrl, String zipCode, String appID, long ttlMillis,
+			int connectTimeoutMillis, int readTimeoutMillis) {
+		this.requestUrl = baseUrl + "?zip=" + zipCode + ",us&appid=" + appID;
+		this.ttlMillis = ttlMillis;
+		this.connectTimeoutMillis = connectTimeoutMillis;
+		this.readTimeoutMillis = readTimeoutMillis;
+	}
+	
+	/**
+	 * gets the last known temperature without blocking, starting a background
+	 * fetch if it is older than the TTL
+	 * 
+	 * @param listener - receives the new temperature if a fetch is started,
+	 * 					 called from the background thread (may be null)
+	 * @return the last known temperature, or PLACEHOLDER if none yet
+	 */
+	public String get(Listener listener) {
+		long now = System.currentTimeMillis();
+		String current = this.temperature;
+		
+		boolean stale = current == null || now - this.fetchedAt >= this.ttlMillis;
+		boolean retryDue = now - this.attemptedAt >= Math.min(this.ttlMillis, RETRY_INTERVAL_MS);
+		if(stale && retryDue)
+			this.refresh(listener);
+		
+		return current != null ? current : PLACEHOLDER;
+	}
+	
+	/**
+	 * starts a background fetch unless one is already running
+	 * 
+	 * @param listener - receives the new temperature, or the last known one
+	 * 					 (ERROR if none) if the fetch fails
+	 */
+	public void refresh(final Listener listener) {
+		if(!this.fetching.compareAndSet(false, true))
+			return;
+		
+		this.attemptedAt = System.currentTimeMillis();
+		this.executor.execute(new Runnable() {
+			public void run() {
+				String result;
+				long start = System.nanoTime();
+				try {
+					result = fetch();
+					temperature = result;
+					fetchedAt = System.currentTimeMillis();
+				} catch(IOException e) {
+					ERRORS.increment();
+					e.printStackTrace();
+					result = temperature != null ? temperature : ERROR;
+				} finally {
+					FETCH.record(System.nanoTime() - start);
+					fetching.set(false);
+				}
+				if(listener != null)
+					listener.weatherUpdated(result);
+			}
+		});
+	}
+	
+	// stops the background thread
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+	
+	/**
+	 * requests current weather and parses temperature out of it
+	 * 
+	 * @return temperature in Fahrenheit
+	 * @exception IOException if the request fails, times out or has no temperature
+	 */
+	String fetch() throws IOException {
+		
+		HttpURLConnection conection = (HttpURLConnection) new URL(this.requestUrl).openConnection();
+		conection.setConnectTimeout(this.connectTimeoutMillis);
+		conection.setReadTimeout(this.readTimeoutMillis);
+		
+		//set API request mode to GET
+		conection.setRequestMethod("GET");
+		
+		try {
+			//response?
+			int responseCode = conection.getResponseCode();
+			if(responseCode != HttpURLConnection.HTTP_OK)
+				throw new IOException("weather request failed with HTTP " + responseCode);
+			
+			//Read in entirety of weather info from API
+			StringBuilder response = new StringBuilder();
+			BufferedReader in = new BufferedReader(new InputStreamReader(conection.getInputStream(), StandardCharsets.UTF_8));
+			try {
+				char[] buffer = new char[1024];
+				int read;
+				while((read = in.read(buffer)) != -1) {
+					response.append(buffer, 0, read);
+				}
+			} finally {
+				in.close();
+			}
+			
+			//extracts weather information
+			String result = grabTemp(response);
+			if(result == null)
+				throw new IOException("weather response has no main.temp");
+			return result;
+			
+		} finally {
+			conection.disconnect();
+		}
+	}
+	
+	/**
+	 * parses temperature out of the total weather info from https://openweathermap.org/ API
+	 * 
+	 * @param weatherInfo - the weather info as JSON
+	 * @return the temperature in Fahrenheit, or null if it has no main.temp
+	 */
+	public static String grabTemp(CharSequence weatherInfo) {
+		double kelvin = JsonScanner.findNumber(weatherInfo, "main", "temp");
+		if(Double.isNaN(kelvin))
+			return null;
+		
+		//converts from Kelvin to Fahrenheit
+		double current_temperature = (kelvin - 273.15) * 9d / 5 + 32;
+		
+		//removes decimals to limit display length then returns
+		return String.format("%.0f", current_temperature) + "°F";
+	}
+}
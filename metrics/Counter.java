@@ -0,0 +1,44 @@
+// Counter.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <em>Counter class</em>
+ * a running total (frames dropped, bytes written, errors) recorded from
+ * hot paths with one atomic add
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote safe to record from any number of threads
+ * @see local/metrics/Metrics.java
+ */
+public final class Counter {
+	
+	//name it is registered under
+	final String name;
+	
+	private final AtomicLong total = new AtomicLong();
+	
+	Counter(String name) {
+		this.name = name;
+	}
+	
+	public void increment() {
+		this.total.incrementAndGet();
+	}
+	
+	public void add(long amount) {
+		this.total.addAndGet(amount);
+	}
+	
+	public long get() {
+		return this.total.get();
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+}
@@ -0,0 +1,20 @@
+// Gauge.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+/**
+ * <em>Gauge interface</em>
+ * a value read when metrics are reported rather than recorded, for
+ * things already measured elsewhere (e.g. the glyph cache hit rate)
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote called from the reporting and JMX threads
+ * @see local/metrics/Metrics.java
+ */
+public interface Gauge {
+	
+	// current value, NaN if there is none yet
+	double value();
+}
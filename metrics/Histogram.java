@@ -0,0 +1,135 @@
+// Histogram.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <em>Histogram class</em>
+ * distribution of durations (or any non-negative amounts) recorded from
+ * hot paths, from which percentiles are read for JMX and the log line
+ * 
+ * values are counted in fixed buckets: exact below 16, then 8 buckets per
+ * power of two, so a percentile is within 1/16 of the true value and
+ * recording is a few shifts and one atomic increment, with no locks and
+ * no allocation
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote safe to record from any number of threads
+ * @see local/metrics/Metrics.java
+ */
+public final class Histogram {
+	
+	//values counted exactly, and bits of their range
+	final static int LINEAR = 16, LINEAR_BITS = 4;
+	
+	//buckets per power of two above LINEAR, and bits of their count
+	final static int SUB_BUCKETS = 8, SUB_BITS = 3;
+	
+	//enough buckets for any positive long
+	public final static int BUCKETS = LINEAR + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKETS;
+	
+	//name it is registered under
+	final String name;
+	
+	//number of values recorded in each bucket
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	
+	//largest value recorded
+	private final AtomicLong max = new AtomicLong();
+	
+	Histogram(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * records one value
+	 * 
+	 * @param value - e.g. nanoseconds, negative values count as 0
+	 */
+	public void record(long value) {
+		this.counts.incrementAndGet(bucketOf(value));
+		long largest;
+		while(value > (largest = this.max.get()) && !this.max.compareAndSet(largest, value)) {}
+	}
+	
+	/**
+	 * copies the count of every bucket into @param into, which must have
+	 * BUCKETS entries
+	 * 
+	 * @return @param into
+	 */
+	public long[] counts(long[] into) {
+		for(int i = 0; i < BUCKETS; i++) {
+			into[i] = this.counts.get(i);
+		}
+		return into;
+	}
+	
+	// value at fraction @param quantile (0 to 1) of every value recorded, 0 if none
+	public long percentile(double quantile) {
+		return Math.min(percentile(this.counts(new long[BUCKETS]), quantile), this.getMax());
+	}
+	
+	// number of values recorded
+	public long getCount() {
+		long count = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+	
+	// largest value recorded
+	public long getMax() {
+		return this.max.get();
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * value at fraction @param quantile (0 to 1) of the values counted by
+	 * @param counts, the middle of the bucket it falls in
+	 * 
+	 * @return the value, 0 if @param counts is empty
+	 */
+	public static long percentile(long[] counts, double quantile) {
+		long total = 0;
+		for(long count : counts) {
+			total += count;
+		}
+		if(total == 0)
+			return 0;
+		
+		long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if(seen >= rank)
+				return middleOf(i);
+		}
+		return middleOf(counts.length - 1);
+	}
+	
+	// bucket @param value is counted in
+	static int bucketOf(long value) {
+		if(value < LINEAR)
+			return value < 0 ? 0 : (int) value;
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		return LINEAR + (exponent - LINEAR_BITS) * SUB_BUCKETS + (int) (value >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+	}
+	
+	// value in the middle of bucket @param bucket
+	static long middleOf(int bucket) {
+		if(bucket < LINEAR)
+			return bucket;
+		int exponent = (bucket - LINEAR) / SUB_BUCKETS + LINEAR_BITS;
+		long width = 1L << (exponent - SUB_BITS);
+		return (SUB_BUCKETS + (bucket - LINEAR) % SUB_BUCKETS) * width + width / 2;
+	}
+}
@@ -0,0 +1,127 @@
+// Metrics.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <em>Metrics class</em>
+ * registry of every <em>Histogram</em>, <em>Counter</em> and <em>Gauge</em>
+ * of the render and serial pipeline, so what the board is doing can be
+ * watched while it runs: over JMX (e.g. jconsole) as OBJECT_NAME, and as
+ * a line logged every Settings.METRICS_LOG_INTERVAL_MS
+ * 
+ * code on a hot path looks its metric up once and keeps it in a static
+ * final field, recording into it then never allocates:
+ * 
+ * 		final static Histogram TICK = Metrics.histogram("render.tick");
+ * 		...
+ * 		TICK.record(System.nanoTime() - start);
+ * 
+ * names are "stage.measurement", durations are recorded in nanoseconds
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/metrics/MetricsReporter.java
+ */
+public final class Metrics {
+	
+	//name of the JMX bean every metric is an attribute of
+	public final static String OBJECT_NAME = "rooflighting:type=Metrics";
+	
+	//every metric registered, by name
+	private final static Map<String, Histogram> histograms = new ConcurrentSkipListMap<String, Histogram>();
+	private final static Map<String, Counter> counters = new ConcurrentSkipListMap<String, Counter>();
+	private final static Map<String, Gauge> gauges = new ConcurrentSkipListMap<String, Gauge>();
+	
+	//the log line thread, null until startReporting()
+	private static MetricsReporter reporter;
+	
+	private Metrics() {}
+	
+	// the histogram named @param name, registered the first time it is asked for
+	public static synchronized Histogram histogram(String name) {
+		Histogram histogram = histograms.get(name);
+		if(histogram == null) {
+			histogram = new Histogram(name);
+			histograms.put(name, histogram);
+		}
+		return histogram;
+	}
+	
+	// the counter named @param name, registered the first time it is asked for
+	public static synchronized Counter counter(String name) {
+		Counter counter = counters.get(name);
+		if(counter == null) {
+			counter = new Counter(name);
+			counters.put(name, counter);
+		}
+		return counter;
+	}
+	
+	// registers @param gauge as @param name, replacing any gauge of that name
+	public static void gauge(String name, Gauge gauge) {
+		gauges.put(name, gauge);
+	}
+	
+	/**
+	 * registers every metric with the platform MBean server as OBJECT_NAME,
+	 * calling this more than once has no effect
+	 * 
+	 * @exception if it cannot be registered, the error is printed and
+	 * 			  metrics are still recorded and logged
+	 */
+	public static synchronized void registerJmx() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if(!server.isRegistered(name))
+				server.registerMBean(new MetricsBean(), name);
+		} catch(JMException e) {
+			System.err.println("Metrics: unable to register " + OBJECT_NAME + " (" + e.getMessage() + ")");
+		}
+	}
+	
+	/**
+	 * logs a line of every metric every @param intervalMillis on a daemon
+	 * thread, calling this more than once has no effect
+	 * 
+	 * @param intervalMillis - time between lines, 0 or less logs nothing
+	 */
+	public static synchronized void startReporting(long intervalMillis) {
+		if(reporter != null || intervalMillis <= 0)
+			return;
+		reporter = new MetricsReporter(intervalMillis, System.out);
+		reporter.start();
+	}
+	
+	// every histogram by name, in name order
+	static Map<String, Histogram> getHistograms() {
+		return histograms;
+	}
+	
+	// every counter by name, in name order
+	static Map<String, Counter> getCounters() {
+		return counters;
+	}
+	
+	// every gauge by name, in name order
+	static Map<String, Gauge> getGauges() {
+		return gauges;
+	}
+	
+	/**
+	 * every metric since startup on one line, the same form as the log line
+	 * 
+	 * @see MetricsReporter.format()
+	 */
+	public static String summary() {
+		return new MetricsReporter(0, null).format(0);
+	}
+}
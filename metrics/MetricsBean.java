@@ -0,0 +1,122 @@
+// MetricsBean.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/**
+ * <em>MetricsBean class</em>
+ * shows every metric registered with <em>Metrics</em> as a read-only JMX
+ * attribute, since startup:
+ * 
+ * 		counter - "name", its total
+ * 		gauge - "name", its current value
+ * 		histogram - "name.count", and "name.p50_ms", "name.p90_ms",
+ * 					"name.p99_ms", "name.max_ms" in milliseconds
+ * 
+ * the attributes are listed again each time a JMX client asks, so metrics
+ * registered later show up too
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/metrics/Metrics.java
+ */
+class MetricsBean implements DynamicMBean {
+	
+	//histogram attributes and the percentile each reads, max is handled apart
+	final static String[] PERCENTILES = {".p50_ms", ".p90_ms", ".p99_ms"};
+	final static double[] QUANTILES = {0.5, 0.9, 0.99};
+	
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Counter counter = Metrics.getCounters().get(attribute);
+		if(counter != null)
+			return counter.get();
+		Gauge gauge = Metrics.getGauges().get(attribute);
+		if(gauge != null)
+			return gauge.value();
+		
+		//histogram attributes are "name.suffix"
+		int dot = attribute.lastIndexOf('.');
+		Histogram histogram = dot < 0 ? null : Metrics.getHistograms().get(attribute.substring(0, dot));
+		if(histogram != null) {
+			String suffix = attribute.substring(dot);
+			if(suffix.equals(".count"))
+				return histogram.getCount();
+			if(suffix.equals(".max_ms"))
+				return histogram.getMax() / 1e6;
+			for(int i = 0; i < PERCENTILES.length; i++) {
+				if(suffix.equals(PERCENTILES[i]))
+					return histogram.percentile(QUANTILES[i]) / 1e6;
+			}
+		}
+		throw new AttributeNotFoundException(attribute);
+	}
+	
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList list = new AttributeList();
+		for(String attribute : attributes) {
+			try {
+				list.add(new Attribute(attribute, this.getAttribute(attribute)));
+			} catch(AttributeNotFoundException e) {
+				//left out, as the interface expects
+			}
+		}
+		return list;
+	}
+	
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+		for(String counter : Metrics.getCounters().keySet()) {
+			attributes.add(attribute(counter, Long.class, "total"));
+		}
+		for(String gauge : Metrics.getGauges().keySet()) {
+			attributes.add(attribute(gauge, Double.class, "current value"));
+		}
+		for(Map.Entry<String, Histogram> histogram : Metrics.getHistograms().entrySet()) {
+			String name = histogram.getKey();
+			attributes.add(attribute(name + ".count", Long.class, "values recorded"));
+			for(String percentile : PERCENTILES) {
+				attributes.add(attribute(name + percentile, Double.class, "percentile since startup"));
+			}
+			attributes.add(attribute(name + ".max_ms", Double.class, "largest value since startup"));
+		}
+		return new MBeanInfo(this.getClass().getName(), "render and serial pipeline metrics",
+				attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, new MBeanOperationInfo[0], null);
+	}
+	
+	// read-only attribute @param name of @param type
+	private static MBeanAttributeInfo attribute(String name, Class<?> type, String description) {
+		return new MBeanAttributeInfo(name, type.getName(), description, true, false, false);
+	}
+	
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException(attribute.getName() + " is read only");
+	}
+	
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList();
+	}
+	
+	// no operations are exposed, so every action is unknown
+	@Override
+	public Object invoke(String action, Object[] params, String[] signature) throws MBeanException, ReflectionException {
+		throw new ReflectionException(new NoSuchMethodException(action));
+	}
+}
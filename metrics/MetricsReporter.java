@@ -0,0 +1,126 @@
+// MetricsReporter.java
+// Author: Vivaan Mahtab
+
+package metrics;
+
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <em>MetricsReporter class</em>
+ * daemon thread started by <em>Metrics</em> that logs every metric on one
+ * line at a fixed interval, covering only what happened since the last line:
+ * 
+ * 		metrics (60s): render.tick n=3600 p50=0.041ms p99=0.180ms max=1.204ms; ... |
+ * 			frames.dropped +2 (14); serial.bytes +51000 (850.0/s); ... | glyph.hit_rate 0.98; ...
+ * 
+ * histograms give their count, median, 99th percentile and largest value
+ * (largest since startup) in milliseconds, counters their increase,
+ * their total and their rate, gauges their current value
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/metrics/Metrics.java
+ */
+class MetricsReporter implements Runnable {
+	
+	//time between lines
+	final long intervalMillis;
+	
+	//where lines are logged
+	final PrintStream out;
+	
+	//bucket counts and counter totals at the last line
+	private final Map<String, long[]> lastCounts = new HashMap<String, long[]>();
+	private final Map<String, Long> lastTotals = new HashMap<String, Long>();
+	
+	MetricsReporter(long intervalMillis, PrintStream out) {
+		this.intervalMillis = intervalMillis;
+		this.out = out;
+	}
+	
+	// starts the logging thread
+	void start() {
+		Thread thread = new Thread(this, "metrics-log");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	@Override
+	public void run() {
+		long last = System.nanoTime();
+		while(!Thread.currentThread().isInterrupted()) {
+			try {
+				Thread.sleep(this.intervalMillis);
+			} catch(InterruptedException e) {
+				return;
+			}
+			long now = System.nanoTime();
+			this.out.println(this.format(now - last));
+			last = now;
+		}
+	}
+	
+	/**
+	 * every metric since the last call on one line
+	 * 
+	 * @param elapsedNanos - time since the last call, for counter rates,
+	 * 						 0 to leave rates out
+	 */
+	String format(long elapsedNanos) {
+		StringBuilder line = new StringBuilder("metrics");
+		if(elapsedNanos > 0)
+			line.append(" (").append(Math.round(elapsedNanos / 1e9)).append("s)");
+		line.append(':');
+		
+		//HISTOGRAMS - only values recorded since the last line
+		String separator = " ";
+		for(Histogram histogram : Metrics.getHistograms().values()) {
+			long[] counts = histogram.counts(new long[Histogram.BUCKETS]);
+			long[] interval = counts.clone();
+			long[] last = this.lastCounts.put(histogram.name, counts);
+			long count = 0;
+			for(int i = 0; i < interval.length; i++) {
+				interval[i] -= last != null ? last[i] : 0;
+				count += interval[i];
+			}
+			line.append(separator).append(histogram.name).append(" n=").append(count);
+			if(count > 0) {
+				long max = histogram.getMax();
+				line.append(" p50=").append(millis(Math.min(Histogram.percentile(interval, 0.5), max)))
+					.append(" p99=").append(millis(Math.min(Histogram.percentile(interval, 0.99), max)))
+					.append(" max=").append(millis(histogram.getMax()));
+			}
+			separator = "; ";
+		}
+		
+		//COUNTERS
+		separator = " | ";
+		for(Counter counter : Metrics.getCounters().values()) {
+			long total = counter.get();
+			Long last = this.lastTotals.put(counter.name, total);
+			long increase = total - (last != null ? last : 0);
+			line.append(separator).append(counter.name).append(" +").append(increase).append(" (").append(total);
+			if(elapsedNanos > 0)
+				line.append(", ").append(String.format(Locale.ROOT, "%.1f", increase * 1e9 / elapsedNanos)).append("/s");
+			line.append(')');
+			separator = "; ";
+		}
+		
+		//GAUGES
+		separator = " | ";
+		for(Map.Entry<String, Gauge> gauge : Metrics.getGauges().entrySet()) {
+			line.append(separator).append(gauge.getKey()).append(' ')
+				.append(String.format(Locale.ROOT, "%.3f", gauge.getValue().value()));
+			separator = "; ";
+		}
+		return line.toString();
+	}
+	
+	// @param nanos as milliseconds
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.3fms", nanos / 1e6);
+	}
+}
@@ -0,0 +1,86 @@
+// FrameChangeDetector.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import java.util.concurrent.TimeUnit;
+import metrics.Counter;
+import metrics.Metrics;
+import word_processing.Frame;
+
+/**
+ * <em>FrameChangeDetector class</em>
+ * decides whether a rendered frame needs to go anywhere: a frame that is
+ * bit for bit (level for level, if gray) the same as the last one passed
+ * on is skipped, unless nothing has been passed on for a keepalive
+ * interval (so the link to the arduino is still exercised while the board
+ * is static)
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote not thread safe, used only by the <em>RenderEngine</em> thread
+ * @see local/render_engine/RenderEngine.java
+ */
+public class FrameChangeDetector {
+	
+	//frames skipped by every detector, for the log and JMX
+	final static Counter SKIPPED = Metrics.counter("frames.skipped");
+	
+	final TickClock clock;
+	
+	//longest time an unchanged frame is skipped for
+	final long keepaliveNanos;
+	
+	//last frame passed on, null if none
+	private Frame last = null;
+	
+	//clock time last frame was passed on
+	private long lastPassed;
+	
+	//frames passed on and skipped
+	private volatile long passed = 0, skipped = 0;
+	
+	/**
+	 * @param clock - time source for the keepalive
+	 * @param keepaliveMillis - longest time an unchanged frame is skipped for
+	 */
+	public FrameChangeDetector(TickClock clock, long keepaliveMillis) {
+		this.clock = clock;
+		this.keepaliveNanos = TimeUnit.MILLISECONDS.toNanos(keepaliveMillis);
+	}
+	
+	/**
+	 * @param frame - the frame just rendered
+	 * @return true if @param frame differs from the last frame passed on or
+	 * 		   the keepalive is due, false if it should be skipped
+	 */
+	public boolean changed(Frame frame) {
+		long now = this.clock.nanoTime();
+		if(this.last != null && now - this.lastPassed < this.keepaliveNanos && frame.equals(this.last)) {
+			this.skipped++;
+			SKIPPED.increment();
+			return false;
+		}
+		this.lastPassed = now;
+		this.passed++;
+		return true;
+	}
+	
+	/**
+	 * records @param frame as the last frame passed on, called after
+	 * changed() returned true
+	 * 
+	 * @param frame - must not be modified afterwards
+	 */
+	public void passed(Frame frame) {
+		this.last = frame;
+	}
+	
+	public long getFramesPassed() {
+		return this.passed;
+	}
+	
+	public long getFramesSkipped() {
+		return this.skipped;
+	}
+}
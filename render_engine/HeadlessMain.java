@@ -0,0 +1,186 @@
+// HeadlessMain.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import processing.core.PApplet;
+import Serial_Communication.Communication_Interface;
+import Serial_Communication.FileTransport;
+import Serial_Communication.SimulatedController;
+import animation.AnimationPlayer;
+import metrics.Metrics;
+import settings.BoardGeometry;
+import settings.Settings;
+import word_processing.GlyphRegistry;
+
+/**
+ * <em>HeadlessMain class</em>
+ * runs the LED board without a Processing window, for the small
+ * computer that drives the roof
+ * 
+ * usage: HeadlessMain [port_index | DEVICE | sim]
+ * 		the board size is read from Settings.BOARD_CONFIG_FILE
+ * 		DEVICE - a tty or pty to send frames over instead of a Serial port, e.g.
+ * 				 one with an emulated controller, or a plain file frames are
+ * 				 captured to without acknowledgements (see <em>FileTransport</em>)
+ * 		sim - frames are sent to a <em>SimulatedController</em> at
+ * 			  Settings.SERIAL_BAUD_RATE, to watch pacing without hardware
+ * 		with none the available Serial ports are listed and frames are
+ * 		rendered without being sent
+ * 
+ * commands are read one per line from standard input:
+ * 		/time, /date, /weather, /pause - same as the UI buttons
+ * 		/speed N - scroll left at N columns per second (fractional allowed)
+ * 		/smooth N - scroll between columns with N bits of brightness, 0 for whole columns
+ * 		/queue TEXT - adds TEXT to the playlist, scrolled across once
+ * 		/queue /time, /queue /date, /queue /weather - adds one to the playlist,
+ * 			shown for Settings.PLAYLIST_DWELL_MS
+ * 		/loop - toggles repeating the playlist
+ * 		/play FILE - replays a compiled animation (see <em>AnimationCompiler</em>) on repeat
+ * 		/seek N - moves the animation being replayed to frame N
+ * 		/reset - clears the board and the playlist
+ * 		/stats - prints frame counters and every metric since startup
+ * 		/quit - stops the board
+ * 		anything else - scrolled across the board as a sent_message
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/RenderEngine.java
+ */
+public class HeadlessMain {
+	
+	public static void main(String[] args) throws IOException, InterruptedException {
+		
+		// memory-map the font (-Dglyph.font, or the bundled one) before any WordEvent is built
+		GlyphRegistry.load();
+		
+		// pipeline metrics on JMX and in the log
+		Metrics.registerJmx();
+		Metrics.startReporting(Settings.METRICS_LOG_INTERVAL_MS);
+		
+		BoardGeometry geometry = BoardGeometry.load();
+		System.out.println("board: " + geometry);
+		
+		Communication_Interface comms = null;
+		if(args.length > 0 && args[0].equals("sim")) {
+			comms = new Communication_Interface(new SimulatedController(geometry.getHeight(), geometry.getLength(), false, 
+					Settings.SERIAL_BAUD_RATE), Settings.SERIAL_BAUD_RATE, geometry);
+		}
+		else if(args.length > 0 && !args[0].matches("\\d+")) {
+			comms = new Communication_Interface(new FileTransport(new File(args[0])), Settings.SERIAL_BAUD_RATE, geometry);
+		}
+		else if(args.length > 0) {
+			
+			//Serial needs a PApplet to attach to, it is never shown
+			comms = new Communication_Interface(new PApplet(), Integer.parseInt(args[0]), 
+					Settings.SERIAL_BAUD_RATE, geometry);
+		}
+		else {
+			System.out.println("no port selected, available ports:");
+			String[] ports = Communication_Interface.getPorts();
+			for(int i = 0; i < ports.length; i++) {
+				System.out.println("  " + i + ": " + ports[i]);
+			}
+		}
+		
+		RenderEngine engine = new RenderEngine(comms, geometry);
+		engine.start();
+		boolean quit = false;
+		
+		BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+		String line;
+		while(!quit && (line = in.readLine()) != null) {
+			switch(line.trim()) {
+			case "/time":
+				engine.select("TIME");
+				break;
+			case "/date":
+				engine.select("DATE");
+				break;
+			case "/weather":
+				engine.select("WEATHER");
+				break;
+			case "/pause":
+				engine.select("PAUSE");
+				break;
+			case "/reset":
+				engine.reset();
+				break;
+			case "/stats":
+				System.out.println("rendered: " + engine.getFramesPassed() + " skipped (unchanged): " + engine.getFramesSkipped());
+				if(comms != null)
+					System.out.println("serial produced: " + comms.getFramesProduced() + " sent: " 
+							+ comms.getFramesSent() + " dropped: " + comms.getFramesDropped());
+				System.out.println(Metrics.summary());
+				break;
+			case "/quit":
+				engine.stop();
+				quit = true;
+				break;
+			case "/loop":
+				engine.getPlaylist().setLoop(!engine.getPlaylist().isLoop());
+				System.out.println("playlist loop: " + engine.getPlaylist().isLoop());
+				break;
+			default:
+				if(line.trim().startsWith("/queue ")) {
+					engine.enqueue(queued(line.trim().substring(7)));
+				}
+				else if(line.trim().startsWith("/play ")) {
+					try {
+						AnimationPlayer player = new AnimationPlayer(new File(line.trim().substring(6).trim()));
+						System.out.println(player.getFrameCount() + " frames at " + player.getFrameRate() + " fps");
+						engine.playAnimation(player, true);
+					} catch(IOException e) {
+						System.out.println("unable to play: " + e.getMessage());
+					}
+				}
+				else if(line.trim().startsWith("/seek ")) {
+					try {
+						engine.seekAnimation(Integer.parseInt(line.trim().substring(6).trim()));
+					} catch(NumberFormatException e) {
+						System.out.println("usage: /seek <frame>");
+					}
+				}
+				else if(line.trim().startsWith("/smooth ")) {
+					try {
+						engine.smoothScroll(Integer.parseInt(line.trim().substring(8).trim()));
+					} catch(IllegalArgumentException e) {
+						System.out.println("usage: /smooth <bits, 0 to " + engine.getMaxSmoothBits() + ">");
+					}
+				}
+				else if(line.trim().startsWith("/speed ")) {
+					try {
+						engine.scroll(-Double.parseDouble(line.trim().substring(7)));
+					} catch(NumberFormatException e) {
+						System.out.println("usage: /speed <columns per second>");
+					}
+				}
+				else
+					engine.sendMessage(line);
+			}
+		}
+		
+		//standard input closed (e.g. run as a service) - keep running until stopped
+		engine.awaitStop();
+		if(comms != null)
+			comms.stop();
+	}
+	
+	// playlist item for the argument of /queue
+	private static PlaylistItem queued(String argument) {
+		switch(argument.trim()) {
+		case "/time":
+			return PlaylistItem.time(Settings.PLAYLIST_DWELL_MS);
+		case "/date":
+			return PlaylistItem.date(Settings.PLAYLIST_DWELL_MS);
+		case "/weather":
+			return PlaylistItem.weather(Settings.PLAYLIST_DWELL_MS);
+		default:
+			return PlaylistItem.message(argument);
+		}
+	}
+}
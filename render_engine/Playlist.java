@@ -0,0 +1,206 @@
+// Playlist.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import data_sources.ClockSource;
+import data_sources.WeatherService;
+import settings.BoardGeometry;
+import word_processing.DigitRenderer;
+import word_processing.LedFrame;
+import word_processing.WordEvent;
+
+/**
+ * <em>Playlist class</em>
+ * a queue of <em>PlaylistItem</em> objects shown one after another by a
+ * <em>RenderEngine</em>, optionally looping
+ * 
+ * the next item is rendered into a frame on a background thread while the
+ * current one is still showing, so when it finishes the engine switches to
+ * the next straight away without rendering anything on its tick thread
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote thread safe, items may be added from any thread
+ * @see local/render_engine/RenderEngine.java
+ */
+public class Playlist {
+	
+	// an item rendered and ready to be shown
+	public static final class Prepared {
+		
+		public final PlaylistItem item;
+		
+		// the whole message, ready to be windowed by a WordEvent
+		public final LedFrame message;
+		
+		// what was rendered (the message, time, date or temperature)
+		public final String text;
+		
+		Prepared(PlaylistItem item, LedFrame message, String text) {
+			this.item = item;
+			this.message = message;
+			this.text = text;
+		}
+	}
+	
+	//size of the board items are rendered for
+	final BoardGeometry geometry;
+	
+	//source of WEATHER items, and where later temperatures are sent
+	final WeatherService weather;
+	final WeatherService.Listener weatherListener;
+	
+	//items not yet rendered, in order
+	private final ArrayDeque<PlaylistItem> items = new ArrayDeque<PlaylistItem>();
+	
+	//true to add each item back to the end once rendered
+	private boolean loop = false;
+	
+	//rendered item waiting to be taken, null if none
+	private Prepared ready;
+	
+	//true while an item is being rendered
+	private boolean rendering = false;
+	
+	//changed by clear() so renders already started are thrown away
+	private long generation = 0;
+	
+	//only used on the render thread
+	private final ClockSource timeSource = ClockSource.time(Clock.systemDefaultZone());
+	private final ClockSource dateSource = ClockSource.date(Clock.systemDefaultZone());
+	private DigitRenderer digits;
+	
+	//renders upcoming items
+	private final ExecutorService renderer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "playlist-render");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	/**
+	 * @param geometry - size of the board items are rendered for
+	 * @param weather - source of the temperature shown by WEATHER items
+	 * @param weatherListener - receives temperatures fetched after a WEATHER item was rendered
+	 */
+	public Playlist(BoardGeometry geometry, WeatherService weather, WeatherService.Listener weatherListener) {
+		this.geometry = geometry;
+		this.weather = weather;
+		this.weatherListener = weatherListener;
+	}
+	
+	// adds @param item to the end, rendering it straight away if it is next
+	public synchronized void add(PlaylistItem item) {
+		this.items.add(item);
+		this.prepare();
+	}
+	
+	public synchronized void addAll(Collection<PlaylistItem> items) {
+		this.items.addAll(items);
+		this.prepare();
+	}
+	
+	// removes every item, including one already rendered
+	public synchronized void clear() {
+		this.items.clear();
+		this.ready = null;
+		this.generation++;
+	}
+	
+	// @param loop - true to show the items again once every item has been shown
+	public synchronized void setLoop(boolean loop) {
+		this.loop = loop;
+	}
+	
+	public synchronized boolean isLoop() {
+		return this.loop;
+	}
+	
+	// checks if there is nothing left to show
+	public synchronized boolean isEmpty() {
+		return this.items.isEmpty() && this.ready == null && !this.rendering;
+	}
+	
+	/**
+	 * takes the next item if it has finished rendering, and starts rendering
+	 * the one after it, never blocks
+	 * 
+	 * @return the next item ready to show, null if there is none yet
+	 */
+	public synchronized Prepared take() {
+		Prepared next = this.ready;
+		this.ready = null;
+		this.prepare();
+		return next;
+	}
+	
+	// stops the render thread
+	public void shutdown() {
+		this.renderer.shutdownNow();
+	}
+	
+	// starts rendering the next item unless one is already rendered or rendering
+	private void prepare() {
+		if(this.ready != null || this.rendering || this.items.isEmpty())
+			return;
+		
+		final PlaylistItem item = this.items.poll();
+		if(this.loop)
+			this.items.add(item);
+		final long started = this.generation;
+		this.rendering = true;
+		
+		this.renderer.execute(new Runnable() {
+			public void run() {
+				Prepared prepared = null;
+				try {
+					prepared = render(item);
+				} catch(RuntimeException e) {
+					RenderEngine.ERRORS.increment();
+					e.printStackTrace();
+				}
+				synchronized(Playlist.this) {
+					rendering = false;
+					if(started == generation && prepared != null)
+						ready = prepared;
+					else
+						prepare();
+				}
+			}
+		});
+	}
+	
+	// renders @param item into a frame, on the render thread
+	Prepared render(PlaylistItem item) {
+		switch(item.kind) {
+		case PlaylistItem.TIME:
+			return this.renderClock(item, this.timeSource);
+		case PlaylistItem.DATE:
+			return this.renderClock(item, this.dateSource);
+		case PlaylistItem.WEATHER:
+			String temperature = this.weather.get(this.weatherListener);
+			return new Prepared(item, new WordEvent(temperature, 0, this.geometry).getMessage(), temperature);
+		default:
+			return new Prepared(item, new WordEvent(item.text, 0, this.geometry).getMessage(), item.text);
+		}
+	}
+	
+	// renders the current text of @param source from pre-rendered digits
+	private Prepared renderClock(PlaylistItem item, ClockSource source) {
+		if(this.digits == null)
+			this.digits = new DigitRenderer(this.geometry);
+		source.poll();
+		String text = source.getText();
+		LedFrame frame = this.digits.frameFor(text);
+		this.digits.render(text, frame);
+		return new Prepared(item, frame, text);
+	}
+}
@@ -0,0 +1,93 @@
+// PlaylistItem.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import settings.Settings;
+
+/**
+ * <em>PlaylistItem class</em>
+ * one entry of a <em>Playlist</em>: what to show (a custom message, TIME,
+ * DATE or WEATHER) and how long for, either
+ * 
+ * 		scroll - enters from the right edge and scrolls across the board
+ * 				 once at a speed in columns per second
+ * 		dwell - held still at the left edge for a number of milliseconds
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/Playlist.java
+ */
+public final class PlaylistItem implements Settings {
+	
+	//what an item shows, the same names as the board state
+	public final static String MESSAGE = "sent_message";
+	public final static String TIME = "TIME";
+	public final static String DATE = "DATE";
+	public final static String WEATHER = "WEATHER";
+	
+	//MESSAGE, TIME, DATE or WEATHER
+	final String kind;
+	
+	//text of a MESSAGE, null otherwise
+	final String text;
+	
+	//columns per second to scroll left at, 0 to dwell instead
+	final double scrollSpeed;
+	
+	//milliseconds to hold still for, if not scrolling
+	final long dwellMillis;
+	
+	private PlaylistItem(String kind, String text, double scrollSpeed, long dwellMillis) {
+		this.kind = kind;
+		this.text = text;
+		this.scrollSpeed = Math.abs(scrollSpeed);
+		this.dwellMillis = dwellMillis;
+	}
+	
+	// @param text scrolled across the board once at Settings.SCROLL_SPEED
+	public static PlaylistItem message(String text) {
+		return new PlaylistItem(MESSAGE, text, SCROLL_SPEED, 0);
+	}
+	
+	// current time held for @param dwellMillis
+	public static PlaylistItem time(long dwellMillis) {
+		return new PlaylistItem(TIME, null, 0, dwellMillis);
+	}
+	
+	// current date held for @param dwellMillis
+	public static PlaylistItem date(long dwellMillis) {
+		return new PlaylistItem(DATE, null, 0, dwellMillis);
+	}
+	
+	// current temperature held for @param dwellMillis
+	public static PlaylistItem weather(long dwellMillis) {
+		return new PlaylistItem(WEATHER, null, 0, dwellMillis);
+	}
+	
+	// same item scrolled across once at @param columnsPerSecond instead
+	public PlaylistItem scrolling(double columnsPerSecond) {
+		if(columnsPerSecond == 0)
+			throw new IllegalArgumentException("scroll speed must not be 0");
+		return new PlaylistItem(this.kind, this.text, columnsPerSecond, 0);
+	}
+	
+	// same item held still for @param dwellMillis instead
+	public PlaylistItem dwelling(long dwellMillis) {
+		return new PlaylistItem(this.kind, this.text, 0, dwellMillis);
+	}
+	
+	public String getKind() {
+		return this.kind;
+	}
+	
+	public boolean isScrolling() {
+		return this.scrollSpeed != 0;
+	}
+	
+	@Override
+	public String toString() {
+		String shown = this.kind.equals(MESSAGE) ? "\"" + this.text + "\"" : this.kind;
+		return this.isScrolling() ? shown + " scroll @ " + this.scrollSpeed : shown + " for " + this.dwellMillis + "ms";
+	}
+}
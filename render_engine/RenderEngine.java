@@ -0,0 +1,696 @@
+// RenderEngine.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import Serial_Communication.Communication_Interface;
+import Serial_Communication.FrameProtocol;
+import animation.AnimationPlayer;
+import data_sources.ClockSource;
+import data_sources.WeatherService;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.Metrics;
+import settings.BoardGeometry;
+import settings.Settings;
+import word_processing.DigitRenderer;
+import word_processing.GrayFrame;
+import word_processing.LedFrame;
+import word_processing.SmoothRenderer;
+import word_processing.WordEvent;
+
+/**
+ * <em>RenderEngine class</em>
+ * owns what the LED board is showing and animates it on its own thread,
+ * independent of any window
+ * 
+ * holds the current state (none, sent_message, TIME, DATE, WEATHER), the
+ * scroll speed and the <em>WordEvent</em> being shown, and every tick renders
+ * the board, sends it to the arduino and moves the WordEvent along
+ * 
+ * clients (the headless command line or <em>UI_main</em>) only send commands
+ * and observe rendered frames, commands are run on the engine thread so
+ * they never race with a tick, and the thread sleeps between ticks
+ * 
+ * ticks happen at a fixed timestep of the frame rate the link can carry, and
+ * how far the WordEvent moves each tick comes from a <em>ScrollScheduler</em>,
+ * so scroll speed is in columns per second whatever the frame rate, both
+ * running on a <em>TickClock</em> that can be simulated
+ * 
+ * with smooth scrolling on, a scrolling WordEvent is drawn between columns
+ * by the part of a column due into a <em>GrayFrame</em> sent with levels of
+ * brightness, listeners being passed the LEDs at least half brightness
+ * 
+ * a frame identical to the last one is not sent or passed to listeners
+ * (e.g. TIME between minutes), apart from a keepalive every SERIAL_KEEPALIVE_MS
+ * 
+ * once what is shown scrolls off (or its dwell ends) the next item of the
+ * <em>Playlist</em> is shown, already rendered in the background
+ * 
+ * a compiled animation is shown by unpacking the frame due at each tick
+ * from an <em>AnimationPlayer</em> instead of rendering anything
+ * 
+ * the time each tick takes and the time copying the board out of the
+ * WordEvent takes are recorded in <em>Metrics</em>
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/HeadlessMain.java
+ * @see local/user_interface/UI_main.java
+ */
+public class RenderEngine implements Settings {
+	
+	// receives every frame rendered, called from the engine thread
+	public interface FrameListener {
+		void frameRendered(LedFrame frame);
+	}
+	
+	// time each tick takes, and copying the board out of the WordEvent within it
+	final static Histogram TICK = Metrics.histogram("render.tick");
+	final static Histogram OFFSET_BOARD = Metrics.histogram("render.offset_board");
+	
+	// ticks that failed
+	final static Counter ERRORS = Metrics.counter("render.errors");
+	
+	// Arduino Serial Communication, null to only render
+	final Communication_Interface comms;
+	
+	// size of the board rendered
+	final BoardGeometry geometry;
+	
+	// cached OpenWeatherMap temperature, fetched in the background
+	final WeatherService weather;
+	
+	// time source for ticks and scrolling
+	final TickClock clock;
+	
+	// turns scroll speed into columns moved each tick - engine thread only
+	private final ScrollScheduler scheduler;
+	
+	// current time and date, only changing on a minute or day boundary
+	private final ClockSource timeSource = ClockSource.time(Clock.systemDefaultZone());
+	private final ClockSource dateSource = ClockSource.date(Clock.systemDefaultZone());
+	
+	// pre-rendered digit glyphs for TIME and DATE, null until first used
+	private DigitRenderer digits;
+	
+	// source shown for TIME or DATE (null otherwise) and the frame it is drawn into
+	private ClockSource shownClock;
+	private LedFrame clockFrame;
+	
+	// items shown once the current one finishes, rendered ahead on their own thread
+	private final Playlist playlist;
+	
+	// true while a playlist item is held still, until clock.nanoTime() reaches dwellUntil
+	private boolean dwelling = false;
+	private long dwellUntil;
+	
+	// animation shown instead of wordEvent (null if none), when it started and if it repeats
+	private AnimationPlayer animation;
+	private long animationStart;
+	private boolean animationLoop;
+	
+	// skips frames identical to the last one sent - engine thread only
+	private final FrameChangeDetector detector;
+	
+	// reused buffer each tick renders into before it is compared
+	private final LedFrame scratch;
+	
+	// reused buffer smooth scrolling renders into, null if smooth scrolling is off
+	private GrayFrame grayScratch;
+	
+	// commands waiting to be run at the start of the next tick
+	private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<Runnable>();
+	
+	// runs ticks and commands, one thread so neither needs locking
+	private Thread thread;
+	
+	// The WordEvent object - only touched on the engine thread
+	private WordEvent wordEvent;
+	
+	//none, sent_message, TIME, DATE, WEATHER -
+	//Current occurring action being executed
+	private volatile String state = "none";
+	
+	// scroll direction and speed (LEDs per a second)
+	// (left) -∞ <- 0 -> ∞ (right)
+	private volatile double scroll = 0;
+	
+	// last frame rendered
+	private volatile LedFrame frame;
+	
+	private final CopyOnWriteArrayList<FrameListener> listeners = new CopyOnWriteArrayList<FrameListener>();
+	
+	private volatile boolean running = false;
+	private final CountDownLatch stopped = new CountDownLatch(1);
+	
+	/**
+	 * renders for the board of @param comms, or the default board without one
+	 * 
+	 * @param comms - Serial communication to the arduino, null to only render
+	 */
+	public RenderEngine(Communication_Interface comms) {
+		this(comms, geometryOf(comms));
+	}
+	
+	/**
+	 * @param comms - Serial communication to the arduino, null to only render
+	 * @param geometry - size of the board rendered
+	 */
+	public RenderEngine(Communication_Interface comms, BoardGeometry geometry) {
+		this(comms, geometry, new WeatherService(openweathermap_api_zipcode, openweathermap_api_key));
+	}
+	
+	/**
+	 * @param comms - Serial communication to the arduino, null to only render
+	 * @param weather - source of the temperature shown for WEATHER
+	 */
+	public RenderEngine(Communication_Interface comms, WeatherService weather) {
+		this(comms, geometryOf(comms), weather);
+	}
+	
+	/**
+	 * @param comms - Serial communication to the arduino, null to only render
+	 * @param geometry - size of the board rendered
+	 * @param weather - source of the temperature shown for WEATHER
+	 */
+	public RenderEngine(Communication_Interface comms, BoardGeometry geometry, WeatherService weather) {
+		this(comms, geometry, weather, TickClock.SYSTEM);
+	}
+	
+	/**
+	 * @param comms - Serial communication to the arduino, null to only render
+	 * @param weather - source of the temperature shown for WEATHER
+	 * @param clock - time source for ticks and scrolling, a <em>SimulatedClock</em>
+	 * 				  runs the animation as fast as it can render
+	 */
+	public RenderEngine(Communication_Interface comms, WeatherService weather, TickClock clock) {
+		this(comms, geometryOf(comms), weather, clock);
+	}
+	
+	/**
+	 * @param comms - Serial communication to the arduino, null to only render
+	 * @param geometry - size of the board rendered, each tick costs time
+	 * 					 proportional to its visible length
+	 * @param weather - source of the temperature shown for WEATHER
+	 * @param clock - time source for ticks and scrolling, a <em>SimulatedClock</em>
+	 * 				  runs the animation as fast as it can render
+	 */
+	public RenderEngine(Communication_Interface comms, BoardGeometry geometry, WeatherService weather, TickClock clock) {
+		this.comms = comms;
+		this.geometry = geometry;
+		this.weather = weather;
+		this.clock = clock;
+		this.scratch = new LedFrame(geometry.getHeight(), geometry.getVisibleLength());
+		this.frame = new LedFrame(geometry.getHeight(), geometry.getVisibleLength());
+		this.wordEvent = new WordEvent("", 0, geometry);
+		this.playlist = new Playlist(geometry, weather, new WeatherService.Listener() {
+			public void weatherUpdated(String temperature) {
+				RenderEngine.this.weatherUpdated(temperature);
+			}
+		});
+		this.scheduler = new ScrollScheduler(clock);
+		this.detector = new FrameChangeDetector(clock, SERIAL_KEEPALIVE_MS);
+		this.setSmoothScroll(Math.min(SMOOTH_SCROLL_BITS, this.getMaxSmoothBits()));
+	}
+	
+	// board of @param comms, the default board without one
+	private static BoardGeometry geometryOf(Communication_Interface comms) {
+		return comms != null ? comms.getGeometry() : BoardGeometry.DEFAULT;
+	}
+	
+	// starts ticking, calling this more than once has no effect
+	public synchronized void start() {
+		if(this.thread != null)
+			return;
+		this.running = true;
+		this.thread = new Thread(new Runnable() {
+			public void run() {
+				loop();
+			}
+		}, "render-engine");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	// stops ticking and releases the engine thread
+	public synchronized void stop() {
+		this.running = false;
+		if(this.thread != null)
+			this.thread.interrupt();
+		this.weather.shutdown();
+		this.playlist.shutdown();
+		this.stopped.countDown();
+	}
+	
+	// blocks until stop() is called
+	public void awaitStop() throws InterruptedException {
+		this.stopped.await();
+	}
+	
+	
+	/**     COMMANDS     **/
+	
+	/**
+	 * scrolls @param text across the board from its right edge as a sent_message,
+	 * the playlist carries on once it has scrolled off
+	 * 
+	 * @implNote @param text is rendered on the calling thread, not the engine thread
+	 */
+	public void sendMessage(final String text) {
+		final LedFrame message = new WordEvent(text, 0, this.geometry).getMessage();
+		this.run(new Runnable() {
+			public void run() {
+				display_change("sent_message", -SCROLL_SPEED);
+				wordEvent = new WordEvent(message, -geometry.getLength(), geometry);
+			}
+		});
+	}
+	
+	/**
+	 * adds @param item to the end of the playlist, shown once everything
+	 * before it has finished
+	 */
+	public void enqueue(PlaylistItem item) {
+		this.playlist.add(item);
+	}
+	
+	/**
+	 * replaces the playlist with @param items, starting once what is shown now finishes
+	 * 
+	 * @param loop - true to repeat the items until reset
+	 */
+	public void play(Collection<PlaylistItem> items, boolean loop) {
+		this.playlist.clear();
+		this.playlist.setLoop(loop);
+		this.playlist.addAll(items);
+	}
+	
+	/**
+	 * performs a button option of Settings.OPTIONS
+	 * 
+	 * @param option - TIME, DATE or WEATHER to show it, PAUSE to toggle scrolling
+	 */
+	public void select(final String option) {
+		this.run(new Runnable() {
+			public void run() {
+				switch(option) {
+				
+				//toggles scrolling left
+				case "PAUSE":
+					setScroll(scroll != 0 ? 0 : -SCROLL_SPEED);
+					break;
+					
+				//TIME OPTION
+				case "TIME":
+					display_change("TIME", 0);
+					showClock(timeSource);
+					break;
+					
+				//DATE OPTION
+				case "DATE":
+					display_change("DATE", 0);
+					showClock(dateSource);
+					break;
+					
+				//WEATHER OPTION - shows last known temperature straight away,
+				//weatherUpdated() replaces it once a background fetch finishes
+				case "WEATHER":
+					display_change("WEATHER", 0);
+					wordEvent = new WordEvent(weather.get(new WeatherService.Listener() {
+						public void weatherUpdated(String temperature) {
+							RenderEngine.this.weatherUpdated(temperature);
+						}
+					}), 0, geometry);
+					break;
+				}
+			}
+		});
+	}
+	
+	/**
+	 * changes scroll speed without changing what is shown
+	 * 
+	 * @param columnsPerSecond - negative scrolls left, positive right, may be fractional
+	 */
+	public void scroll(final double columnsPerSecond) {
+		this.run(new Runnable() {
+			public void run() {
+				setScroll(columnsPerSecond);
+			}
+		});
+	}
+	
+	/**
+	 * turns smooth scrolling between columns on or off
+	 * 
+	 * @param bits - bits of brightness per LED (1 to getMaxSmoothBits()), 0
+	 * 				 to scroll a whole column at a time
+	 * 
+	 * @exception IllegalArgumentException if @param bits is out of range
+	 * @see local/word_processing/SmoothRenderer.java
+	 */
+	public void smoothScroll(final int bits) {
+		int max = this.getMaxSmoothBits();
+		if(bits < 0 || bits > max)
+			throw new IllegalArgumentException("bits must be between 0 and " + max + ": " + bits);
+		this.run(new Runnable() {
+			public void run() {
+				setSmoothScroll(bits);
+			}
+		});
+	}
+	
+	/**
+	 * replays a compiled animation from its first frame, paced by its own frame rate
+	 * 
+	 * @param player - the animation, owned by the engine from now on
+	 * @param loop - true to repeat it until something else is shown, otherwise
+	 * 				 the playlist carries on once it ends
+	 */
+	public void playAnimation(final AnimationPlayer player, final boolean loop) {
+		this.run(new Runnable() {
+			public void run() {
+				display_change("animation", 0);
+				animation = player;
+				animationLoop = loop;
+				animationStart = clock.nanoTime();
+			}
+		});
+	}
+	
+	/**
+	 * moves the animation being played to @param frame
+	 */
+	public void seekAnimation(final int frame) {
+		this.run(new Runnable() {
+			public void run() {
+				if(animation != null && frame >= 0 && frame < animation.getFrameCount())
+					animationStart = clock.nanoTime() - (long) (frame * 1e9 / animation.getFrameRate());
+			}
+		});
+	}
+	
+	/**
+	 * resets board state to no current action, emptying the playlist
+	 */
+	public void reset() {
+		this.playlist.clear();
+		this.run(new Runnable() {
+			public void run() {
+				display_changeRESET();
+			}
+		});
+	}
+	
+	
+	/**     OBSERVERS     **/
+	
+	// last frame rendered, must not be modified
+	public LedFrame getFrame() {
+		return this.frame;
+	}
+	
+	// frames rendered identical to the last one and so not sent
+	public long getFramesSkipped() {
+		return this.detector.getFramesSkipped();
+	}
+	
+	// frames sent to the arduino and listeners
+	public long getFramesPassed() {
+		return this.detector.getFramesPassed();
+	}
+	
+	public BoardGeometry getGeometry() {
+		return this.geometry;
+	}
+	
+	public Playlist getPlaylist() {
+		return this.playlist;
+	}
+	
+	public String getState() {
+		return this.state;
+	}
+	
+	public double getScroll() {
+		return this.scroll;
+	}
+	
+	// most bits of brightness smooth scrolling can send in one packet on this board
+	public int getMaxSmoothBits() {
+		return FrameProtocol.maxGrayBits(this.geometry.getHeight(), this.geometry.getLength());
+	}
+	
+	// bits of brightness of smooth scrolling, 0 if off - engine thread only
+	int getSmoothBits() {
+		return this.grayScratch != null ? this.grayScratch.getBits() : 0;
+	}
+	
+	public void addFrameListener(FrameListener listener) {
+		this.listeners.add(listener);
+	}
+	
+	public void removeFrameListener(FrameListener listener) {
+		this.listeners.remove(listener);
+	}
+	
+	
+	/**     ENGINE THREAD     **/
+	
+	/**
+	 * ticks at a fixed timestep of the frame rate the link can carry until
+	 * stopped, after a stall the next tick happens straight away rather than
+	 * bursting through every missed tick (scrolling catches up by time)
+	 */
+	void loop() {
+		long next = this.clock.nanoTime();
+		while(this.running) {
+			
+			Runnable command;
+			while((command = this.commands.poll()) != null) {
+				command.run();
+			}
+			this.tick();
+			
+			long period = (long) (1e9 / this.getFrameRate());
+			next += period;
+			if(this.clock.nanoTime() - next > period)
+				next = this.clock.nanoTime();
+			
+			try {
+				this.clock.sleepUntil(next);
+			} catch(InterruptedException e) {
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * renders the board, sends it to the arduino if it changed, then moves
+	 * the WordEvent along by the columns the scroll speed has made due
+	 */
+	void tick() {
+		long start = System.nanoTime();
+		try {
+			// compiled animation - nothing to render or move
+			if(this.animation != null) {
+				this.animationTick();
+				return;
+			}
+			
+			// current board is rendered once and shared by every observer,
+			// unless it is the same as the last frame sent
+			boolean smooth = this.grayScratch != null && this.scheduler.getSpeed() != 0;
+			if(smooth) {
+				
+				//moved first, then drawn the part of a column further on that is due
+				this.wordEvent.move(-this.scheduler.advance());
+				SmoothRenderer.render(this.wordEvent.getMessage(), 
+						this.wordEvent.getPosition() - this.scheduler.getFraction(), this.grayScratch);
+				OFFSET_BOARD.record(System.nanoTime() - start);
+				this.publishGray();
+			}
+			else {
+				this.wordEvent.get_offset_board(this.scratch);
+				OFFSET_BOARD.record(System.nanoTime() - start);
+				this.publish();
+			}
+			
+			//UPDATE TIME OR DATE IN PLACE ONCE IT CHANGES, IF SELECTED AND NOT MOVED
+			if(this.shownClock != null && this.wordEvent.getPosition()<=0 && this.shownClock.poll())
+				this.digits.render(this.shownClock.getText(), this.clockFrame);
+			
+			if(!smooth)
+				this.wordEvent.move(-this.scheduler.advance());
+			
+			//SHOW NEXT PLAYLIST ITEM ONCE CURRENT ONE FINISHES (OR NOTHING IS SHOWN)
+			boolean finished = this.wordEvent.getSize() - this.wordEvent.getPosition() < 0
+					|| (this.dwelling && this.clock.nanoTime() - this.dwellUntil >= 0);
+			if(finished || this.state.equals("none")) {
+				Playlist.Prepared next = this.playlist.take();
+				if(next != null)
+					this.show(next);
+				else if(finished)
+					this.display_changeRESET();
+			}
+		} catch(RuntimeException e) {
+			ERRORS.increment();
+			e.printStackTrace();
+		} finally {
+			TICK.record(System.nanoTime() - start);
+		}
+	}
+	
+	// sends this.scratch to the arduino and listeners, unless it did not change -
+	// one copy is made, shared by all of them
+	private void publish() {
+		if(this.detector.changed(this.scratch)) {
+			LedFrame rendered = new LedFrame(this.scratch);
+			this.detector.passed(rendered);
+			this.frame = rendered;
+			if(this.comms != null)
+				this.comms.publish(rendered);
+			for(FrameListener listener : this.listeners) {
+				listener.frameRendered(rendered);
+			}
+		}
+	}
+	
+	// sends this.grayScratch to the arduino, and the LEDs at least half
+	// brightness to listeners, unless it did not change
+	private void publishGray() {
+		if(this.detector.changed(this.grayScratch)) {
+			GrayFrame rendered = new GrayFrame(this.grayScratch);
+			this.detector.passed(rendered);
+			LedFrame brightest = new LedFrame(rendered.getPlane(rendered.getBits() - 1));
+			this.frame = brightest;
+			if(this.comms != null)
+				this.comms.publish(rendered);
+			for(FrameListener listener : this.listeners) {
+				listener.frameRendered(brightest);
+			}
+		}
+	}
+	
+	// shows the frame of this.animation due now, moving on to the playlist once it ends
+	private void animationTick() {
+		int due = this.animation.frameAt(this.clock.nanoTime() - this.animationStart, this.animationLoop);
+		if(due < 0) {
+			this.display_changeRESET();
+			Playlist.Prepared next = this.playlist.take();
+			if(next != null)
+				this.show(next);
+			return;
+		}
+		this.scratch.clear();
+		this.animation.frame(due, this.scratch);
+		this.publish();
+	}
+	
+	// frame rate the animation runs at
+	double getFrameRate() {
+		return this.comms != null ? this.comms.getFrameRate() : DEFAULT_ANIMATION_FPS;
+	}
+	
+	// called from the weather thread, shows @param temperature if still on WEATHER
+	void weatherUpdated(final String temperature) {
+		this.run(new Runnable() {
+			public void run() {
+				if(state.equals("WEATHER"))
+					wordEvent = new WordEvent(temperature, 0, geometry);
+			}
+		});
+	}
+	
+	/**
+	 * changes setting state of state and scroll (RESET brings back to default [state:none, scroll:0])
+	 * 
+	 * @param state - the state to be set to
+	 * @param scroll - the scroll value to be set to
+	 */
+	void display_change(String state, double scroll) {
+		this.state = state;
+		this.shownClock = null;
+		this.dwelling = false;
+		this.setScroll(scroll);
+		
+		//an animation replaced by anything else is finished with
+		if(this.animation != null) {
+			try {
+				this.animation.close();
+			} catch(IOException e) {
+				e.printStackTrace();
+			}
+			this.animation = null;
+		}
+	}
+	
+	// shows playlist item @param next, already rendered by the playlist
+	void show(Playlist.Prepared next) {
+		PlaylistItem item = next.item;
+		this.display_change(item.kind, -item.scrollSpeed);
+		
+		//scrolls in from the right edge of the board
+		if(item.isScrolling()) {
+			this.wordEvent = new WordEvent(next.message, -this.geometry.getLength(), this.geometry);
+			return;
+		}
+		
+		//held still, TIME and DATE kept up to date like the buttons
+		this.wordEvent = new WordEvent(next.message, 0, this.geometry);
+		this.dwelling = true;
+		this.dwellUntil = this.clock.nanoTime() + item.dwellMillis * 1000000L;
+		if(item.kind.equals(PlaylistItem.TIME) || item.kind.equals(PlaylistItem.DATE)) {
+			ClockSource source = item.kind.equals(PlaylistItem.TIME) ? this.timeSource : this.dateSource;
+			if(this.digits == null)
+				this.digits = new DigitRenderer(this.geometry);
+			source.poll();
+			this.clockFrame = next.message;
+			if(!source.getText().equals(next.text))
+				this.digits.render(source.getText(), this.clockFrame);
+			this.shownClock = source;
+		}
+	}
+	
+	// shows @param source drawn from pre-rendered digits, redrawn in tick() when it changes
+	void showClock(ClockSource source) {
+		if(this.digits == null)
+			this.digits = new DigitRenderer(this.geometry);
+		
+		source.poll();
+		String text = source.getText();
+		this.clockFrame = this.digits.frameFor(text);
+		this.digits.render(text, this.clockFrame);
+		this.wordEvent = new WordEvent(this.clockFrame, 0, this.geometry);
+		this.shownClock = source;
+	}
+	
+	// smooth scrolling with @param bits of brightness, 0 for off
+	void setSmoothScroll(int bits) {
+		this.grayScratch = bits > 0 ? new GrayFrame(this.geometry.getHeight(), this.geometry.getVisibleLength(), bits) : null;
+	}
+	
+	// changes scroll speed, columns per second (negative is left)
+	void setScroll(double scroll) {
+		this.scroll = scroll;
+		this.scheduler.setSpeed(scroll);
+	}
+	
+	// resets board state to no current action
+	void display_changeRESET() {
+		this.display_change("none", 0);
+		this.wordEvent = new WordEvent("", 0, this.geometry);
+	}
+	
+	// runs @param command on the engine thread at the start of the next tick
+	private void run(Runnable command) {
+		this.commands.add(command);
+	}
+}
@@ -0,0 +1,86 @@
+// ScrollScheduler.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+/**
+ * <em>ScrollScheduler class</em>
+ * turns a scroll speed in columns per second into whole column moves
+ * for each tick, driven by a <em>TickClock</em> instead of by how often
+ * ticks happen
+ * 
+ * the number of columns moved since the speed was last set is always the
+ * whole part of speed * elapsed seconds, so fractional speeds work, and a
+ * tick after a stall moves exactly the columns that were missed
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/RenderEngine.java
+ */
+public class ScrollScheduler {
+	
+	final TickClock clock;
+	
+	//columns per second, the sign is the direction of movement
+	private double speed = 0;
+	
+	//time the speed was last set
+	private long anchor;
+	
+	//columns moved since anchor
+	private long moved = 0;
+	
+	//columns due at a previous speed not yet returned by advance()
+	private long pending = 0;
+	
+	public ScrollScheduler(TickClock clock) {
+		this.clock = clock;
+		this.anchor = clock.nanoTime();
+	}
+	
+	/**
+	 * changes the speed from now on, columns owed at the old speed are kept
+	 * 
+	 * @param speed - columns per second, may be fractional or negative
+	 */
+	public void setSpeed(double speed) {
+		this.pending += this.due();
+		this.speed = speed;
+		this.anchor = this.clock.nanoTime();
+		this.moved = 0;
+	}
+	
+	public double getSpeed() {
+		return this.speed;
+	}
+	
+	/**
+	 * @return the whole number of columns to move by now, the sign
+	 * 		   of the speed, 0 if less than one column is due
+	 */
+	public int advance() {
+		long columns = this.pending + this.due();
+		this.pending = 0;
+		return (int) columns;
+	}
+	
+	/**
+	 * part of a column moved beyond the whole columns advance() returns, for
+	 * drawing between columns, with the sign of the speed
+	 * 
+	 * @return between -1 and 1 (exclusive)
+	 */
+	public double getFraction() {
+		double exact = this.speed * (this.clock.nanoTime() - this.anchor) / 1e9;
+		return exact - (long) exact;
+	}
+	
+	// columns due since the last call at the current speed
+	private long due() {
+		long elapsed = this.clock.nanoTime() - this.anchor;
+		long total = (long) (this.speed * elapsed / 1e9);
+		long columns = total - this.moved;
+		this.moved = total;
+		return columns;
+	}
+}
@@ -0,0 +1,49 @@
+// SimulatedClock.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <em>SimulatedClock class</em>
+ * a <em>TickClock</em> that only moves when told to: sleeping jumps
+ * straight to the deadline, so an engine on this clock runs as fast as
+ * it can render instead of in real time (for tests and benchmarks)
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/TickClock.java
+ */
+public class SimulatedClock implements TickClock {
+	
+	private final AtomicLong now;
+	
+	public SimulatedClock() {
+		this(0L);
+	}
+	
+	public SimulatedClock(long start) {
+		this.now = new AtomicLong(start);
+	}
+	
+	public long nanoTime() {
+		return this.now.get();
+	}
+	
+	// jumps to @param deadline if it is in the future
+	public void sleepUntil(long deadline) throws InterruptedException {
+		if(Thread.interrupted())
+			throw new InterruptedException();
+		
+		long current;
+		while((current = this.now.get()) < deadline && !this.now.compareAndSet(current, deadline)) {
+			continue;
+		}
+	}
+	
+	// moves time forward by @param nanos, e.g. to simulate a stall
+	public void advance(long nanos) {
+		this.now.addAndGet(nanos);
+	}
+}
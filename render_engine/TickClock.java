@@ -0,0 +1,46 @@
+// TickClock.java
+// Author: Vivaan Mahtab
+
+package render_engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <em>TickClock interface</em>
+ * monotonic time source the <em>RenderEngine</em> and <em>ScrollScheduler</em>
+ * run on, so animation can be driven by something other than real time
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/render_engine/SimulatedClock.java
+ */
+public interface TickClock {
+	
+	// current time in nanoseconds, only differences between calls are meaningful
+	long nanoTime();
+	
+	/**
+	 * waits until nanoTime() reaches @param deadline
+	 * 
+	 * @exception InterruptedException if the waiting thread is interrupted
+	 */
+	void sleepUntil(long deadline) throws InterruptedException;
+	
+	
+	// real time, System.nanoTime()
+	TickClock SYSTEM = new TickClock() {
+		
+		public long nanoTime() {
+			return System.nanoTime();
+		}
+		
+		public void sleepUntil(long deadline) throws InterruptedException {
+			long remaining;
+			while((remaining = deadline - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(this, remaining);
+				if(Thread.interrupted())
+					throw new InterruptedException();
+			}
+		}
+	};
+}
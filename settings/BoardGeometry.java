@@ -0,0 +1,156 @@
+// BoardGeometry.java
+// Author: Vivaan Mahtab
+
+package settings;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * <em>BoardGeometry class</em>
+ * the size of the physical LED board, read at startup from
+ * BOARD_CONFIG_FILE so that a different installation (e.g. a 32x480
+ * roof wall) only needs a different file rather than a recompile
+ * 
+ * passed explicitly to <em>WordEvent</em>, <em>WordConstructor</em>, the
+ * display methods and <em>Communication_Interface</em>
+ * 
+ * BOARD_CONFIG_FILE is a properties file, any key left out keeps the
+ * value from Settings:
+ * 
+ * 		board.height=32
+ * 		board.length=480
+ * 		board.preview_excess=10
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote character designs keep their own height and are drawn from
+ * 			 the top row of a taller board
+ * @see local/src/settings/Settings
+ */
+public final class BoardGeometry implements Settings {
+	
+	//most rows a board can have (the bits in a packed column)
+	public final static int MAX_HEIGHT = Long.SIZE;
+	
+	//the board Settings describes, used if there is no BOARD_CONFIG_FILE
+	public final static BoardGeometry DEFAULT = new BoardGeometry(BULB_GRID_HEIGHT, BULB_GRID_LENGTH, USER_INTERFACE_EXCESS_LENGTH);
+	
+	//rows and columns of the physical board
+	private final int height;
+	private final int length;
+	
+	//columns previewed past the physical board for readability
+	private final int excess;
+	
+	/**
+	 * @param height - rows of the physical board, 1 to MAX_HEIGHT
+	 * @param length - columns of the physical board, 1 or more
+	 * @param excess - extra columns shown by the preview, 0 or more
+	 * 
+	 * @exception IllegalArgumentException if any is out of range
+	 */
+	public BoardGeometry(int height, int length, int excess) {
+		if(height < 1 || height > MAX_HEIGHT)
+			throw new IllegalArgumentException("board height must be between 1 and " + MAX_HEIGHT + ": " + height);
+		if(length < 1)
+			throw new IllegalArgumentException("board length must be at least 1: " + length);
+		if(excess < 0)
+			throw new IllegalArgumentException("preview excess must not be negative: " + excess);
+		
+		this.height = height;
+		this.length = length;
+		this.excess = excess;
+	}
+	
+	/**
+	 * reads BOARD_CONFIG_FILE from the working directory
+	 * 
+	 * @return the geometry it describes, DEFAULT if there is no such file
+	 * 
+	 * @see BoardGeometry.load(File)
+	 */
+	public static BoardGeometry load() {
+		return load(new File(System.getProperty("user.dir"), BOARD_CONFIG_FILE));
+	}
+	
+	/**
+	 * reads the geometry described by @param file
+	 * 
+	 * @return the geometry it describes, DEFAULT if there is no such file
+	 * 
+	 * @exception if the file cannot be read or is invalid, the error is
+	 * 			  printed and DEFAULT is returned
+	 */
+	public static BoardGeometry load(File file) {
+		if(!file.isFile())
+			return DEFAULT;
+		
+		Properties properties = new Properties();
+		try(InputStream in = new FileInputStream(file)) {
+			properties.load(in);
+			return new BoardGeometry(
+					read(properties, "board.height", DEFAULT.height),
+					read(properties, "board.length", DEFAULT.length),
+					read(properties, "board.preview_excess", DEFAULT.excess));
+			
+		} catch(IOException | IllegalArgumentException e) {
+			System.err.println("BoardGeometry: unable to use " + file.getPath() + " (" + e.getMessage() + "), using "
+					+ DEFAULT);
+			return DEFAULT;
+		}
+	}
+	
+	// integer value of @param key, @param missing if absent
+	private static int read(Properties properties, String key, int missing) {
+		String value = properties.getProperty(key);
+		if(value == null)
+			return missing;
+		try {
+			return Integer.parseInt(value.trim());
+		} catch(NumberFormatException e) {
+			throw new IllegalArgumentException(key + " is not a whole number: " + value);
+		}
+	}
+	
+	// rows of the physical board
+	public int getHeight() {
+		return this.height;
+	}
+	
+	// columns of the physical board
+	public int getLength() {
+		return this.length;
+	}
+	
+	// extra columns shown by the preview
+	public int getExcess() {
+		return this.excess;
+	}
+	
+	// columns rendered each frame, the physical board plus the preview excess
+	public int getVisibleLength() {
+		return this.length + this.excess;
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		if(!(other instanceof BoardGeometry))
+			return false;
+		BoardGeometry geometry = (BoardGeometry) other;
+		return this.height == geometry.height && this.length == geometry.length && this.excess == geometry.excess;
+	}
+	
+	@Override
+	public int hashCode() {
+		return (this.height * 31 + this.length) * 31 + this.excess;
+	}
+	
+	@Override
+	public String toString() {
+		return this.height + "x" + this.length + " (+" + this.excess + " preview)";
+	}
+}
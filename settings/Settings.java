@@ -9,13 +9,64 @@ public interface Settings {
 	public final static String openweathermap_api_key = "";
 	public final static String openweathermap_api_zipcode = "";
 	
+	//HOW LONG A FETCHED TEMPERATURE IS SHOWN BEFORE IT IS REFRESHED, AND
+	//HOW LONG TO WAIT ON OPENWEATHERMAP BEFORE GIVING UP (MILLISECONDS)
+		public final static long WEATHER_CACHE_TTL_MS = 10 * 60 * 1000;
+		public final static int WEATHER_CONNECT_TIMEOUT_MS = 5000;
+		public final static int WEATHER_READ_TIMEOUT_MS = 5000;
 	
-	/**     USER INTERFACE SETTINGS     **/
 	
+	/**     USER INTERFACE SETTINGS     **/
+
+	//DEFAULT BOARD SIZE, USED UNLESS BOARD_CONFIG_FILE GIVES ANOTHER (SEE BoardGeometry)
 	//MAX HEIGHT OF GRID
 		public final static int BULB_GRID_HEIGHT = 10;
 		//LENGTH OF PHYSICAL GRID
 		public final static int BULB_GRID_LENGTH = 30;
+
+	//FILE IN THE WORKING DIRECTORY THE BOARD SIZE IS READ FROM AT STARTUP
+		public final static String BOARD_CONFIG_FILE = "board.properties";
+
+	//MOST CHARACTER DESIGNS KEPT DECODED IN MEMORY, THE REST ARE READ FROM THE FONT WHEN USED
+		public final static int GLYPH_CACHE_SIZE = 512;
+	
+	
+	/**     SERIAL SETTINGS     **/
+	
+	//BAUD RATE OF SERIAL PORT (MUST MATCH ARDUINO, UP TO 1000000+ IF BOARD SUPPORTS IT)
+		public final static int SERIAL_BAUD_RATE = 9600;
+		
+	//MILLISECONDS TO WAIT FOR ARDUINO TO ACKNOWLEDGE A FRAME BEFORE SENDING IT AGAIN
+		public final static int SERIAL_ACK_TIMEOUT_MS = 100;
+		
+	//FRAMES SENT BEFORE THE FIRST IS ACKNOWLEDGED (1 TO 127), AND THE ARDUINO'S SERIAL
+	//RECEIVE BUFFER THEY MUST FIT IN (64 BYTES ON AN UNO), 0 FRAMES FOR ARDUINO
+	//SKETCHES THAT ONLY SEND ONE BYTE PER PACKET (NO SEQUENCE NUMBERS)
+		public final static int SERIAL_WINDOW = 4;
+		public final static int SERIAL_RX_BUFFER_BYTES = 64;
+		
+	//SEND FRAMES AS COMPRESSED COLUMNS WHENEVER SHORTER (ARDUINO SKETCH MUST DECODE TYPE_COLUMNS PACKETS)
+		public final static boolean SERIAL_COMPRESSION = true;
+		
+	//MILLISECONDS AN UNCHANGED FRAME IS SKIPPED FOR BEFORE IT IS SENT AGAIN AS A KEEPALIVE
+		public final static int SERIAL_KEEPALIVE_MS = 1000;
+		
+	//ANIMATION FRAMES PER SECOND WITHOUT A SERIAL PORT, AND MAXIMUM WITH ONE
+		public final static double DEFAULT_ANIMATION_FPS = 60.0 / 7;
+		public final static double MAX_ANIMATION_FPS = 60;
+		
+	//SCROLL SPEED IN COLUMNS PER SECOND (MAY BE FRACTIONAL), INDEPENDENT OF FRAME RATE
+		public final static double SCROLL_SPEED = 60.0 / 7;
+		
+	//BITS OF BRIGHTNESS PER LED FOR SMOOTH SCROLLING BETWEEN COLUMNS (1 TO 8), 0 FOR
+	//WHOLE COLUMN JUMPS - THE ARDUINO SKETCH MUST UNDERSTAND GRAY PACKETS
+		public final static int SMOOTH_SCROLL_BITS = 0;
+		
+	//MILLISECONDS A QUEUED TIME, DATE OR WEATHER IS SHOWN BEFORE THE NEXT PLAYLIST ITEM
+		public final static long PLAYLIST_DWELL_MS = 5000;
+		
+	//MILLISECONDS BETWEEN METRICS LINES IN THE LOG (0 FOR NONE), METRICS ARE ALSO ON JMX
+		public final static long METRICS_LOG_INTERVAL_MS = 60 * 1000;
 	
 	
 	/**      USER INTERFACE SETTINGS     **/
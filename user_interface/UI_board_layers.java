@@ -0,0 +1,83 @@
+// UI_board_layers.java
+// Author: Vivaan Mahtab
+
+package user_interface;
+
+import processing.core.PApplet;
+import processing.core.PFont;
+import processing.core.PGraphics;
+import settings.BoardGeometry;
+import settings.Settings;
+import word_processing.LedFrame;
+
+/**
+ * offscreen layers for the parts of the UI window that rarely change,
+ * so <em>UI_main</em> blits them each frame instead of redrawing them
+ * 
+ * the background and buttons are drawn once, the LED board is kept on its
+ * own layer and only LEDs that changed since the last frame are redrawn
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/src/user_interface/UI_display_methods
+ * @see local/src/user_interface/UI_main
+ */
+public class UI_board_layers implements Settings {
+	
+	// background and buttons, drawn once
+	final PGraphics staticLayer;
+	
+	// LED board, only changed LEDs are redrawn
+	final PGraphics boardLayer;
+	
+	// size of the board previewed
+	final BoardGeometry geometry;
+	
+	// the frame last drawn onto boardLayer, null if none
+	private LedFrame shown = null;
+	
+	/**
+	 * draws the static layer and an empty LED board
+	 * 
+	 * @param p - a processing PApplet application
+	 * @param font - font the buttons are labelled in
+	 * @param geometry - size of the board to preview
+	 */
+	public UI_board_layers(PApplet p, PFont font, BoardGeometry geometry) {
+		
+		this.geometry = geometry;
+		
+		this.staticLayer = p.createGraphics(WIDTH, HEIGHT);
+		this.staticLayer.beginDraw();
+		this.staticLayer.background(255);
+		this.staticLayer.textFont(font);
+		UI_display_methods.draw_buttons(this.staticLayer, OPTIONS);
+		this.staticLayer.endDraw();
+		
+		this.boardLayer = p.createGraphics(UI_display_methods.grid_width(geometry), UI_display_methods.grid_height(geometry));
+		this.boardLayer.beginDraw();
+		UI_display_methods.draw_empty_LED_board(this.boardLayer, geometry);
+		this.boardLayer.endDraw();
+	}
+	
+	/**
+	 * brings the LED board up to date with @param frame and blits both
+	 * layers onto the UI window
+	 * 
+	 * @param p - a processing PApplet application
+	 * @param frame - the frame to preview
+	 */
+	public void draw(PApplet p, LedFrame frame) {
+		
+		// redraw only LEDs that changed, nothing if the frame did not
+		if(!frame.equals(this.shown)) {
+			this.boardLayer.beginDraw();
+			UI_display_methods.draw_changed_LEDs(this.boardLayer, this.geometry, this.shown, frame);
+			this.boardLayer.endDraw();
+			this.shown = frame;
+		}
+		
+		p.image(this.staticLayer, 0, 0);
+		p.image(this.boardLayer, UI_display_methods.board_x(this.geometry), UI_display_methods.board_y(this.geometry));
+	}
+}
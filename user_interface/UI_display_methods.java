@@ -6,7 +6,10 @@ package user_interface;
 
 import Serial_Communication.Communication_Interface;
 import processing.core.PApplet;
+import processing.core.PGraphics;
+import settings.BoardGeometry;
 import settings.Settings;
+import word_processing.LedFrame;
 
 
 /**
@@ -19,65 +22,112 @@ import settings.Settings;
  */
 public class UI_display_methods implements Settings{
 	
+	//most pixels between neighbouring LEDs, boards too large for the window are scaled down
+	final static float MAX_LED_PITCH = 20;
+	
+	/**
+	 * pixels between neighbouring LEDs of @param geometry, the largest up to
+	 * MAX_LED_PITCH that fits the board across the window and in its lower half
+	 */
+	static float led_pitch(BoardGeometry geometry) {
+		return Math.min(MAX_LED_PITCH, Math.min((WIDTH - MAX_LED_PITCH) / (geometry.getVisibleLength() + 0.6f), 
+				(HEIGHT / 2f) / (geometry.getHeight() + 0.6f)));
+	}
+	
+	// width and height in pixels of the LED board (GRID_WIDTH and GRID_HEIGHT for the default board)
+	static int grid_width(BoardGeometry geometry) {
+		return (int) Math.ceil(led_pitch(geometry) * (geometry.getVisibleLength() + 0.6f));
+	}
+	
+	static int grid_height(BoardGeometry geometry) {
+		return (int) Math.ceil(led_pitch(geometry) * (geometry.getHeight() + 0.6f));
+	}
+	
+	//top left corner of the LED board within the UI window
+	static int board_x(BoardGeometry geometry) {
+		return (WIDTH/2)-(grid_width(geometry)/2);
+	}
+	
+	static int board_y(BoardGeometry geometry) {
+		return HEIGHT- 5*grid_height(geometry)/4;
+	}
+	
+	//text last measured by draw_textbox() and its width
+	private static String measuredText = null;
+	private static float measuredWidth = 0;
+	
 	/**
-	 * displays an empty board that represents the physical LEDs on a UI window
-	 * This grid is GRID_WIDTH by GRID_HEIGHT pixels containing
-	 * BULB_GRID_LENGTH by BULB_GRID_HEIGHT circles representing LEDs
+	 * displays an empty board that represents the physical LEDs onto a layer
+	 * This grid is grid_width() by grid_height() pixels containing
+	 * visible length by height circles representing LEDs
 	 * 
-	 * @param p - a processing PApplet application
-	 * @see local/src/settings/Settings
+	 * @param g - a processing layer at least grid_width() by grid_height(), drawn from its top left
+	 * @param geometry - size of the board
+	 * @see local/src/settings/BoardGeometry
+	 * @see local/src/user_interface/UI_board_layers
 	 */
-	public static void draw_empty_LED_board(PApplet p) {
+	public static void draw_empty_LED_board(PGraphics g, BoardGeometry geometry) {
 		
+		float pitch = led_pitch(geometry);
 		
-		p.pushMatrix();
-		p.translate((WIDTH/2)-(GRID_WIDTH/2), (HEIGHT- 5*GRID_HEIGHT/4));
-		p.noStroke();
-		p.fill(0);
+		g.noStroke();
+		g.fill(0);
 		
 		//black rectangular background
-		p.rect(0, 0, GRID_WIDTH, GRID_HEIGHT);
+		g.rect(0, 0, grid_width(geometry), grid_height(geometry));
 		
-		p.stroke(255);
-		p.noFill();
+		g.stroke(255);
+		g.noFill();
 		
 		//draws circles on background to represent LEDs
-		for(int row = 0; row < BULB_GRID_HEIGHT; row++) {
-			for(int col =0; col < BULB_GRID_LENGTH + USER_INTERFACE_EXCESS_LENGTH; col++) {
-					p.circle(20 * col + 12, 20 * row + 12, 12);
+		for(int row = 0; row < geometry.getHeight(); row++) {
+			for(int col =0; col < geometry.getVisibleLength(); col++) {
+					g.circle(pitch * (col + 0.6f), pitch * (row + 0.6f), pitch * 0.6f);
 				}
 		}
-		p.popMatrix();
 	}
 	
 	/**
-	 * displays a filled board that represents the physical LEDs on a UI window
+	 * redraws only the LEDs that differ between @param previous and @param grid
+	 * onto a layer holding the board as @param previous left it
 	 * 
-	 * @param p - a processing PApplet application
-	 * @param grid - the offset grid of LEDs represented by TRUE and FALSE indicators
+	 * @param g - the layer draw_empty_LED_board() was drawn onto
+	 * @param geometry - size of the board
+	 * @param previous - the frame last drawn onto @param g, null if none
+	 * @param grid - the offset grid of LEDs packed into a <em>LedFrame</em>
 	 * 				 the method to retrieve this is get_offset_grid() in <em>WordEvent</em>
 	 * 
 	 * @see local/src/word_processing/WordEvent
 	 */
-	public static void draw_filled_LED_board(PApplet p, String[] grid) {
-		p.pushMatrix();
-		p.translate((WIDTH/2)-(GRID_WIDTH/2), (HEIGHT- 5*GRID_HEIGHT/4));
-		p.noStroke();
-		p.fill(255, 0, 0);
-		
-		// final column to draw to - conditional if maximum length of UI or current grid is shorter
-		int colMax = grid[0].length()<BULB_GRID_LENGTH + USER_INTERFACE_EXCESS_LENGTH? grid[0].length() 
-														: BULB_GRID_LENGTH + USER_INTERFACE_EXCESS_LENGTH;
-		
-		// draws RED circles to represent an ON LED at corresponding locations of grid
-		for(int row = 0; row < grid.length; row++) {
-			for(int col =0; col < colMax; col++) {
-					if(grid[row].charAt(col)=='1') {
-						p.circle(20 * col + 12, 20 * row + 12, 12);
-					}
+	public static void draw_changed_LEDs(PGraphics g, BoardGeometry geometry, LedFrame previous, LedFrame grid) {
+		
+		float pitch = led_pitch(geometry);
+		
+		for(int col = 0; col < geometry.getVisibleLength(); col++) {
+			
+			long on = grid.getColumn(col);
+			long changed = previous == null ? -1L >>> (64 - geometry.getHeight()) : on ^ previous.getColumn(col);
+			
+			// visits only the set bits (changed LEDs) of each packed column
+			for(long bits = changed; bits != 0; bits &= bits - 1) {
+				int row = Long.numberOfTrailingZeros(bits);
+				
+				// clear cell back to black background
+				g.noStroke();
+				g.fill(0);
+				g.rect(pitch * (col + 0.1f), pitch * (row + 0.1f), pitch, pitch);
+				
+				// RED circle for an ON LED, outline for an OFF LED
+				if((on >>> row & 1L) != 0) {
+					g.fill(255, 0, 0);
+				}
+				else {
+					g.stroke(255);
+					g.noFill();
 				}
+				g.circle(pitch * (col + 0.6f), pitch * (row + 0.6f), pitch * 0.6f);
+			}
 		}
-		p.popMatrix();
 	}
 	
 	/**
@@ -90,7 +140,13 @@ public class UI_display_methods implements Settings{
 	 * 					(idk every text editor has it, it felt wrong not to)
 	 */
 	public static void draw_textbox(PApplet p, String text, boolean display) {
-		float TEXT_WIDTH = p.textWidth(text);
+		
+		//only measure text again once it changes
+		if(!text.equals(measuredText)) {
+			measuredText = text;
+			measuredWidth = p.textWidth(text);
+		}
+		float TEXT_WIDTH = measuredWidth;
 		float TEXTBOX_WIDTH = 2*WIDTH/3;
 		p.noFill();
 		p.stroke(0);
@@ -121,13 +177,13 @@ public class UI_display_methods implements Settings{
 	 * draws button on UI window that are internally coded to have functionality based
 	 * on description 
 	 * 
-	 * @param p - a processing PApplet application
+	 * @param p - a processing layer the size of the UI window
 	 * @param buttons - an array of strings where each string represents a button
 	 * 
 	 * @implNote - these current buttons are located in:
 	 * @see local/src/settings/Settings.OPTIONS - functionality included there
 	 */
-	public static void draw_buttons(PApplet p, String[] buttons) {
+	public static void draw_buttons(PGraphics p, String[] buttons) {
 		
 		float initialPos = WIDTH/2 - TEXTBOX_WIDTH/2 + BUTTON_WIDTH/2;
 		float dx = TEXTBOX_WIDTH/(buttons.length-1)-BUTTON_WIDTH/(buttons.length-1);
@@ -154,17 +210,18 @@ public class UI_display_methods implements Settings{
 	 * displays current settings above UI LED grid
 	 * 
 	 * @param p - a processing PApplet application
+	 * @param geometry - size of the board, the settings are drawn above it
 	 * @param state - the current "state" of the board, this can be any of the options of buttons
 	 * 				  or a sent_message which refers to a custom text
 	 * 
-	 * @param scroll - the scroll speed (positive represents right, negative represents left)
+	 * @param scroll - the scroll speed in LEDs per a second (positive represents right, negative represents left)
 	 * 
 	 * @see local/src/settings/Settings.OPTIONS - functionality included there
 	 */
-	public static void draw_settings(PApplet p, String state, int scroll) {
+	public static void draw_settings(PApplet p, BoardGeometry geometry, String state, double scroll) {
 		
-		float iniX = (WIDTH/2)-(GRID_WIDTH/2);
-		float iniY = HEIGHT- 5*GRID_HEIGHT/4 - p.textDescent();
+		float iniX = board_x(geometry);
+		float iniY = board_y(geometry) - p.textDescent();
 		
 		p.text("state: " + state, iniX, iniY - p.textAscent());
 		
@@ -176,11 +233,11 @@ public class UI_display_methods implements Settings{
 		
 		//left scrolling with scrolling negative X direction
 		else if(scroll < 0)
-			p.text("scroll: left @ " + -scroll, iniX, iniY);
+			p.text("scroll: left @ " + String.format("%.1f", -scroll), iniX, iniY);
 		
 		//right scrolling with scrolling positive X direction
 		else
-			p.text("scroll: righ @ " + -scroll, iniX, iniY);
+			p.text("scroll: righ @ " + String.format("%.1f", scroll), iniX, iniY);
 	}
 	
 	/**
@@ -7,11 +7,15 @@ package user_interface;
 import processing.core.PApplet;
 import processing.core.PFont;
 
-import word_processing.WordEvent;
+import word_processing.GlyphRegistry;
+import word_processing.LedFrame;
+import metrics.Metrics;
 import user_interface.UI_display_methods;
+import settings.BoardGeometry;
 import settings.Settings;
 
 import Serial_Communication.Communication_Interface;
+import render_engine.RenderEngine;
 
 /**
  * 
@@ -25,6 +29,10 @@ import Serial_Communication.Communication_Interface;
  * this allows for various options for users to display onto
  * the LED board
  * 
+ * the board itself is animated by a <em>RenderEngine</em>, this window
+ * only sends it commands and previews the frames it renders, the board
+ * can run without it through <em>HeadlessMain</em>
+ * 
  * these options can be found in settings/Settings.OPTIONS
  * with documentation
  * 
@@ -32,7 +40,7 @@ import Serial_Communication.Communication_Interface;
  * @see local/user_interface_UI_interaction_methods.java
  * @see local/user_interface_UI_display_methods.java
  * 
- * @see local/word_processing.WordEvent.java
+ * @see local/render_engine/RenderEngine.java
  * @see local/Serial_Communication/Communication_Interface.java
  * 
  * @author Vivaan Mahtab
@@ -43,12 +51,15 @@ public class UI_main extends PApplet implements Settings{
 	// If a custom message is inputed - String held here
 	String current_text;
 	
-	// The WordEvent object 
-	WordEvent wordEvent;
+	// size of the board, read from Settings.BOARD_CONFIG_FILE
+	BoardGeometry geometry;
 	
 	// Arduino Serial Communication
 	Communication_Interface comms;
 	
+	// animates the board, null until a port is selected
+	RenderEngine engine;
+	
 	// These are used for initial setup to
 	// select appropriate Serial comm port
 	boolean setup_finished = false;
@@ -57,13 +68,18 @@ public class UI_main extends PApplet implements Settings{
 	// Button coordinates for settings.Settings.OPTIONS
 	float[] buttonCoordinates;
 	
-	//none, sent_message, time, date, weather -
-	//Current occurring action being executed
-	String state;
+	// UI font, and cached layers of the UI window drawn with it
+	PFont font;
+	UI_board_layers layers;
 	
-	// scroll direction and speed (LEDs per a tick)
-	// (left) -∞ <- 0 -> ∞ (right)
-	int scroll;
+	// what the window last showed, draw() skips redrawing if none changed
+	LedFrame shownFrame;
+	String shownState, shownText;
+	double shownScroll;
+	boolean shownCursor;
+	
+	// number of draw() calls skipped as nothing changed
+	long skippedDraws = 0;
 	
 	public static void main(String[] args) {
 			   PApplet.main("user_interface.UI_main");
@@ -77,17 +93,22 @@ public class UI_main extends PApplet implements Settings{
 	public void setup() {
 
 		background(255);
-		
-		this.state = "none";
-		this.scroll = 0;
 		fill(0);
 		
-		PFont font = createFont("HelveticaNeue", 16);
-		textFont(font);
+		this.font = createFont("HelveticaNeue", 16);
+		textFont(this.font);
+		
+		// memory-map the font (-Dglyph.font, or the bundled one) before any WordEvent is built
+		GlyphRegistry.load();
+		
+		// pipeline metrics on JMX and in the log
+		Metrics.registerJmx();
+		Metrics.startReporting(METRICS_LOG_INTERVAL_MS);
+		
+		this.geometry = BoardGeometry.load();
 		
 		// no current display
 		this.current_text = "";
-		this.wordEvent = new WordEvent("");
 		
 		this.buttonCoordinates = UI_interaction_methods.get_button_coordinates(OPTIONS); 
 		
@@ -97,36 +118,39 @@ public class UI_main extends PApplet implements Settings{
 	// processing draw() method
 	public void draw() {
 		
-		clear();
-		background(255);
-		fill(0);
-		
 		//Initial setup display
 		if(!this.setup_finished) {
+			clear();
+			background(255);
+			fill(0);
 			UI_display_methods.portSelection(this, this.selectedPort);
 			return;
 		}
 		
-		//draw static UI components
-		UI_display_methods.draw_settings(this, this.state, this.scroll);
-		UI_display_methods.draw_buttons(this, OPTIONS);
-		UI_display_methods.draw_empty_LED_board(this);
-		UI_display_methods.draw_filled_LED_board(this, wordEvent.get_offset_board());
-		UI_display_methods.draw_textbox(this, current_text, frameCount%70>20);
-		
-		
-		//CONSTANTLY UPDATE TIME IF TIME IS OPTION SELECTED AND NOT MOVED
-		if(this.state.equals("TIME") && wordEvent.getPosition()<=0)
-			wordEvent = new WordEvent(UI_interaction_methods.getTime());
+		//nothing changed since last draw - window already shows it
+		LedFrame frame = engine.getFrame();
+		String state = engine.getState();
+		double scroll = engine.getScroll();
+		boolean cursor = frameCount%70>20;
+		if(frame == this.shownFrame && state.equals(this.shownState) && scroll == this.shownScroll
+				&& current_text.equals(this.shownText) && cursor == this.shownCursor) {
+			this.skippedDraws++;
+			return;
+		}
+		this.shownFrame = frame;
+		this.shownState = state;
+		this.shownScroll = scroll;
+		this.shownText = current_text;
+		this.shownCursor = cursor;
 		
+		//static UI components and LED board are cached layers, which also
+		//cover the previous frame; the preview only redraws LEDs that changed
+		this.layers.draw(this, frame);
 		
-		//flashing for vertical bar of textbox indicator
-		if(frameCount%7==0) {
-			this.wordEvent.move(-scroll);
-			if(wordEvent.getSize() - wordEvent.getPosition() < 0) {
-				this.display_changeRESET();
-			}
-		}
+		//draw changing UI components
+		fill(0);
+		UI_display_methods.draw_settings(this, this.geometry, state, scroll);
+		UI_display_methods.draw_textbox(this, current_text, cursor);
 	}
 	
 	
@@ -145,9 +169,7 @@ public class UI_main extends PApplet implements Settings{
 		// if enter/return send board as sent_message (custom entered text)
 		else if (key==ENTER||key==RETURN) {
 			
-			this.display_change("sent_message", -1);
-			
-			this.wordEvent = new WordEvent(this.current_text, -BULB_GRID_LENGTH);
+			this.engine.sendMessage(this.current_text);
 			this.current_text = "";
 			  
 		} 
@@ -181,7 +203,10 @@ public class UI_main extends PApplet implements Settings{
 				// sets current Serial Comm port for Serial communication
 				clear();
 				background(255);
-				this.comms = new Communication_Interface(this, this.selectedPort);
+				this.comms = new Communication_Interface(this, this.selectedPort, SERIAL_BAUD_RATE, this.geometry);
+				this.engine = new RenderEngine(this.comms, this.geometry);
+				this.engine.start();
+				this.layers = new UI_board_layers(this, this.font, this.geometry);
 				this.setup_finished = true;
 				return;
 		}
@@ -189,57 +214,15 @@ public class UI_main extends PApplet implements Settings{
 		//within row of button options
 		if(HEIGHT/8 + 10 <= mouseY && mouseY <= HEIGHT/8 + BUTTON_HEIGHT + 10) {
 			
-			//checks if and which button is selected
+			//checks if and which button is selected, the engine performs it
+			//(PAUSE toggles scrolling left, others change what is shown)
 			for(int i = 0; i < buttonCoordinates.length; i++) {
 				if(buttonCoordinates[i] <= mouseX && mouseX <= buttonCoordinates[i] + BUTTON_WIDTH) {
-					
-					//if button matches pause, toggles scrolling left
-					if(OPTIONS[i].equals("PAUSE")) {
-						if(this.scroll!=0)
-							this.scroll = 0;
-						else
-							this.scroll = -1;
-						return;
-					
-					}
-					
-					//if matches other option, sets this.state to option then breaks loop
-						this.state = OPTIONS[i];
+					this.engine.select(OPTIONS[i]);
 					break;
 				}
 			}
 		}
-		
-		// if a state has been selected:
-		
-		//TIME OPTION
-		if(!this.state.equals("none")) {
-			switch(this.state) {
-			case "TIME":
-				this.state = "LOADING";
-				wordEvent = new WordEvent(UI_interaction_methods.getTime());
-				this.state = "TIME";
-				this.scroll = 0;
-				break;
-			
-		//DATE OPTION
-			case "DATE":
-				this.state = "LOADING";
-				wordEvent = new WordEvent(UI_interaction_methods.getDate());
-				this.state = "DATE";
-				this.scroll = 0;
-				break;
-		
-		//WEATHER OPTION
-			case "WEATHER":
-				this.state = "LOADING";
-				wordEvent = new WordEvent(UI_interaction_methods.getWeather(openweathermap_api_zipcode, openweathermap_api_key));
-				this.state = "WEATHER";
-				this.scroll = 0;
-				break;
-				
-			}
-		}
 	}
 	
 	//processing mouseMoved() method -> only used during setup
@@ -271,23 +254,4 @@ public class UI_main extends PApplet implements Settings{
 			this.selectedPort = -1;
 		}
 	}
-				
-	/**
-	 * changes setting state of state and scroll (RESET brings back to default [state:none, scroll:0])
-	 * 
-	 * @param state - the state to be set to
-	 * @param scroll - the scroll value to be set to
-	 */
-	public void display_change(String state, int scroll) {
-		this.state = state;
-		this.scroll = scroll;
-	}
-	
-	/**
-	 * resets board state to no current action
-	 */
-	public void display_changeRESET() {
-		this.display_change("none", 0);
-		wordEvent = new WordEvent("");
-	}
 }
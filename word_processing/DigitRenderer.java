@@ -0,0 +1,102 @@
+// DigitRenderer.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import settings.BoardGeometry;
+
+/**
+ * <em>DigitRenderer class</em>
+ * draws short strings of digits and separators (e.g. "12:34" or "03/17")
+ * into an existing <em>LedFrame</em> from glyphs looked up once, so the
+ * board can show the time or date changing without building a new
+ * <em>WordEvent</em> or allocating anything
+ * 
+ * every digit takes the width of the widest digit, so strings of the same
+ * pattern always take the same columns and can be redrawn in place
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote layout matches <em>WordConstructor</em>: one column of kerning
+ * 			 between characters
+ * @see local/src/word_processing/GlyphRegistry
+ */
+public class DigitRenderer {
+	
+	//characters with a pre-rendered glyph
+	public final static String CHARACTERS = "0123456789:/.";
+	
+	//glyph of each character in CHARACTERS, in order
+	private final LedFrame[] glyphs;
+	
+	//width of the widest digit
+	private final int digitWidth;
+	
+	//rows of the frames drawn into
+	private final int height;
+	
+	// the default board
+	public DigitRenderer() {
+		this(BoardGeometry.DEFAULT);
+	}
+	
+	// @param geometry - size of the board frames are drawn for
+	public DigitRenderer(BoardGeometry geometry) {
+		this.height = geometry.getHeight();
+		this.glyphs = new LedFrame[CHARACTERS.length()];
+		int widest = 0;
+		for(int i = 0; i < this.glyphs.length; i++) {
+			this.glyphs[i] = GlyphRegistry.get(CHARACTERS.charAt(i));
+			if(Character.isDigit(CHARACTERS.charAt(i)))
+				widest = Math.max(widest, this.glyphs[i].getWidth());
+		}
+		this.digitWidth = widest;
+	}
+	
+	/**
+	 * @param text - characters of CHARACTERS
+	 * @return columns needed to draw @param text
+	 */
+	public int width(CharSequence text) {
+		int width = 0;
+		for(int i = 0; i < text.length(); i++) {
+			if(i > 0)
+				width++;
+			width += this.slotWidth(text.charAt(i));
+		}
+		return width;
+	}
+	
+	// frame exactly wide enough for @param text, and any text of the same pattern
+	public LedFrame frameFor(CharSequence text) {
+		return new LedFrame(this.height, this.width(text));
+	}
+	
+	/**
+	 * clears @param target and draws @param text into it from the left
+	 * 
+	 * @param text - characters of CHARACTERS, any other character is left blank
+	 * @param target - frame to draw into, columns beyond it are dropped
+	 */
+	public void render(CharSequence text, LedFrame target) {
+		target.clear();
+		int col = 0;
+		for(int i = 0; i < text.length(); i++) {
+			char character = text.charAt(i);
+			int index = CHARACTERS.indexOf(character);
+			if(index >= 0) {
+				LedFrame glyph = this.glyphs[index];
+				target.blit(glyph, 0, col, glyph.getWidth());
+			}
+			col += this.slotWidth(character) + 1;
+		}
+	}
+	
+	// columns @param character takes up
+	private int slotWidth(char character) {
+		if(Character.isDigit(character))
+			return this.digitWidth;
+		int index = CHARACTERS.indexOf(character);
+		return index >= 0 ? this.glyphs[index].getWidth() : this.digitWidth;
+	}
+}
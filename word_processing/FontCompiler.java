@@ -0,0 +1,204 @@
+// FontCompiler.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import settings.Settings;
+
+/**
+ * <em>FontCompiler class</em>
+ * packs a directory of character designs (one text file of '0' and '1'
+ * rows per character, as in local/Alphanumeric_Characters) into one
+ * <em>PackedFont</em> file, checking every design on the way
+ * 
+ * usage: FontCompiler [DESIGN_DIRECTORY] [OUT_FILE]
+ * 		defaults to Alphanumeric_Characters and GlyphRegistry's bundled font,
+ * 		word_processing/font.ledf, so it is rerun after editing a design
+ * 
+ * SPECIAL CASE file names: "f_slash" is '/' and "period" is '.', every
+ * other design file is named after the single character it represents
+ * (file names are read in the platform encoding, so designs such as '°'
+ * need a UTF-8 locale)
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote a design is rejected unless it is rectangular, has exactly
+ * 			 BULB_GRID_HEIGHT rows and only '0' and '1' characters,
+ * 			 which <em>WordConstructor</em> assumes of every glyph
+ * @see local/src/word_processing/PackedFont
+ */
+public class FontCompiler implements Settings {
+	
+	public static void main(String[] args) throws IOException {
+		File directory = new File(args.length > 0 ? args[0] : "Alphanumeric_Characters");
+		File out = new File(args.length > 1 ? args[1] : "word_processing/" + GlyphRegistry.FONT_RESOURCE);
+		
+		try {
+			Map<Integer, LedFrame> glyphs = readDesigns(directory, BULB_GRID_HEIGHT);
+			try(OutputStream stream = new FileOutputStream(out)) {
+				stream.write(pack(glyphs, BULB_GRID_HEIGHT));
+			}
+			System.out.println(out.getPath() + ": " + glyphs.size() + " glyphs, " + out.length() + " bytes");
+		} catch(IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * reads every character design within @param directory
+	 * 
+	 * @param height - rows every design must have
+	 * @return the design of each codepoint
+	 * 
+	 * @exception IOException listing every file that could not be read or
+	 * 			  is not a valid design
+	 */
+	public static Map<Integer, LedFrame> readDesigns(File directory, int height) throws IOException {
+		File[] files = directory.listFiles();
+		if(files == null)
+			throw new IOException("unable to read " + directory.getPath());
+		
+		Map<Integer, LedFrame> glyphs = new TreeMap<Integer, LedFrame>();
+		List<String> errors = new ArrayList<String>();
+		for(File file : files) {
+			int codepoint = codepointOf(file.getName());
+			if(codepoint < 0) {
+				errors.add(file.getName() + ": not named after one character");
+				continue;
+			}
+			try {
+				glyphs.put(codepoint, readDesign(file, height));
+			} catch(IOException e) {
+				errors.add(file.getName() + ": " + e.getMessage());
+			}
+		}
+		
+		if(!errors.isEmpty()) {
+			StringBuilder message = new StringBuilder(directory.getPath()).append(" has invalid designs:");
+			for(String error : errors) {
+				message.append(System.lineSeparator()).append('\t').append(error);
+			}
+			throw new IOException(message.toString());
+		}
+		return glyphs;
+	}
+	
+	// character represented by design file @param name, -1 if none
+	static int codepointOf(String name) {
+		
+		//SPECIAL CASE '/' and '.' characters
+		if(name.equals("f_slash"))
+			return '/';
+		if(name.equals("period"))
+			return '.';
+		if(name.codePointCount(0, name.length()) == 1)
+			return name.codePointAt(0);
+		return -1;
+	}
+	
+	/**
+	 * reads a single design file
+	 * 
+	 * @exception IOException if it cannot be read, does not have exactly
+	 * 			  @param height rows, has rows of different lengths, or has
+	 * 			  characters other than '0' and '1'
+	 */
+	static LedFrame readDesign(File file, int height) throws IOException {
+		ArrayList<String> rows = new ArrayList<String>();
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String strCurrentLine;
+			while((strCurrentLine = reader.readLine()) != null) {
+				rows.add(strCurrentLine);
+			}
+		}
+		
+		//a blank last line is only the end of the file
+		while(!rows.isEmpty() && rows.get(rows.size() - 1).isEmpty()) {
+			rows.remove(rows.size() - 1);
+		}
+		
+		if(rows.size() != height)
+			throw new IOException(rows.size() + " rows, must have " + height);
+		int width = rows.get(0).length();
+		if(width == 0)
+			throw new IOException("empty first row");
+		for(int row = 0; row < rows.size(); row++) {
+			String line = rows.get(row);
+			if(line.length() != width)
+				throw new IOException("row " + (row + 1) + " is " + line.length() + " long, must be " + width);
+			for(int col = 0; col < width; col++) {
+				if(line.charAt(col) != '0' && line.charAt(col) != '1')
+					throw new IOException("row " + (row + 1) + " has '" + line.charAt(col) + "'");
+			}
+		}
+		return LedFrame.fromRows(rows.toArray(new String[rows.size()]));
+	}
+	
+	/**
+	 * lays out @param glyphs as a <em>PackedFont</em> file
+	 * 
+	 * @param glyphs - the design of each codepoint, each @param height tall
+	 * @return the bytes of the file
+	 */
+	public static byte[] pack(Map<Integer, LedFrame> glyphs, int height) throws IOException {
+		if(height < 1 || height > LedFrame.MAX_HEIGHT)
+			throw new IllegalArgumentException("glyph height must be between 1 and " + LedFrame.MAX_HEIGHT + ": " + height);
+		
+		//INDEX must be in codepoint order
+		TreeMap<Integer, LedFrame> sorted = new TreeMap<Integer, LedFrame>(glyphs);
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		
+		//HEADER
+		out.writeInt(PackedFont.MAGIC);
+		out.writeByte(PackedFont.VERSION);
+		out.writeByte(height);
+		out.writeShort(0);
+		out.writeInt(sorted.size());
+		out.writeInt(PackedFont.HEADER_LENGTH + sorted.size() * PackedFont.ENTRY_LENGTH);
+		
+		//INDEX
+		int offset = 0;
+		for(Map.Entry<Integer, LedFrame> glyph : sorted.entrySet()) {
+			int width = glyph.getValue().getWidth();
+			if(glyph.getValue().getHeight() != height || width > 0xFFFF)
+				throw new IllegalArgumentException("glyph " + glyph.getKey() + " is " + glyph.getValue().getHeight() + "x"
+						+ width + ", must be " + height + " tall");
+			out.writeInt(glyph.getKey());
+			out.writeInt(offset);
+			out.writeShort(width);
+			offset += PackedFont.packedLength(height * width);
+		}
+		
+		//DATA
+		for(LedFrame glyph : sorted.values()) {
+			byte[] packed = new byte[PackedFont.packedLength(height * glyph.getWidth())];
+			int bit = 0;
+			for(int col = 0; col < glyph.getWidth(); col++) {
+				for(int row = 0; row < height; row++, bit++) {
+					if(glyph.get(row, col))
+						packed[bit >>> 3] |= 1 << (bit & 7);
+				}
+			}
+			out.write(packed);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,24 @@
+// Frame.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+/**
+ * <em>Frame interface</em>
+ * anything rendered for the LED board that can be handed to the Serial
+ * writer: an on/off <em>LedFrame</em> or a <em>GrayFrame</em> with levels
+ * of brightness
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/word_processing/LedFrame.java
+ * @see local/word_processing/GrayFrame.java
+ */
+public interface Frame {
+	
+	// number of rows of LEDs
+	int getHeight();
+	
+	// number of columns of LEDs
+	int getWidth();
+}
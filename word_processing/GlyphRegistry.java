@@ -0,0 +1,220 @@
+// GlyphRegistry.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import settings.Settings;
+import metrics.Gauge;
+import metrics.Metrics;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <em>GlyphRegistry class</em>
+ * the character designs of the font, decoded only when first needed and
+ * kept in a cache of at most GLYPH_CACHE_SIZE glyphs, so a font with
+ * thousands of characters costs no more memory than a small one and
+ * <em>WordConstructor</em> never touches the file system
+ * 
+ * the font is the file named by the FONT_PROPERTY system property, or else
+ * FONT_RESOURCE, a <em>PackedFont</em> compiled from
+ * local/Alphanumeric_Characters by <em>FontCompiler</em> and found on the
+ * classpath whatever the working directory is; either is memory-mapped, so
+ * the font itself is never on the heap, only FONT_RESOURCE packed inside a
+ * jar (where it cannot be mapped) being read whole
+ * 
+ * characters are looked up by Unicode codepoint: a character without a
+ * design of its own uses its uppercase design if the font has one (the
+ * bundled font is uppercase only), otherwise the fallback glyph
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote glyphs are packed <em>LedFrame</em> objects that are shared
+ * 			 between callers and must never be modified, the least recently
+ * 			 used are dropped from the cache and decoded again if needed
+ * @see local/src/word_processing/WordConstructor
+ * @see local/src/word_processing/FontCompiler
+ */
+public final class GlyphRegistry implements Settings {
+	
+	//classpath resource of the font, next to this class
+	public final static String FONT_RESOURCE = "font" + PackedFont.EXTENSION;
+	
+	//system property naming a font file to use instead of FONT_RESOURCE
+	public final static String FONT_PROPERTY = "glyph.font";
+	
+	//character displayed in place of a character with no design
+	public final static char FALLBACK_CHARACTER = '?';
+	
+	//the font glyphs are decoded from, null if it could not be read
+	private static PackedFont font;
+	private static boolean loaded = false;
+	
+	//most recently used glyphs by codepoint, including fallbacks for characters without a design
+	private static final Map<Integer, LedFrame> cache = new LinkedHashMap<Integer, LedFrame>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, LedFrame> eldest) {
+			return this.size() > GLYPH_CACHE_SIZE;
+		}
+	};
+	
+	//design used for any character missing from the font
+	private static LedFrame fallback;
+	
+	//lookups answered by the cache, and that had to read the font
+	private static long hits;
+	private static long misses;
+	
+	private GlyphRegistry() {}
+	
+	//fraction of lookups answered by the cache, for the log and JMX
+	static {
+		Metrics.gauge("glyph.hit_rate", new Gauge() {
+			public double value() {
+				long lookups = getCacheHits() + getCacheMisses();
+				return lookups == 0 ? Double.NaN : (double) getCacheHits() / lookups;
+			}
+		});
+	}
+	
+	/**
+	 * memory-maps the font named by FONT_PROPERTY, or FONT_RESOURCE from the
+	 * classpath, calling this more than once has no effect
+	 * 
+	 * @exception if the font cannot be read, the error is printed and every
+	 * 			  character resolves to the fallback glyph
+	 */
+	public static synchronized void load() {
+		if(loaded)
+			return;
+		
+		String property = System.getProperty(FONT_PROPERTY);
+		if(property != null) {
+			try {
+				load(new File(property));
+				return;
+			} catch(IOException e) {
+				System.err.println("GlyphRegistry: unable to map " + property + " (" + e.getMessage() + "), using " + FONT_RESOURCE);
+			}
+		}
+		
+		try {
+			File file = resourceFile();
+			if(file != null) {
+				load(file);
+				return;
+			}
+			
+			//packed in a jar - the small bundled font is read whole
+			InputStream in = GlyphRegistry.class.getResourceAsStream(FONT_RESOURCE);
+			if(in == null)
+				throw new IOException(FONT_RESOURCE + " is not on the classpath");
+			load(PackedFont.read(in, FONT_RESOURCE));
+		} catch(IOException e) {
+			System.err.println("GlyphRegistry: unable to read font (" + e.getMessage() + ")");
+			loaded = true;
+			fallback = boxGlyph();
+		}
+	}
+	
+	// FONT_RESOURCE if it is a plain file that can be mapped, null if not (e.g. in a jar)
+	private static File resourceFile() {
+		URL url = GlyphRegistry.class.getResource(FONT_RESOURCE);
+		if(url == null || !"file".equals(url.getProtocol()))
+			return null;
+		try {
+			return new File(url.toURI());
+		} catch(URISyntaxException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * memory-maps the font file @param font, replacing any previously
+	 * loaded font
+	 * 
+	 * @exception IOException if @param font is not a readable font file
+	 */
+	public static void load(File font) throws IOException {
+		load(PackedFont.map(font));
+	}
+	
+	// replaces any previously loaded font with @param packed, emptying the cache
+	public static synchronized void load(PackedFont packed) {
+		font = packed;
+		loaded = true;
+		cache.clear();
+		hits = 0;
+		misses = 0;
+		int index = packed.indexOf(FALLBACK_CHARACTER);
+		fallback = index >= 0 ? packed.glyph(index) : boxGlyph();
+	}
+	
+	/**
+	 * gets the design for @param codepoint, loading the registry first if
+	 * it has not been loaded yet
+	 * 
+	 * @param codepoint - the character to find the design of
+	 * @return a frame of the design, its uppercase design if it has none
+	 * 		   of its own, or the fallback glyph if neither exists
+	 */
+	public static synchronized LedFrame get(int codepoint) {
+		load();
+		LedFrame glyph = cache.get(codepoint);
+		if(glyph != null) {
+			hits++;
+			return glyph;
+		}
+		
+		misses++;
+		int index = font == null ? -1 : font.indexOf(codepoint);
+		if(index < 0 && font != null)
+			index = font.indexOf(Character.toUpperCase(codepoint));
+		glyph = index >= 0 ? font.glyph(index) : fallback;
+		cache.put(codepoint, glyph);
+		return glyph;
+	}
+	
+	// checks if @param codepoint has its own design
+	public static synchronized boolean contains(int codepoint) {
+		load();
+		return font != null && font.indexOf(codepoint) >= 0;
+	}
+	
+	// number of characters in the font
+	public static synchronized int getGlyphCount() {
+		load();
+		return font == null ? 0 : font.getGlyphCount();
+	}
+	
+	// lookups answered without reading the font
+	public static synchronized long getCacheHits() {
+		return hits;
+	}
+	
+	// lookups that had to decode a glyph from the font
+	public static synchronized long getCacheMisses() {
+		return misses;
+	}
+	
+	// glyphs currently decoded, at most GLYPH_CACHE_SIZE
+	public static synchronized int getCacheSize() {
+		return cache.size();
+	}
+	
+	// hollow rectangle used when not even FALLBACK_CHARACTER has a design
+	private static LedFrame boxGlyph() {
+		String[] rows = new String[BULB_GRID_HEIGHT];
+		for(int i = 0; i < rows.length; i++) {
+			rows[i] = (i == 0 || i == rows.length - 1) ? "1111" : "1001";
+		}
+		return LedFrame.fromRows(rows);
+	}
+}
@@ -0,0 +1,165 @@
+// GrayFrame.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import java.util.Arrays;
+
+/**
+ * <em>GrayFrame class</em>
+ * a grid of LEDs like <em>LedFrame</em> where each LED has one of
+ * 2^<em>bits</em> levels of brightness instead of being on or off, used
+ * to draw text between columns for smooth scrolling
+ * 
+ * levels are stored as bit planes: plane k is a <em>LedFrame</em> whose
+ * LED is on where bit k of the level is set, so a 4 bit frame is four
+ * packed frames, each column of each plane is a single long, and the
+ * brightest plane is on exactly where an LED is at least half brightness
+ * 
+ * levels are linear in light (level / getMaxLevel() of full brightness),
+ * the controller must not correct them again
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote height cannot exceed LedFrame.MAX_HEIGHT
+ * @see local/word_processing/SmoothRenderer.java
+ * @see local/Serial_Communication/FrameProtocol.java
+ */
+public final class GrayFrame implements Frame {
+	
+	//most bits of brightness per LED
+	public final static int MAX_BITS = 8;
+	
+	//number of rows and columns of LEDs, and bits of brightness of each
+	private final int height;
+	private final int width;
+	private final int bits;
+	
+	//planes[k] is bit k of every level
+	private final LedFrame[] planes;
+	
+	/**
+	 * creates a frame with every LED off
+	 * 
+	 * @param bits - bits of brightness per LED, between 1 and MAX_BITS
+	 * 
+	 * @exception IllegalArgumentException if @param bits, height or width is out of range
+	 */
+	public GrayFrame(int height, int width, int bits) {
+		if(bits < 1 || bits > MAX_BITS)
+			throw new IllegalArgumentException("bits must be between 1 and " + MAX_BITS + ": " + bits);
+		this.height = height;
+		this.width = width;
+		this.bits = bits;
+		this.planes = new LedFrame[bits];
+		for(int k = 0; k < bits; k++) {
+			this.planes[k] = new LedFrame(height, width);
+		}
+	}
+	
+	// copy constructor
+	public GrayFrame(GrayFrame other) {
+		this.height = other.height;
+		this.width = other.width;
+		this.bits = other.bits;
+		this.planes = new LedFrame[this.bits];
+		for(int k = 0; k < this.bits; k++) {
+			this.planes[k] = new LedFrame(other.planes[k]);
+		}
+	}
+	
+	/**
+	 * @return a frame of @param bits where every LED on in @param frame is
+	 * 		   at full brightness
+	 */
+	public static GrayFrame of(LedFrame frame, int bits) {
+		GrayFrame gray = new GrayFrame(frame.getHeight(), frame.getWidth(), bits);
+		for(int k = 0; k < bits; k++) {
+			gray.planes[k].copyFrom(frame, 0);
+		}
+		return gray;
+	}
+	
+	@Override
+	public int getHeight() {
+		return this.height;
+	}
+	
+	@Override
+	public int getWidth() {
+		return this.width;
+	}
+	
+	public int getBits() {
+		return this.bits;
+	}
+	
+	// level of full brightness
+	public int getMaxLevel() {
+		return (1 << this.bits) - 1;
+	}
+	
+	// level of LED at @param row and @param col, outside the frame is off
+	public int get(int row, int col) {
+		int level = 0;
+		for(int k = 0; k < this.bits; k++) {
+			if(this.planes[k].get(row, col))
+				level |= 1 << k;
+		}
+		return level;
+	}
+	
+	/**
+	 * sets LED at @param row and @param col to @param level
+	 * 
+	 * @exception IllegalArgumentException if @param level is above getMaxLevel()
+	 */
+	public void set(int row, int col, int level) {
+		if(level < 0 || level > this.getMaxLevel())
+			throw new IllegalArgumentException("level must be between 0 and " + this.getMaxLevel() + ": " + level);
+		for(int k = 0; k < this.bits; k++) {
+			this.planes[k].set(row, col, (level >>> k & 1) != 0);
+		}
+	}
+	
+	/**
+	 * bit @param k of every level, the last plane (getBits() - 1) being the
+	 * LEDs at least half brightness
+	 * 
+	 * @return the plane itself, changes to it change this frame
+	 */
+	public LedFrame getPlane(int k) {
+		return this.planes[k];
+	}
+	
+	// checks if every LED is either off or at full brightness
+	public boolean isBinary() {
+		for(int k = 1; k < this.bits; k++) {
+			if(!this.planes[k].equals(this.planes[0]))
+				return false;
+		}
+		return true;
+	}
+	
+	// turns every LED off
+	public void clear() {
+		for(LedFrame plane : this.planes) {
+			plane.clear();
+		}
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		if(this == other)
+			return true;
+		if(!(other instanceof GrayFrame))
+			return false;
+		GrayFrame frame = (GrayFrame) other;
+		return this.width == frame.width && Arrays.equals(this.planes, frame.planes);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.planes);
+	}
+}
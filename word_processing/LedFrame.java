@@ -0,0 +1,272 @@
+// LedFrame.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import java.util.Arrays;
+
+/**
+ * <em>LedFrame class</em>
+ * a bit-packed grid of LEDs that is <em>height</em> rows tall and
+ * <em>width</em> columns long, used by every stage from word construction
+ * to the UI preview and Serial communication
+ * 
+ * each column is stored as a single long where bit <em>row</em> is set
+ * if the LED at that row is on (bit 0 is the top row), so moving, copying
+ * and comparing columns are single machine word operations
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote height cannot exceed MAX_HEIGHT (the bits in a long)
+ * @see local/src/word_processing/WordConstructor
+ * @see local/src/word_processing/WordEvent
+ */
+public final class LedFrame implements Frame {
+	
+	//maximum number of rows a single column can store
+	public final static int MAX_HEIGHT = Long.SIZE;
+	
+	//number of rows and columns of LEDs
+	private final int height;
+	private final int width;
+	
+	//one packed long per column, bit 0 is the top row
+	private final long[] columns;
+	
+	//mask of bits that are valid rows for this.height
+	private final long rowMask;
+	
+	/**
+	 * creates a frame with every LED off
+	 * 
+	 * @param height - number of rows, between 0 and MAX_HEIGHT
+	 * @param width - number of columns, 0 or more
+	 * 
+	 * @exception IllegalArgumentException if height or width is out of range
+	 */
+	public LedFrame(int height, int width) {
+		if(height < 0 || height > MAX_HEIGHT)
+			throw new IllegalArgumentException("height must be between 0 and " + MAX_HEIGHT + ": " + height);
+		if(width < 0)
+			throw new IllegalArgumentException("width must not be negative: " + width);
+		
+		this.height = height;
+		this.width = width;
+		this.columns = new long[width];
+		this.rowMask = height == MAX_HEIGHT ? -1L : (1L << height) - 1;
+	}
+	
+	// copy constructor
+	public LedFrame(LedFrame other) {
+		this.height = other.height;
+		this.width = other.width;
+		this.columns = other.columns.clone();
+		this.rowMask = other.rowMask;
+	}
+	
+	/**
+	 * builds a frame from rows of '0' and '1' characters, the same
+	 * layout as the character designs in local/Alphanumeric_Characters
+	 * 
+	 * @param rows - each string is a row, any character other than '1' is off
+	 * @return a frame as tall as the number of rows and as long as the longest row
+	 */
+	public static LedFrame fromRows(String[] rows) {
+		int width = 0;
+		for(String row : rows) {
+			width = Math.max(width, row.length());
+		}
+		
+		LedFrame frame = new LedFrame(rows.length, width);
+		for(int row = 0; row < rows.length; row++) {
+			for(int col = 0; col < rows[row].length(); col++) {
+				if(rows[row].charAt(col) == '1') {
+					frame.columns[col] |= 1L << row;
+				}
+			}
+		}
+		return frame;
+	}
+	
+	@Override
+	public int getHeight() {
+		return this.height;
+	}
+	
+	@Override
+	public int getWidth() {
+		return this.width;
+	}
+	
+	// checks if LED at @param row and @param col is on, outside the frame is off
+	public boolean get(int row, int col) {
+		if(row < 0 || row >= this.height || col < 0 || col >= this.width)
+			return false;
+		return (this.columns[col] >>> row & 1L) != 0;
+	}
+	
+	// turns LED at @param row and @param col on or off
+	public void set(int row, int col, boolean on) {
+		if(row < 0 || row >= this.height)
+			throw new IndexOutOfBoundsException("row " + row + " outside height " + this.height);
+		if(on)
+			this.columns[col] |= 1L << row;
+		else
+			this.columns[col] &= ~(1L << row);
+	}
+	
+	// gets packed column at @param col, outside the frame is an empty column
+	public long getColumn(int col) {
+		if(col < 0 || col >= this.width)
+			return 0L;
+		return this.columns[col];
+	}
+	
+	// replaces packed column at @param col, bits below this.height are kept
+	public void setColumn(int col, long bits) {
+		this.columns[col] = bits & this.rowMask;
+	}
+	
+	// turns every LED off
+	public void clear() {
+		Arrays.fill(this.columns, 0L);
+	}
+	
+	/**
+	 * ORs @param cols columns of @param src starting at @param srcCol onto
+	 * this frame starting at @param dstCol, anything that falls outside
+	 * either frame is ignored
+	 * 
+	 * @implNote rows of @param src beyond this.height are dropped
+	 */
+	public void blit(LedFrame src, int srcCol, int dstCol, int cols) {
+		for(int i = 0; i < cols; i++) {
+			int d = dstCol + i;
+			if(d >= 0 && d < this.width) {
+				this.columns[d] |= src.getColumn(srcCol + i) & this.rowMask;
+			}
+		}
+	}
+	
+	/**
+	 * replaces every column of this frame with the column of @param src at
+	 * @param srcCol onwards, columns outside @param src are off
+	 * 
+	 * @implNote cost is proportional to this.width, not to @param src width
+	 */
+	public void copyFrom(LedFrame src, int srcCol) {
+		
+		//range of src columns that actually exist
+		int from = Math.max(0, -srcCol);
+		int to = Math.min(this.width, src.width - srcCol);
+		
+		if(from >= to) {
+			this.clear();
+			return;
+		}
+		
+		Arrays.fill(this.columns, 0, from, 0L);
+		System.arraycopy(src.columns, srcCol + from, this.columns, from, to - from);
+		Arrays.fill(this.columns, to, this.width, 0L);
+		
+		//mask rows in case src is taller than this frame
+		if(src.rowMask != (src.rowMask & this.rowMask)) {
+			for(int col = from; col < to; col++) {
+				this.columns[col] &= this.rowMask;
+			}
+		}
+	}
+	
+	/**
+	 * gets @param width columns of this frame starting at @param position,
+	 * positions before the first or after the last column are off
+	 * 
+	 * @return a new frame with the same height as this frame
+	 */
+	public LedFrame window(int position, int width) {
+		LedFrame frame = new LedFrame(this.height, width);
+		frame.copyFrom(this, position);
+		return frame;
+	}
+	
+	/**
+	 * moves every column by @param displacement in place (positive is right,
+	 * negative is left), columns moved in from outside the frame are off
+	 */
+	public void shift(int displacement) {
+		if(displacement == 0)
+			return;
+		
+		if(Math.abs(displacement) >= this.width) {
+			this.clear();
+		}
+		else if(displacement > 0) {
+			System.arraycopy(this.columns, 0, this.columns, displacement, this.width - displacement);
+			Arrays.fill(this.columns, 0, displacement, 0L);
+		}
+		else {
+			System.arraycopy(this.columns, -displacement, this.columns, 0, this.width + displacement);
+			Arrays.fill(this.columns, this.width + displacement, this.width, 0L);
+		}
+	}
+	
+	// number of LEDs that are on
+	public int countLit() {
+		int count = 0;
+		for(long column : this.columns) {
+			count += Long.bitCount(column);
+		}
+		return count;
+	}
+	
+	/**
+	 * converts frame into rows of '0' and '1' characters
+	 * 
+	 * @return an array of this.height strings of length this.width
+	 */
+	public String[] toRows() {
+		String[] rows = new String[this.height];
+		char[] row = new char[this.width];
+		for(int r = 0; r < this.height; r++) {
+			for(int col = 0; col < this.width; col++) {
+				row[col] = (this.columns[col] >>> r & 1L) != 0 ? '1' : '0';
+			}
+			rows[r] = new String(row);
+		}
+		return rows;
+	}
+	
+	/**
+	 * prints the frame into console such that on LED's are
+	 * represented with an 'X' and off LED's are represented
+	 * with no character
+	 */
+	public void print() {
+		for(int row = 0; row < this.height; row++) {
+			for(int col = 0; col < this.width; col++) {
+				System.out.print(this.get(row, col) ? "X " : "  ");
+			}
+			System.out.println();
+		}
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		if(this == other)
+			return true;
+		if(!(other instanceof LedFrame))
+			return false;
+		LedFrame frame = (LedFrame) other;
+		return this.height == frame.height && Arrays.equals(this.columns, frame.columns);
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * this.height + Arrays.hashCode(this.columns);
+	}
+	
+	@Override
+	public String toString() {
+		return "LedFrame[" + this.height + "x" + this.width + "]";
+	}
+}
@@ -0,0 +1,201 @@
+// PackedFont.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <em>PackedFont class</em>
+ * every character design of a font in one binary file, written by
+ * <em>FontCompiler</em> and read whole in one read (or memory-mapped)
+ * instead of opening one text file per character
+ * 
+ * every file is laid out as (all numbers big endian):
+ * 
+ * 		HEADER - MAGIC (4 bytes) | VERSION (1) | height (1) | unused (2) |
+ * 				 glyph count (4) | offset of DATA (4)
+ * 		INDEX - for each glyph in increasing codepoint order, its codepoint (4) |
+ * 				offset of its columns within DATA (4) | width (2)
+ * 		DATA - the columns of each glyph, height bits per column packed
+ * 			   the same way as a <em>FrameProtocol</em> payload, each glyph
+ * 			   starting on a new byte
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @implNote glyphs are decoded into a new <em>LedFrame</em> on every call
+ * 			 to glyph(), callers keep the ones they need
+ * @see local/src/word_processing/FontCompiler
+ * @see local/src/word_processing/GlyphRegistry
+ */
+public final class PackedFont {
+	
+	//first bytes of every font file, "LEDF"
+	public final static int MAGIC = 0x4C454446;
+	
+	//version of the layout described above
+	public final static int VERSION = 1;
+	
+	//bytes before the INDEX, and of each INDEX entry
+	public final static int HEADER_LENGTH = 16;
+	public final static int ENTRY_LENGTH = 10;
+	
+	//offsets of each HEADER field
+	final static int VERSION_OFFSET = 4, HEIGHT_OFFSET = 5, COUNT_OFFSET = 8, DATA_OFFSET = 12;
+	
+	//file name extension used by the tools
+	public final static String EXTENSION = ".ledf";
+	
+	//the whole file, read only
+	private final ByteBuffer data;
+	
+	//rows of every glyph, and number of glyphs
+	private final int height;
+	private final int count;
+	
+	//where DATA starts
+	private final int dataOffset;
+	
+	/**
+	 * checks the header and index of @param data
+	 * 
+	 * @param name - where @param data came from, for error messages
+	 * @exception IOException if @param data is not a font file
+	 */
+	PackedFont(ByteBuffer data, String name) throws IOException {
+		if(data.capacity() < HEADER_LENGTH || data.getInt(0) != MAGIC)
+			throw new IOException(name + " is not a font file");
+		if(data.get(VERSION_OFFSET) != VERSION)
+			throw new IOException(name + " is font version " + data.get(VERSION_OFFSET));
+		
+		this.data = data;
+		this.height = data.get(HEIGHT_OFFSET) & 0xFF;
+		this.count = data.getInt(COUNT_OFFSET);
+		this.dataOffset = data.getInt(DATA_OFFSET);
+		
+		//every glyph must be inside the file, in codepoint order
+		if(this.height < 1 || this.height > LedFrame.MAX_HEIGHT || this.count < 0
+				|| this.dataOffset != HEADER_LENGTH + (long) this.count * ENTRY_LENGTH
+				|| this.dataOffset > data.capacity())
+			throw new IOException(name + " is damaged");
+		for(int i = 0; i < this.count; i++) {
+			long end = this.dataOffset + (long) this.offset(i) + packedLength(this.height * this.getWidth(i));
+			if(this.offset(i) < 0 || end > data.capacity() || (i > 0 && this.getCodepoint(i - 1) >= this.getCodepoint(i)))
+				throw new IOException(name + " is damaged");
+		}
+	}
+	
+	/**
+	 * reads all of @param in at once and closes it
+	 * 
+	 * @exception IOException if it cannot be read or is not a font file
+	 */
+	public static PackedFont read(InputStream in, String name) throws IOException {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+			byte[] buffer = new byte[4096];
+			for(int read; (read = in.read(buffer)) != -1;) {
+				bytes.write(buffer, 0, read);
+			}
+			return new PackedFont(ByteBuffer.wrap(bytes.toByteArray()), name);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * memory-maps @param in, for fonts too large to keep on the heap
+	 * 
+	 * @exception IOException if it cannot be read or is not a font file
+	 */
+	public static PackedFont map(File in) throws IOException {
+		try(RandomAccessFile file = new RandomAccessFile(in, "r")) {
+			if(file.length() > Integer.MAX_VALUE)
+				throw new IOException(in.getPath() + " is not a font file");
+			
+			//the mapping stays valid once the file is closed
+			return new PackedFont(file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()), in.getPath());
+		}
+	}
+	
+	/**
+	 * finds @param codepoint in the INDEX
+	 * 
+	 * @return the glyph number of @param codepoint, or -1 if it has no design
+	 */
+	public int indexOf(int codepoint) {
+		int low = 0;
+		int high = this.count - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int found = this.getCodepoint(mid);
+			if(found < codepoint)
+				low = mid + 1;
+			else if(found > codepoint)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+	
+	/**
+	 * decodes glyph number @param index
+	 * 
+	 * @return a new getHeight() tall frame of the design
+	 */
+	public LedFrame glyph(int index) {
+		int width = this.getWidth(index);
+		LedFrame frame = new LedFrame(this.height, width);
+		
+		//each column is height bits, read a byte at a time
+		int start = this.dataOffset + this.offset(index);
+		long mask = this.height == Long.SIZE ? -1L : (1L << this.height) - 1;
+		int bit = 0;
+		for(int col = 0; col < width; col++, bit += this.height) {
+			int at = start + (bit >>> 3);
+			int read = 8 - (bit & 7);
+			long column = (this.data.get(at) & 0xFF) >>> (bit & 7);
+			for(; read < this.height; read += 8) {
+				column |= (long) (this.data.get(++at) & 0xFF) << read;
+			}
+			frame.setColumn(col, column & mask);
+		}
+		return frame;
+	}
+	
+	// codepoint of glyph number @param index
+	public int getCodepoint(int index) {
+		return this.data.getInt(HEADER_LENGTH + index * ENTRY_LENGTH);
+	}
+	
+	// columns of glyph number @param index
+	public int getWidth(int index) {
+		return this.data.getShort(HEADER_LENGTH + index * ENTRY_LENGTH + 8) & 0xFFFF;
+	}
+	
+	// where the columns of glyph number @param index start within DATA
+	private int offset(int index) {
+		return this.data.getInt(HEADER_LENGTH + index * ENTRY_LENGTH + 4);
+	}
+	
+	// rows of every glyph
+	public int getHeight() {
+		return this.height;
+	}
+	
+	public int getGlyphCount() {
+		return this.count;
+	}
+	
+	// bytes holding @param bits packed bits
+	static int packedLength(int bits) {
+		return (bits + 7) / 8;
+	}
+}
@@ -0,0 +1,66 @@
+// SmoothRenderer.java
+// Author: Vivaan Mahtab
+
+package word_processing;
+
+/**
+ * <em>SmoothRenderer class</em>
+ * draws a rendered message (e.g. <em>WordEvent</em>.getMessage()) at a
+ * fractional column position into a <em>GrayFrame</em>, so text scrolled
+ * a part of a column at a time moves smoothly instead of jumping a whole
+ * LED each frame, and looks smooth at a lower frame rate
+ * 
+ * at position p + f (0 <= f < 1) each LED is lit by the two message
+ * columns it lies between, (1 - f) of column p + col and f of column
+ * p + col + 1, so each glyph column's light is spread over the two LEDs
+ * it falls across and adds up to the same at every position
+ * 
+ * f is rounded to the nearest level, and every plane of a column is a few
+ * word operations on the two message columns (both lit, only the left
+ * one, only the right one), whatever the height of the board
+ * 
+ * @author Vivaan Mahtab
+ * 
+ * @see local/word_processing/GrayFrame.java
+ * @see local/render_engine/RenderEngine.java
+ */
+public final class SmoothRenderer {
+	
+	private SmoothRenderer() {}
+	
+	/**
+	 * draws @param message from column @param position onwards into @param into,
+	 * columns outside @param message are off
+	 * 
+	 * @param position - first column of @param message shown, may be fractional
+	 * @return @param into
+	 */
+	public static GrayFrame render(LedFrame message, double position, GrayFrame into) {
+		int first = (int) Math.floor(position);
+		int max = into.getMaxLevel();
+		
+		//levels of the right and left columns
+		int right = (int) Math.round((position - first) * max);
+		if(right == max) {
+			first++;
+			right = 0;
+		}
+		int left = max - right;
+		
+		for(int k = 0; k < into.getBits(); k++) {
+			
+			//all ones where bit k of each level is set
+			long both = -(max >>> k & 1);
+			long leftOnly = -(left >>> k & 1);
+			long rightOnly = -(right >>> k & 1);
+			
+			LedFrame plane = into.getPlane(k);
+			for(int col = 0; col < into.getWidth(); col++) {
+				long a = message.getColumn(first + col);
+				long b = message.getColumn(first + col + 1);
+				plane.setColumn(col, (a & b & both) | (a & ~b & leftOnly) | (b & ~a & rightOnly));
+			}
+		}
+		return into;
+	}
+}
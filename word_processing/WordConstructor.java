@@ -4,11 +4,8 @@
 
 package word_processing;
 
+import settings.BoardGeometry;
 import settings.Settings;
-import java.util.ArrayList;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 
 /**
  * <em>WordConstructor class</em>
@@ -23,14 +20,14 @@ import java.io.IOException;
 public class WordConstructor implements Settings{
 
 	/**
-	 * a grid to store <em>BULB_GRID_HEIGHT</em> by <em>length</em> 
+	 * a grid to store <em>board height</em> by <em>length</em> 
 	 * board that represents a binary representation of LED's to 
 	 * be lit up to represent the "word"
 	 * 
 	 * @see settings.Settings
 	 * @see <em>word</word>
 	 */
-	ArrayList<ArrayList<String>> grid;
+	LedFrame grid;
 	
 	//The horizontal size of this.grid
 	int length;
@@ -41,88 +38,62 @@ public class WordConstructor implements Settings{
 	
 	/**
 	 * reads in "word" and finds corresponding characters in
-	 * local/alphanumeric_characters and adds the binary
+	 * <em>GlyphRegistry</em> and adds the binary
 	 * representation in order of character appearance
 	 * 
 	 * @param word - the word to be generated by characters
 	 * 
-	 * @exception if a character within word does not have a
-	 * 			  binary representation an error is thrown
+	 * @implNote a character within word that does not have a
+	 * 			 binary representation is drawn as its uppercase design,
+	 * 			 or the fallback glyph if it has neither
 	 * 
-	 * @see local/alphanumeric_characters
+	 * @see local/src/word_processing/GlyphRegistry
 	 * @implNote assumes alphanumeric_characters contain rectangular arrays 
 	 *		of TRUE and FALSE integers
 	 */
 	public WordConstructor(String word) {
+		this(word, BoardGeometry.DEFAULT);
+	}
+	
+	/**
+	 * same as above for a board of @param geometry, glyphs are drawn from
+	 * the top row and rows beyond the board are dropped
+	 * 
+	 * @see local/src/settings/BoardGeometry
+	 */
+	public WordConstructor(String word, BoardGeometry geometry) {
 		
 		this.seq = word;
-		this.grid = new ArrayList<ArrayList<String>>();
 	
-		//Makes "height" of grid the set height of grid
-		for(int i = 0; i < BULB_GRID_HEIGHT; i++) {
-			this.grid.add(new ArrayList<String>());
+		//Break @param word into composite characters (codepoints, so
+		//characters outside the Basic Multilingual Plane stay whole)
+		int[] chars = new int[word.codePointCount(0, word.length())];
+		for(int i = 0, index = 0; i < chars.length; i++) {
+			chars[i] = word.codePointAt(index);
+			index += Character.charCount(chars[i]);
 		}
-	
-	//Find path to local directory of character designs
-	String path = System.getProperty("user.dir");
-	
-	//Break @param word into composite characters
-	char[] chars = word.toUpperCase().toCharArray();
-
-	BufferedReader reader = null;
-	
-		try {
-			String strCurrentLine;
-			
-			//Iterate through each character of @param word
-			for(int i = 0; i < chars.length; i++) {
-				
-				//SPECIAL CASE '/' character
-				if(chars[i] == '/') {
-					reader = new BufferedReader(new FileReader(path + "/src/Alphanumeric_Characters/f_slash"));
-				}
-				
-				//SPECIAL CASE '.' character
-				else if(chars[i] == '.') 
-					reader = new BufferedReader(new FileReader(path + "/src/Alphanumeric_Characters/period"));
-				
-				//Find file of current character
-				else
-					reader = new BufferedReader(new FileReader(path + "/src/Alphanumeric_Characters/" + chars[i]));
-				
-				//iterate through each row of character
-				int j = 0;
-				while(j <= BULB_GRID_HEIGHT && (strCurrentLine = reader.readLine()) != null) {
-					
-					//adds row plus trailing '0' for kerning between displayed characters
-					this.grid.get(j).add(strCurrentLine + "0");
-					j++;
-				}
-				
-				//Close current file reader to find new file
-				try {
-					if(reader!=null) 
-						reader.close();
-				} catch(IOException e) {
-					e.printStackTrace();
-				}
-			}
-			
-			//remove trailing 0 column from last character
-			if(grid.get(0).size()>0) {
-				for(int i = 0; i < grid.size(); i++) {
-					String index = grid.get(i).get(grid.get(i).size()-1);
-					grid.get(i).set(grid.get(i).size()-1, index.substring(0, index.length()-1));
-				}
-			}
 		
-			
-		} catch(IOException e) {e.printStackTrace();}
+		//Find design of each character, case is kept for fonts with lowercase
+		LedFrame[] glyphs = new LedFrame[chars.length];
 		
-		//adds combined length of all characters composing of word grid
+		//adds combined length of all characters plus one column of
+		//kerning between displayed characters
 		this.length = 0;
-		for(String subGrid : grid.get(0)) {
-			this.length += subGrid.length();
+		for(int i = 0; i < chars.length; i++) {
+			glyphs[i] = GlyphRegistry.get(chars[i]);
+			this.length += glyphs[i].getWidth();
+			if(i > 0)
+				this.length++;
+		}
+		
+		//Makes "height" of grid the height of the board
+		this.grid = new LedFrame(geometry.getHeight(), this.length);
+		
+		//copy each character into grid in order of appearance
+		int col = 0;
+		for(LedFrame glyph : glyphs) {
+			this.grid.blit(glyph, 0, col, glyph.getWidth());
+			col += glyph.getWidth() + 1;
 		}
 		
 	}
@@ -134,23 +105,11 @@ public class WordConstructor implements Settings{
 	 * with no character
 	 */
 	public void print() {
-		for(ArrayList<String> arr : this.getGrid()) {
-			for(String str : arr) {
-				for(char chr : str.toCharArray()) {
-					if(chr == '1') {
-						System.out.print("X ");
-					}
-					else {
-						System.out.print("  ");
-					}
-				}
-			}
-			System.out.println();
-		}
+		this.grid.print();
 	}
 	
 	//getter for LED display grid
-	public ArrayList<ArrayList<String>> getGrid() {
+	public LedFrame getGrid() {
 		return this.grid;
 	}
 	
@@ -3,8 +3,8 @@
 // Author: Vivaan Mahtab
 
 package word_processing;
+import settings.BoardGeometry;
 import word_processing.WordConstructor;
-import java.util.ArrayList;
 
 /**
  * <em>WordEvent Class</em>
@@ -20,10 +20,23 @@ import java.util.ArrayList;
  */
 public class WordEvent implements settings.Settings{
 	
+	//number of columns of the default board that are displayed,
+	//see getGeometry().getVisibleLength() for this WordEvent's board
+	public final static int VISIBLE_LENGTH = BULB_GRID_LENGTH + USER_INTERFACE_EXCESS_LENGTH;
+	
+	//number of off columns placed in between each word
+	final static int WORD_KERNING = 3;
+	
 	WordConstructor[] words;
 	int position;
 	int size;
 	
+	//size of the board this WordEvent is displayed on
+	final BoardGeometry geometry;
+	
+	//every word rendered once into a single contiguous frame
+	LedFrame message;
+	
 	/**
 	 * Creates a new WordEvent that is series of strings
 	 * generated into <em>Word</em> objects
@@ -35,15 +48,20 @@ public class WordEvent implements settings.Settings{
 	 * @param position - an initial position that the board writes from
 	 * 					 so that the board can display letters and characters
 	 * 					 located within the <em>Word</em> list
+	 * 
+	 * @param geometry - size of the board to display on
+	 * @see local/src/settings/BoardGeometry
 	 */
-	public WordEvent(String str, int position) {
+	public WordEvent(String str, int position, BoardGeometry geometry) {
 		this.position = position;
+		this.geometry = geometry;
 		
 		//if no characters are inputed as the wordEvent
 		if(str.equals("")) {
 			words = new WordConstructor[1];
-			words[0] = new WordConstructor("");
+			words[0] = new WordConstructor("", geometry);
 			this.size = 0;
+			this.message = new LedFrame(geometry.getHeight(), 0);
 			return;
 		}
 		
@@ -54,7 +72,7 @@ public class WordEvent implements settings.Settings{
 		//Generates WordConstructor objects from list of strings
 		this.words = new WordConstructor[strings.length];
 		for(int i = 0; i < strings.length; i++) {
-			words[i] = new WordConstructor(strings[i]);
+			words[i] = new WordConstructor(strings[i], geometry);
 		}
 			
 		//Gets total length of Words with kerning in between
@@ -64,14 +82,69 @@ public class WordEvent implements settings.Settings{
 			this.size += 2;
 		}
 		size -= 2;
+		
+		this.message = render(this.words, geometry.getHeight());
 
 	}
 	
+	/**
+	 * copies each <em>WordConstructor</em> object's grid into one frame in order,
+	 * adding extra off columns in between each WordConstructor objects for
+	 * kerning readability
+	 * 
+	 * This assumes all <em>WordConstructor</em> objects are @param height tall
+	 */
+	private static LedFrame render(WordConstructor[] words, int height) {
+		
+		//total length of all words with kerning in between
+		int length = 0;
+		for(WordConstructor current_word_object : words) {
+			length += current_word_object.getLength() + WORD_KERNING;
+		}
+		length -= WORD_KERNING;
+		
+		//main loop - copies each WordConstructor object
+		LedFrame grid = new LedFrame(height, Math.max(length, 0));
+		int col = 0;
+		for(WordConstructor current_word_object : words) {
+			grid.blit(current_word_object.getGrid(), 0, col, current_word_object.getLength());
+			col += current_word_object.getLength() + WORD_KERNING;
+		}
+		return grid;
+	}
+	
+	// the default board
+	public WordEvent(String str, int position) {
+		this(str, position, BoardGeometry.DEFAULT);
+	}
+	
 	// default position of 0
 	public WordEvent(String str) {
 		this(str, 0);
 	}
 	
+	/**
+	 * Creates a new WordEvent from a message that has already been rendered,
+	 * e.g. by <em>DigitRenderer</em>
+	 * 
+	 * @param message - the rendered message, shared not copied, so changes
+	 * 					made to it later show up on the board
+	 * @param position - an initial position that the board writes from
+	 * @param geometry - size of the board to display on
+	 */
+	public WordEvent(LedFrame message, int position, BoardGeometry geometry) {
+		this.position = position;
+		this.geometry = geometry;
+		this.words = new WordConstructor[0];
+		this.size = message.getWidth();
+		this.message = message;
+	}
+	
+	// the default board
+	public WordEvent(LedFrame message, int position) {
+		this(message, position, BoardGeometry.DEFAULT);
+	}
+	
 	// adds or subtracts from position by @param displacement
 	public void move(int displacement) {
 		this.position += displacement;
@@ -82,76 +155,40 @@ public class WordEvent implements settings.Settings{
 	}
 	
 	/**
-	 * a getter that returns the list of <em>WordConstructor</em> objects
-	 * into a series of TRUE and FALSE characters that represent if a
-	 * corresponding LED light should be on or off in a given inputed
-	 * scenario or light board display
+	 * a getter that returns the visible columns of the rendered
+	 * message starting at this.position as a <em>LedFrame</em> of on and
+	 * off LEDs that represent if a corresponding LED light should be on or
+	 * off in a given inputed scenario or light board display
 	 * 
-	 * Goes through each <em>WordConstructor</em> Object and adds corresponding TRUE or FALSE for various
-	 * object - performed by going through first <em>WordConstructor</em> object and than repeating on
-	 * first ROW of LED's with next <em>WordConstructor</em> object and adding extra FALSEs in between each
-	 * WordConstructor objects for kerning readability
+	 * The message is rendered once when this WordEvent is created, so each call
+	 * only copies the visible columns and costs the same for any message length
 	 * 
-	 * This assumes all <em>WordConstructor</em> objects are the same height
-	 * of BULB_HEIGHT_GRID and are perfectly rectangular arrays
+	 * @implNote if position < 0, off columns are placed BEFORE the first word
+	 * 			 to allow for excess space before start of first on LED
 	 * 
-	 * @see local/src/settings/Settings
+	 * @see local/src/settings/BoardGeometry
+	 * @see local/src/word_processing/LedFrame
 	 */
-	public String[] get_offset_board() {
-		
-		//The "height" of the LED grid, as in the bulbs that compose of it vertically
-		String[] grid = new String[BULB_GRID_HEIGHT];
-		for(int i = 0; i < grid.length; i++) {
-			grid[i] = "";
-		}
-		
-		//if no characters in this clause
-		if(this.size==0)
-			return grid;
-	
-		//main loop - reads each WordConstructor object
-		for(WordConstructor current_word_object : this.words) {
-			ArrayList<ArrayList<String>> OUTER_ARRAYLIST = current_word_object.getGrid();
-			int i = 0;
-			for(ArrayList<String> INNER_ARRAYLIST : OUTER_ARRAYLIST) {
-				for(String led_seq : INNER_ARRAYLIST) {
-					grid[i] += led_seq;
-				}
-				grid[i] += "000";
-				i++;
-			}
-			
-		}
-		
-		// checks initialPosition based on this.position
-		// note: if position <= 0, goes to 0
-		int startIndex = this.position > 0? this.position : 0;
-		
-		// Gets last index before excess FALSE trail
-		int endIndex = grid[0].length()-2;
-		
-		// Breaks the corresponding generated grid into various
-		// substrings that fit within the board
-		if(endIndex > 0) {
-			for(int i =0; i < grid.length; i++) {
-				grid[i] = grid[i].substring(startIndex, endIndex);
-			}
-		}
-		
-		// if position < 0, than excess FALSEs are added BEFORE initial grid
-		// to allow for excess space before start of first on LED
-		if(this.position<0) {
-
-			for(int grid_index  = 0; grid_index < grid.length; grid_index++) {
-				for(int num_itr = 0; num_itr < -this.position; num_itr++) {
-					grid[grid_index] = "0" + grid[grid_index];
-				}
-			}
-		}
-		
-
+	public LedFrame get_offset_board() {
+		return this.message.window(this.position, this.geometry.getVisibleLength());
+	}
+	
+	/**
+	 * same as get_offset_board() but writes into @param grid instead of
+	 * creating a new frame, so that a caller can reuse one frame every tick
+	 * 
+	 * @param grid - frame to overwrite, its width sets the number of columns copied
+	 * @return @param grid
+	 */
+	public LedFrame get_offset_board(LedFrame grid) {
+		grid.copyFrom(this.message, this.position);
 		return grid;
-	}	
+	}
+	
+	// getter for the entire rendered message
+	public LedFrame getMessage() {
+		return this.message;
+	}
 	
 	public int getPosition() {
 		return this.position;
@@ -161,19 +198,12 @@ public class WordEvent implements settings.Settings{
 		return this.size;
 	}
 	
+	public BoardGeometry getGeometry() {
+		return this.geometry;
+	}
+	
 	// PRINTS into console with ON LED being represented by an 'X'
 	public void print() {
-		String[] arr = this.get_offset_board();
-		for(String str : arr) {
-			for(char chr : str.toCharArray()) {
-				if(chr == '1') {
-					System.out.print("X ");
-				}
-				else {
-					System.out.print("  ");
-				}
-			}
-			System.out.println();
-		}
+		this.get_offset_board().print();
 	}
 }